@@ -0,0 +1,45 @@
+package charting.data;
+
+import charting.timeline.Timeline;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The non-blocking variant of {@link TickerDataProvider}, e.g. for remote sources. The futures complete on threads
+ * of the provider, so callers that update the GUI continue with {@code thenAcceptAsync(..., Platform::runLater)}.
+ */
+public interface AsyncTickerDataProvider {
+    /**
+     * Runs the given blocking provider on virtual threads if available and coalesces concurrent requests.
+     *
+     * @see BlockingTickerDataProviderAdapter
+     */
+    static AsyncTickerDataProvider of(TickerDataProvider provider) {
+        return new BlockingTickerDataProviderAdapter(provider);
+    }
+
+    CompletableFuture<Set<Ticker>> getTickers();
+
+    CompletableFuture<Optional<? extends Timeline<? extends Candle>>> getCandles(Ticker ticker, Interval interval);
+
+    /**
+     * @see TickerDataProvider#getCandles(Ticker, Interval, Instant, Instant)
+     */
+    CompletableFuture<Optional<? extends Timeline<? extends Candle>>> getCandles(Ticker ticker, Interval interval,
+                                                                                Instant from, Instant to);
+
+    /**
+     * @see TickerDataProvider#getFirstCandleInstant(Ticker, Interval)
+     */
+    CompletableFuture<Optional<Instant>> getFirstCandleInstant(Ticker ticker, Interval interval);
+
+    /**
+     * @see TickerDataProvider#getLastCandleInstant(Ticker, Interval)
+     */
+    CompletableFuture<Optional<Instant>> getLastCandleInstant(Ticker ticker, Interval interval);
+
+    CompletableFuture<Optional<String>> getTickerSymbol(Ticker ticker);
+}
@@ -0,0 +1,109 @@
+package charting.data;
+
+import charting.timeline.Timeline;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * An {@link AsyncTickerDataProvider} that calls a blocking {@link TickerDataProvider} on an executor, by default
+ * one virtual thread per request if the runtime supports them and otherwise a pool of daemon threads.
+ * <p>
+ * Concurrent requests with the same arguments, e.g. from several charts of the same ticker and interval,
+ * are coalesced into a single call of the provider while it is in progress. Completed results aren't cached.
+ */
+public final class BlockingTickerDataProviderAdapter implements AsyncTickerDataProvider {
+    private static final ExecutorService DEFAULT_EXECUTOR = createDefaultExecutor();
+
+    private final TickerDataProvider provider;
+    private final Executor executor;
+
+    /**
+     * The futures of the requests in progress by their method name and arguments.
+     */
+    private final Map<List<Object>, CompletableFuture<?>> pending = new ConcurrentHashMap<>();
+
+    public BlockingTickerDataProviderAdapter(TickerDataProvider provider) {
+        this(provider, DEFAULT_EXECUTOR);
+    }
+
+    public BlockingTickerDataProviderAdapter(TickerDataProvider provider, Executor executor) {
+        this.provider = provider;
+        this.executor = executor;
+    }
+
+    /**
+     * Looks up virtual threads reflectively, since they are only available from Java 21 on.
+     */
+    private static ExecutorService createDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "ticker-data-loader");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    @Override
+    public CompletableFuture<Set<Ticker>> getTickers() {
+        return request(List.of("getTickers"), provider::getTickers);
+    }
+
+    @Override
+    public CompletableFuture<Optional<? extends Timeline<? extends Candle>>> getCandles(Ticker ticker,
+                                                                                       Interval interval) {
+        return request(List.of("getCandles", ticker, interval), () -> provider.getCandles(ticker, interval));
+    }
+
+    @Override
+    public CompletableFuture<Optional<? extends Timeline<? extends Candle>>> getCandles(Ticker ticker,
+                                                                                       Interval interval,
+                                                                                       Instant from, Instant to) {
+        return request(List.of("getCandles", ticker, interval, from, to),
+                () -> provider.getCandles(ticker, interval, from, to));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Instant>> getFirstCandleInstant(Ticker ticker, Interval interval) {
+        return request(List.of("getFirstCandleInstant", ticker, interval),
+                () -> provider.getFirstCandleInstant(ticker, interval));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Instant>> getLastCandleInstant(Ticker ticker, Interval interval) {
+        return request(List.of("getLastCandleInstant", ticker, interval),
+                () -> provider.getLastCandleInstant(ticker, interval));
+    }
+
+    @Override
+    public CompletableFuture<Optional<String>> getTickerSymbol(Ticker ticker) {
+        return request(List.of("getTickerSymbol", ticker), () -> provider.getTickerSymbol(ticker));
+    }
+
+    /**
+     * Joins the request in progress with the given key or starts a new one.
+     *
+     * @return A copy of the shared future, so that callers cannot complete or cancel it for each other.
+     */
+    private <R> CompletableFuture<R> request(List<Object> key, Supplier<R> supplier) {
+        @SuppressWarnings("unchecked")
+        CompletableFuture<R> future = (CompletableFuture<R>) pending.computeIfAbsent(key,
+                k -> CompletableFuture.supplyAsync(supplier, executor));
+
+        // Only once the future is in the map, otherwise a fast request would stay in it forever.
+        future.whenComplete((r, e) -> pending.remove(key, future));
+        return future.copy();
+    }
+}
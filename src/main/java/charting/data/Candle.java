@@ -3,6 +3,10 @@ package charting.data;
 import java.time.Duration;
 import java.time.Instant;
 
+/**
+ * A candle of a ticker. The {@code get...Double} methods return the values as primitives, which views over primitive
+ * storage implement without boxing.
+ */
 public interface Candle {
     Number getOpen();
 
@@ -14,6 +18,26 @@ public interface Candle {
 
     Number getVolume();
 
+    default double getOpenDouble() {
+        return getOpen().doubleValue();
+    }
+
+    default double getHighDouble() {
+        return getHigh().doubleValue();
+    }
+
+    default double getLowDouble() {
+        return getLow().doubleValue();
+    }
+
+    default double getCloseDouble() {
+        return getClose().doubleValue();
+    }
+
+    default double getVolumeDouble() {
+        return getVolume().doubleValue();
+    }
+
     Instant getStartInstant();
 
     Instant getEndInstant();
@@ -0,0 +1,215 @@
+package charting.data;
+
+import charting.timeline.Timeline;
+import charting.timeline.TimelineCursor;
+import charting.timeline.TimelineRangeListener;
+import charting.util.Preconditions;
+
+import java.lang.ref.WeakReference;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Multiple resolutions of a candle {@link Timeline} for drawing many candles at once.
+ * At level l, the candles are merged into buckets of 2^l consecutive candles, level 0 being the candles themselves.
+ * A bucket holds the open of its first candle, the close of its last candle, the highest high, the lowest low and
+ * the sum of the volumes.
+ * <p>
+ * The levels are calculated lazily and kept up to date with the timeline. Modifying the timeline only invalidates
+ * the buckets from the modified index on, so appending candles is cheap.
+ * <p>
+ * Use {@link #of} to share the pyramid of a timeline between the drawings of the same candles.
+ */
+public final class CandlePyramid {
+    public static final int OPEN = 0;
+    public static final int HIGH = 1;
+    public static final int LOW = 2;
+    public static final int CLOSE = 3;
+    public static final int VOLUME = 4;
+
+    /**
+     * The number of values per bucket.
+     */
+    public static final int STRIDE = 5;
+
+    private static final int MAX_LEVEL = 30;
+
+    private static final Map<Timeline<?>, WeakReference<CandlePyramid>> SHARED = new WeakHashMap<>();
+
+    private final Timeline<? extends Candle> candles;
+
+    /**
+     * The levels starting with level 1.
+     */
+    private final List<Level> levels = new ArrayList<>();
+
+    private final TimelineRangeListener<Candle> listener = new TimelineRangeListener<>() {
+        @Override
+        public void onUpdate(Instant instant, Candle newValue) {
+            int i = candles.indexOf(instant);
+            invalidate(i < 0 ? -i - 1 : i);
+        }
+
+        @Override
+        public void onRangeUpdate(int from, int to) {
+            invalidate(from);
+        }
+    };
+
+    public CandlePyramid(Timeline<? extends Candle> candles) {
+        this.candles = candles;
+
+        candles.addWeakListener(listener);
+    }
+
+    /**
+     * @return The shared pyramid of the given timeline. It is only referenced weakly, so callers should keep it.
+     */
+    public static synchronized CandlePyramid of(Timeline<? extends Candle> candles) {
+        WeakReference<CandlePyramid> ref = SHARED.get(candles);
+        CandlePyramid pyramid = ref == null ? null : ref.get();
+
+        if (pyramid == null) {
+            pyramid = new CandlePyramid(candles);
+            SHARED.put(candles, new WeakReference<>(pyramid));
+        }
+
+        return pyramid;
+    }
+
+    public Timeline<? extends Candle> getCandles() {
+        return candles;
+    }
+
+    /**
+     * @return The lowest level where a bucket covers at least the given number of candles.
+     */
+    public static int getLevel(double candlesPerBucket) {
+        if (!(candlesPerBucket > 1)) {
+            return 0;
+        }
+
+        return Math.min(MAX_LEVEL, 64 - Long.numberOfLeadingZeros((long) Math.ceil(candlesPerBucket) - 1));
+    }
+
+    /**
+     * @return The number of buckets at the given level.
+     */
+    public int size(int level) {
+        Preconditions.checkIndex(level, MAX_LEVEL + 1);
+        return (int) ((candles.size() + (1L << level) - 1) >> level);
+    }
+
+    /**
+     * Copies the buckets in the index range [from, to) of the given level into the given array starting at index 0.
+     * The values of a bucket are stored consecutively in the order {@link #OPEN}, {@link #HIGH}, {@link #LOW},
+     * {@link #CLOSE}, {@link #VOLUME}.
+     *
+     * @return The given array, or a larger one if it is too small.
+     */
+    public synchronized double[] copyRange(int level, int from, int to, double[] dst) {
+        Preconditions.checkIndex(to, size(level) + 1);
+        Preconditions.checkIndex(from, to + 1);
+
+        if (dst.length < (to - from) * STRIDE) {
+            dst = new double[Math.max((to - from) * STRIDE, dst.length * 2)];
+        }
+
+        if (level == 0) {
+            copyCandles(from, to, dst, 0);
+        } else {
+            Level l = ensureLevel(level, to);
+            System.arraycopy(l.values, from * STRIDE, dst, 0, (to - from) * STRIDE);
+        }
+
+        return dst;
+    }
+
+    private void copyCandles(int from, int to, double[] dst, int offset) {
+        TimelineCursor<? extends Candle> c = candles.cursor(from - 1);
+
+        for (int i = offset; c.advance() && c.index() < to; i += STRIDE) {
+            Candle candle = c.value();
+            dst[i + OPEN] = candle.getOpenDouble();
+            dst[i + HIGH] = candle.getHighDouble();
+            dst[i + LOW] = candle.getLowDouble();
+            dst[i + CLOSE] = candle.getCloseDouble();
+            dst[i + VOLUME] = candle.getVolumeDouble();
+        }
+    }
+
+    /**
+     * @return The level with at least the given number of valid buckets.
+     */
+    private Level ensureLevel(int level, int buckets) {
+        while (levels.size() < level) {
+            levels.add(new Level());
+        }
+
+        Level l = levels.get(level - 1);
+
+        if (l.size < buckets) {
+            int from = l.size;
+            int lowerTo = Math.min(buckets * 2, size(level - 1));
+            l.ensureCapacity(buckets);
+
+            double[] lower;
+            int lowerOffset;
+
+            if (level == 1) {
+                lower = new double[(lowerTo - from * 2) * STRIDE];
+                lowerOffset = from * 2;
+                copyCandles(from * 2, lowerTo, lower, 0);
+            } else {
+                lower = ensureLevel(level - 1, lowerTo).values;
+                lowerOffset = 0;
+            }
+
+            for (int b = from; b < buckets; b++) {
+                int i1 = (b * 2 - lowerOffset) * STRIDE;
+                int i2 = i1 + STRIDE;
+                int j = b * STRIDE;
+
+                if (b * 2 + 1 < lowerTo) {
+                    l.values[j + OPEN] = lower[i1 + OPEN];
+                    l.values[j + HIGH] = Math.max(lower[i1 + HIGH], lower[i2 + HIGH]);
+                    l.values[j + LOW] = Math.min(lower[i1 + LOW], lower[i2 + LOW]);
+                    l.values[j + CLOSE] = lower[i2 + CLOSE];
+                    l.values[j + VOLUME] = volume(lower[i1 + VOLUME]) + volume(lower[i2 + VOLUME]);
+                } else {
+                    System.arraycopy(lower, i1, l.values, j, STRIDE);
+                    l.values[j + VOLUME] = volume(lower[i1 + VOLUME]);
+                }
+            }
+
+            l.size = buckets;
+        }
+
+        return l;
+    }
+
+    private static double volume(double v) {
+        return Double.isNaN(v) ? 0 : v;
+    }
+
+    /**
+     * Invalidates all buckets which contain candles from the given index on.
+     */
+    private synchronized void invalidate(int index) {
+        for (int i = 0; i < levels.size(); i++) {
+            Level l = levels.get(i);
+            l.size = Math.min(l.size, Math.max(index, 0) >> (i + 1));
+        }
+    }
+
+    private static final class Level {
+        double[] values = new double[0];
+        int size;
+
+        void ensureCapacity(int buckets) {
+            if (values.length < buckets * STRIDE) {
+                values = Arrays.copyOf(values, Math.max(buckets * STRIDE, values.length * 2));
+            }
+        }
+    }
+}
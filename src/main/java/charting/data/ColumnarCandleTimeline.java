@@ -0,0 +1,613 @@
+package charting.data;
+
+import charting.timeline.DoubleTimeline;
+import charting.timeline.NotificationBaseTimeline;
+import charting.timeline.Timeline;
+import charting.timeline.Timestamped;
+import charting.util.Preconditions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * A read-only {@link Timeline} of candles backed by a memory-mapped file in a columnar layout.
+ * Every field of the candles is stored in a contiguous column, so that reading a single field, e.g. the closes
+ * via {@link #getColumn(Column)}, only touches the pages of that column and of the start times.
+ * <p>
+ * The file consists of a header with the symbol and the interval of the candles, the columns of the start, end
+ * and current epoch seconds followed by the columns of open, high, low, close and volume, and a footer with a sparse
+ * index of the start times, which narrows the search for an instant down to a single block of the time column.
+ * All numbers are little-endian and instants are stored with a precision of one second.
+ */
+public final class ColumnarCandleTimeline extends NotificationBaseTimeline<Candle> {
+    /**
+     * A column of double values.
+     */
+    public enum Column {
+        OPEN, HIGH, LOW, CLOSE, VOLUME
+    }
+
+    private static final long MAGIC = 0x324c4f4343414343L;
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 40;
+
+    private static final int START = 0;
+    private static final int END = 1;
+    private static final int CURRENT = 2;
+    private static final int COLUMNS = 3 + Column.values().length;
+
+    /**
+     * The number of records per entry of the footer index.
+     */
+    private static final int INDEX_STRIDE = 4096;
+
+    private final String symbol;
+    private final String interval;
+
+    private final ByteBuffer[] columns;
+    private final long[] index;
+    private final int size;
+
+    private final Map<Column, ColumnTimeline> columnTimelines = new EnumMap<>(Column.class);
+
+    private ColumnarCandleTimeline(String symbol, String interval, ByteBuffer[] columns, long[] index, int size) {
+        this.symbol = symbol;
+        this.interval = interval;
+        this.columns = columns;
+        this.index = index;
+        this.size = size;
+
+        for (Column c : Column.values()) {
+            columnTimelines.put(c, new ColumnTimeline(3 + c.ordinal()));
+        }
+    }
+
+    /**
+     * Maps the given file which must have been created by {@link #write(Path, String, Interval, Timeline)}.
+     * Only the header and the footer are read, the columns are loaded on demand by the operating system.
+     *
+     * @throws IOException If the file cannot be read or is not a valid columnar candle file.
+     */
+    public static ColumnarCandleTimeline open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Invalid columnar candle file: " + path);
+            }
+
+            ByteBuffer header = read(channel, 0, HEADER_SIZE);
+            long count = header.getLong(16);
+            long footer = header.getLong(24);
+            int symbolLength = header.getInt(32);
+            int intervalLength = header.getInt(36);
+            long dataStart = align(HEADER_SIZE + (long) symbolLength + intervalLength);
+
+            if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION || header.getInt(12) != COLUMNS
+                    || count < 0 || count > Integer.MAX_VALUE / Long.BYTES || symbolLength < 0 || intervalLength < 0
+                    || footer != dataStart + count * Long.BYTES * COLUMNS || footer > fileSize) {
+                throw new IOException("Invalid columnar candle file: " + path);
+            }
+
+            ByteBuffer metadata = read(channel, HEADER_SIZE, symbolLength + intervalLength);
+            String symbol = StandardCharsets.UTF_8.decode(metadata.limit(symbolLength)).toString();
+            String interval = StandardCharsets.UTF_8.decode(metadata.limit(symbolLength + intervalLength)).toString();
+
+            int size = (int) count;
+            long[] index = new long[(size + INDEX_STRIDE - 1) / INDEX_STRIDE];
+            if (footer + (long) index.length * Long.BYTES > fileSize) {
+                throw new IOException("Invalid columnar candle file: " + path);
+            }
+            read(channel, footer, index.length * Long.BYTES).asLongBuffer().get(index);
+
+            ByteBuffer[] columns = new ByteBuffer[COLUMNS];
+            for (int c = 0; c < COLUMNS; c++) {
+                columns[c] = channel.map(FileChannel.MapMode.READ_ONLY, dataStart + (long) c * size * Long.BYTES,
+                        (long) size * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            return new ColumnarCandleTimeline(symbol, interval, columns, index, size);
+        }
+    }
+
+    /**
+     * Writes the candles of the given timeline into a file that can be opened with {@link #open(Path)}.
+     * The timestamps of the timeline are expected to be the start instants of the candles.
+     *
+     * @throws IllegalArgumentException If an instant has a sub-second precision.
+     */
+    public static void write(Path path, String symbol, Interval interval, Timeline<? extends Candle> candles)
+            throws IOException {
+        byte[] symbolBytes = symbol.getBytes(StandardCharsets.UTF_8);
+        byte[] intervalBytes = interval.toString().getBytes(StandardCharsets.UTF_8);
+        int size = candles.size();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long dataStart = align(HEADER_SIZE + symbolBytes.length + intervalBytes.length);
+            ByteBuffer buffer = ByteBuffer.allocate(Math.max(64 * 1024, (int) dataStart))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putLong(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(COLUMNS);
+            buffer.putLong(size);
+            buffer.putLong(dataStart + (long) size * Long.BYTES * COLUMNS);
+            buffer.putInt(symbolBytes.length);
+            buffer.putInt(intervalBytes.length);
+            buffer.put(symbolBytes);
+            buffer.put(intervalBytes);
+            buffer.position((int) dataStart);
+
+            long[] index = new long[(size + INDEX_STRIDE - 1) / INDEX_STRIDE];
+
+            for (int c = 0; c < COLUMNS; c++) {
+                int i = 0;
+                for (Timestamped<? extends Candle> t : candles) {
+                    if (!buffer.hasRemaining()) {
+                        flush(channel, buffer);
+                    }
+
+                    Candle candle = t.value();
+                    switch (c) {
+                        case START -> {
+                            long second = getEpochSecond(candle.getStartInstant());
+                            if (i % INDEX_STRIDE == 0) {
+                                index[i / INDEX_STRIDE] = second;
+                            }
+                            buffer.putLong(second);
+                        }
+                        case END -> buffer.putLong(getEpochSecond(candle.getEndInstant()));
+                        case CURRENT -> buffer.putLong(getEpochSecond(candle.getCurrentInstant()));
+                        default -> buffer.putDouble(getValue(candle, Column.values()[c - 3]));
+                    }
+
+                    i++;
+                }
+            }
+
+            for (long l : index) {
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+
+                buffer.putLong(l);
+            }
+
+            flush(channel, buffer);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+
+        return buffer.flip();
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long align(long position) {
+        return (position + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    private static long getEpochSecond(Instant instant) {
+        Preconditions.checkArgument(instant.getNano() == 0, "Sub-second precision is not supported");
+        return instant.getEpochSecond();
+    }
+
+    private static double getValue(Candle candle, Column column) {
+        return switch (column) {
+            case OPEN -> candle.getOpenDouble();
+            case HIGH -> candle.getHighDouble();
+            case LOW -> candle.getLowDouble();
+            case CLOSE -> candle.getCloseDouble();
+            case VOLUME -> candle.getVolumeDouble();
+        };
+    }
+
+    /**
+     * @return The symbol stored in the file.
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * @return The string representation of the interval stored in the file.
+     */
+    public String getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return A timeline of the values of the given column, which doesn't read any other column except for the
+     * start times.
+     */
+    public DoubleTimeline getColumn(Column column) {
+        return columnTimelines.get(column);
+    }
+
+    private long getLong(int i, int column) {
+        return columns[column].getLong(i * Long.BYTES);
+    }
+
+    private double getDouble(int i, int column) {
+        return columns[column].getDouble(i * Long.BYTES);
+    }
+
+    private Instant getStartInstant(int i) {
+        return Instant.ofEpochSecond(getLong(i, START));
+    }
+
+    private Timestamped<Candle> extract(int i) {
+        if (i < 0 || i >= size) {
+            return null;
+        }
+
+        return new Timestamped<>(getStartInstant(i), new CandleView(i));
+    }
+
+    @Override
+    public Timestamped<Candle> first() {
+        return extract(0);
+    }
+
+    @Override
+    public Timestamped<Candle> last() {
+        return extract(size - 1);
+    }
+
+    @Override
+    public Timestamped<Candle> get(Instant instant) {
+        return extract(indexOf(instant));
+    }
+
+    @Override
+    public Timestamped<Candle> floor(Instant instant) {
+        return extract(floorIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<Candle> ceiling(Instant instant) {
+        return extract(ceilingIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<Candle> lower(Instant instant) {
+        return extract(lowerIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<Candle> higher(Instant instant) {
+        return extract(higherIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<Candle> get(int i) {
+        Preconditions.checkArgument(i >= 0);
+        return extract(i);
+    }
+
+    @Override
+    public Candle getValue(int i) {
+        Preconditions.checkIndex(i, size);
+        return new CandleView(i);
+    }
+
+    @Override
+    public ListIterator<Timestamped<Candle>> listIterator(int i) {
+        Preconditions.checkIndex(i, size + 1);
+        return new ListIteratorImpl<>(this::extract, i);
+    }
+
+    @Override
+    public ListIterator<Timestamped<Candle>> listIterator(Instant instant) {
+        return listIterator(indexOf(instant));
+    }
+
+    /**
+     * Finds the block of the instant in the footer index and searches only within that block.
+     */
+    @Override
+    public int indexOf(Instant instant) {
+        long second = instant.getEpochSecond();
+
+        int block = -1;
+        int low = 0;
+        int high = index.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (index[mid] <= second) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        if (block < 0) {
+            return -1;
+        }
+
+        low = block * INDEX_STRIDE;
+        high = Math.min(low + INDEX_STRIDE, size) - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = Long.compare(getLong(mid, START), second);
+            if (c == 0) {
+                c = Integer.compare(0, instant.getNano());
+            }
+
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private final class CandleView implements Candle {
+        private final int index;
+
+        CandleView(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Double getOpen() {
+            return getOpenDouble();
+        }
+
+        @Override
+        public double getOpenDouble() {
+            return getDouble(index, 3 + Column.OPEN.ordinal());
+        }
+
+        @Override
+        public Double getHigh() {
+            return getHighDouble();
+        }
+
+        @Override
+        public double getHighDouble() {
+            return getDouble(index, 3 + Column.HIGH.ordinal());
+        }
+
+        @Override
+        public Double getLow() {
+            return getLowDouble();
+        }
+
+        @Override
+        public double getLowDouble() {
+            return getDouble(index, 3 + Column.LOW.ordinal());
+        }
+
+        @Override
+        public Double getClose() {
+            return getCloseDouble();
+        }
+
+        @Override
+        public double getCloseDouble() {
+            return getDouble(index, 3 + Column.CLOSE.ordinal());
+        }
+
+        @Override
+        public Double getVolume() {
+            return getVolumeDouble();
+        }
+
+        @Override
+        public double getVolumeDouble() {
+            return getDouble(index, 3 + Column.VOLUME.ordinal());
+        }
+
+        @Override
+        public Instant getStartInstant() {
+            return Instant.ofEpochSecond(getLong(index, START));
+        }
+
+        @Override
+        public Instant getEndInstant() {
+            return Instant.ofEpochSecond(getLong(index, END));
+        }
+
+        @Override
+        public Instant getCurrentInstant() {
+            return Instant.ofEpochSecond(getLong(index, CURRENT));
+        }
+    }
+
+    /**
+     * The values of a single column, timestamped by the start instants of the candles.
+     */
+    private final class ColumnTimeline extends NotificationBaseTimeline<Double> implements DoubleTimeline {
+        private final int column;
+
+        ColumnTimeline(int column) {
+            this.column = column;
+        }
+
+        private Timestamped<Double> extractValue(int i) {
+            if (i < 0 || i >= size) {
+                return null;
+            }
+
+            return new Timestamped<>(getStartInstant(i), ColumnarCandleTimeline.this.getDouble(i, column));
+        }
+
+        @Override
+        public double getDouble(int i) {
+            Preconditions.checkIndex(i, size);
+            return ColumnarCandleTimeline.this.getDouble(i, column);
+        }
+
+        @Override
+        public void copyRange(int from, int to, double[] dst) {
+            Preconditions.checkIndex(to, size + 1);
+            Preconditions.checkIndex(from, to + 1);
+            Preconditions.checkArgument(dst.length >= to - from);
+
+            columns[column].asDoubleBuffer().get(from, dst, 0, to - from);
+        }
+
+        @Override
+        public Timestamped<Double> first() {
+            return extractValue(0);
+        }
+
+        @Override
+        public Timestamped<Double> last() {
+            return extractValue(size - 1);
+        }
+
+        @Override
+        public Timestamped<Double> get(Instant instant) {
+            return extractValue(indexOf(instant));
+        }
+
+        @Override
+        public Timestamped<Double> floor(Instant instant) {
+            return extractValue(floorIndexOf(instant));
+        }
+
+        @Override
+        public Timestamped<Double> ceiling(Instant instant) {
+            return extractValue(ceilingIndexOf(instant));
+        }
+
+        @Override
+        public Timestamped<Double> lower(Instant instant) {
+            return extractValue(lowerIndexOf(instant));
+        }
+
+        @Override
+        public Timestamped<Double> higher(Instant instant) {
+            return extractValue(higherIndexOf(instant));
+        }
+
+        @Override
+        public Timestamped<Double> get(int i) {
+            Preconditions.checkArgument(i >= 0);
+            return extractValue(i);
+        }
+
+        @Override
+        public ListIterator<Timestamped<Double>> listIterator(int i) {
+            Preconditions.checkIndex(i, size + 1);
+            return new ListIteratorImpl<>(this::extractValue, i);
+        }
+
+        @Override
+        public ListIterator<Timestamped<Double>> listIterator(Instant instant) {
+            return listIterator(indexOf(instant));
+        }
+
+        @Override
+        public int indexOf(Instant instant) {
+            return ColumnarCandleTimeline.this.indexOf(instant);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private final class ListIteratorImpl<T> implements ListIterator<Timestamped<T>> {
+        final IntFunction<Timestamped<T>> extractor;
+
+        int nextIndex;
+
+        ListIteratorImpl(IntFunction<Timestamped<T>> extractor, int index) {
+            this.extractor = extractor;
+            this.nextIndex = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public Timestamped<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return extractor.apply(nextIndex++);
+        }
+
+        @Override
+        public Timestamped<T> previous() {
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+
+            return extractor.apply(--nextIndex);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(Timestamped<T> t) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(Timestamped<T> t) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package charting.data;
+
+import charting.timeline.Timeline;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link TickerDataProvider} that serves candles from columnar files in a directory.
+ * The candles of a ticker are expected in a file named {@code <symbol>_<interval>.ccandles},
+ * e.g. {@code AAPL_P1D.ccandles}, as written by {@link ColumnarCandleTimeline#write} or
+ * converted from CSV by {@link CsvCandleConverter}.
+ */
+public final class ColumnarTickerDataProvider implements TickerDataProvider {
+    private static final String FILE_EXTENSION = ".ccandles";
+
+    private final Path directory;
+    private final Map<Ticker, String> symbols;
+
+    private final Map<Path, ColumnarCandleTimeline> timelines = new ConcurrentHashMap<>();
+
+    public ColumnarTickerDataProvider(Path directory, Map<Ticker, String> symbols) {
+        this.directory = directory;
+        this.symbols = Map.copyOf(symbols);
+    }
+
+    /**
+     * @return The path of the file that holds the candles of the given ticker and interval.
+     */
+    public Path getPath(Ticker ticker, Interval interval) {
+        String symbol = symbols.get(ticker);
+        if (symbol == null) {
+            throw new IllegalArgumentException("Unknown ticker: " + ticker);
+        }
+
+        return directory.resolve(symbol + "_" + interval + FILE_EXTENSION);
+    }
+
+    /**
+     * Writes the given candles into the file of the given ticker and interval.
+     * Timelines that were already opened for this file are not affected.
+     */
+    public void write(Ticker ticker, Interval interval, Timeline<? extends Candle> candles) throws IOException {
+        ColumnarCandleTimeline.write(getPath(ticker, interval), symbols.get(ticker), interval, candles);
+    }
+
+    /**
+     * Converts the given CSV file into the file of the given ticker and interval.
+     *
+     * @see CsvCandleConverter
+     */
+    public void convert(Ticker ticker, Interval interval, Path csv) throws IOException {
+        CsvCandleConverter.convert(csv, getPath(ticker, interval), symbols.get(ticker), interval);
+    }
+
+    @Override
+    public Set<Ticker> getTickers() {
+        return symbols.keySet();
+    }
+
+    /**
+     * @throws UncheckedIOException If the file cannot be read or was written for another symbol or interval.
+     */
+    @Override
+    public Optional<? extends Timeline<? extends Candle>> getCandles(Ticker ticker, Interval interval) {
+        if (!symbols.containsKey(ticker)) {
+            return Optional.empty();
+        }
+
+        Path path = getPath(ticker, interval);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(timelines.computeIfAbsent(path, p -> {
+            try {
+                ColumnarCandleTimeline t = ColumnarCandleTimeline.open(p);
+                if (!t.getSymbol().equals(symbols.get(ticker)) || !t.getInterval().equals(interval.toString())) {
+                    throw new IOException("Unexpected candles in " + p + ": " + t.getSymbol() + " "
+                            + t.getInterval());
+                }
+
+                return t;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    @Override
+    public Optional<String> getTickerSymbol(Ticker ticker) {
+        return Optional.ofNullable(symbols.get(ticker));
+    }
+}
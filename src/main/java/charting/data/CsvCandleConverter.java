@@ -0,0 +1,29 @@
+package charting.data;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Converts CSV files as read by {@link CsvCandleLoader} into columnar files as read by
+ * {@link ColumnarCandleTimeline}, so that the text only has to be parsed once.
+ * <p>
+ * Usage: {@code CsvCandleConverter <csv file> <target file> <symbol> <interval>}, e.g.
+ * {@code CsvCandleConverter AAPL_1D.csv AAPL_P1D.ccandles AAPL P1D}.
+ */
+public final class CsvCandleConverter {
+    private CsvCandleConverter() {
+    }
+
+    public static void convert(Path csv, Path target, String symbol, Interval interval) throws IOException {
+        ColumnarCandleTimeline.write(target, symbol, interval, CsvCandleLoader.load(csv));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Usage: CsvCandleConverter <csv file> <target file> <symbol> <interval>");
+            System.exit(1);
+        }
+
+        convert(Path.of(args[0]), Path.of(args[1]), args[2], PeriodInterval.parse(args[3]));
+    }
+}
@@ -0,0 +1,511 @@
+package charting.data;
+
+import charting.timeline.ArrayTimeline;
+import charting.timeline.Timestamped;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Loads candles from CSV files with the columns start time, end time, open, high, low, close and volume,
+ * where the times are epoch seconds. The first line is a header and is skipped.
+ * <p>
+ * The numbers are parsed directly from the bytes of the file without creating strings. Large files are split into
+ * line-aligned chunks which are parsed in parallel on the common {@link ForkJoinPool}.
+ */
+public final class CsvCandleLoader {
+    /**
+     * The size of a chunk in bytes below which it isn't split any further.
+     */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The size of a chunk in bytes when loading progressively.
+     */
+    private static final int PROGRESSIVE_CHUNK_SIZE = 1 << 16;
+
+    private static final int COLUMNS = 7;
+
+    /**
+     * The powers of ten which are exactly representable as doubles.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * The largest mantissa which is exactly representable as a double.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private CsvCandleLoader() {
+    }
+
+    /**
+     * Memory-maps and loads the given file.
+     *
+     * @throws IOException If the file cannot be read or contains a malformed line.
+     */
+    public static ArrayTimeline<DoubleCandle> load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("CSV file too large: " + path);
+            }
+
+            return load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Memory-maps and loads the given file progressively.
+     *
+     * @see #load(ByteBuffer, Consumer)
+     */
+    public static void load(Path path, Consumer<? super List<Timestamped<DoubleCandle>>> consumer)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("CSV file too large: " + path);
+            }
+
+            load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), consumer);
+        }
+    }
+
+    /**
+     * Loads the CSV content between the position and the limit of the given buffer.
+     *
+     * @throws IOException If the content contains a malformed line.
+     */
+    public static ArrayTimeline<DoubleCandle> load(ByteBuffer buffer) throws IOException {
+        return load(buffer, skipLine(buffer, buffer.position(), buffer.limit()), buffer.limit());
+    }
+
+    /**
+     * Loads the candles whose start instants are in [from, to) from the CSV content between the position and the
+     * limit of the given buffer. The lines must be sorted by start time. The range is found by a binary search, so
+     * only its lines are parsed.
+     *
+     * @throws IOException If the content contains a malformed line.
+     */
+    public static ArrayTimeline<DoubleCandle> load(ByteBuffer buffer, Instant from, Instant to) throws IOException {
+        int first = skipLine(buffer, buffer.position(), buffer.limit());
+        int start = seek(buffer, ceilSeconds(from), first, buffer.limit());
+        int end = seek(buffer, ceilSeconds(to), start, buffer.limit());
+
+        return load(buffer, start, end);
+    }
+
+    private static ArrayTimeline<DoubleCandle> load(ByteBuffer buffer, int start, int end) throws IOException {
+        List<Timestamped<DoubleCandle>> candles;
+        try {
+            candles = ForkJoinPool.commonPool().invoke(new ParseTask(buffer, start, end));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        ArrayTimeline<DoubleCandle> timeline = new ArrayTimeline<>(candles.size());
+        timeline.putAll(candles);
+        return timeline;
+    }
+
+    /**
+     * Loads the CSV content between the position and the limit of the given buffer progressively. The content is
+     * split into small line-aligned chunks which are parsed in parallel, but passed to the consumer in chronological
+     * order, each as soon as it and all previous chunks were parsed.
+     *
+     * @throws IOException If the content contains a malformed line. The chunks before it were passed already.
+     */
+    public static void load(ByteBuffer buffer, Consumer<? super List<Timestamped<DoubleCandle>>> consumer)
+            throws IOException {
+        List<ParseTask> tasks = new ArrayList<>();
+
+        int start = skipLine(buffer, buffer.position(), buffer.limit());
+        while (start < buffer.limit()) {
+            int end = skipLine(buffer, Math.min(start + PROGRESSIVE_CHUNK_SIZE, buffer.limit()) - 1, buffer.limit());
+            tasks.add(new ParseTask(buffer, start, end));
+            start = end;
+        }
+
+        tasks.forEach(ForkJoinPool.commonPool()::execute);
+
+        try {
+            for (ParseTask t : tasks) {
+                consumer.accept(t.join());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            tasks.forEach(t -> t.cancel(false));
+        }
+    }
+
+    /**
+     * Reads only the start instant of the first candle of the CSV content between the position and the limit of
+     * the given buffer.
+     *
+     * @return The start instant or an empty optional if there are no candles.
+     * @throws IOException If the first line is malformed.
+     */
+    public static Optional<Instant> loadFirstStartInstant(ByteBuffer buffer) throws IOException {
+        int start = skipLine(buffer, buffer.position(), buffer.limit());
+
+        while (start < buffer.limit()) {
+            int end = skipLine(buffer, start, buffer.limit());
+
+            if (!isBlank(buffer, start, end)) {
+                return Optional.of(Instant.ofEpochSecond(parseStartSecond(buffer, start)));
+            }
+
+            start = end;
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Reads only the start instant of the last candle of the CSV content between the position and the limit of
+     * the given buffer.
+     *
+     * @return The start instant or an empty optional if there are no candles.
+     * @throws IOException If the last line is malformed.
+     */
+    public static Optional<Instant> loadLastStartInstant(ByteBuffer buffer) throws IOException {
+        int first = skipLine(buffer, buffer.position(), buffer.limit());
+        int end = buffer.limit();
+
+        while (end > first) {
+            int start = end - 1;
+            while (start > first && buffer.get(start - 1) != '\n') {
+                start--;
+            }
+
+            if (!isBlank(buffer, start, end)) {
+                return Optional.of(Instant.ofEpochSecond(parseStartSecond(buffer, start)));
+            }
+
+            end = start;
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * @param start The index of the start of a line.
+     * @return The index of the start of the first line in [start, end) whose candle starts at or after the given
+     * second, or the end if there is none.
+     */
+    private static int seek(ByteBuffer buffer, long second, int start, int end) throws IOException {
+        // The candles before lo start before the second, those from hi on at or after it.
+        int lo = start;
+        int hi = end;
+
+        while (lo < hi) {
+            int mid = lo + (hi - lo) / 2;
+            while (mid > lo && buffer.get(mid - 1) != '\n') {
+                mid--;
+            }
+
+            int line = mid;
+            while (line < hi && isBlank(buffer, line, skipLine(buffer, line, hi))) {
+                line = skipLine(buffer, line, hi);
+            }
+
+            if (line < hi && parseStartSecond(buffer, line) < second) {
+                lo = skipLine(buffer, line, hi);
+            } else {
+                hi = mid;
+            }
+        }
+
+        return lo;
+    }
+
+    private static long parseStartSecond(ByteBuffer buffer, int line) throws IOException {
+        Parser p = new Parser(buffer, buffer.limit());
+        p.position = line;
+        return p.parseLong();
+    }
+
+    private static long ceilSeconds(Instant instant) {
+        return instant.getNano() == 0 ? instant.getEpochSecond() : instant.getEpochSecond() + 1;
+    }
+
+    /**
+     * @return The index after the next line break at or after the given index, or the end.
+     */
+    private static int skipLine(ByteBuffer buffer, int i, int end) {
+        while (i < end && buffer.get(i) != '\n') {
+            i++;
+        }
+
+        return Math.min(i + 1, end);
+    }
+
+    private static List<Timestamped<DoubleCandle>> parse(ByteBuffer buffer, int start, int end) throws IOException {
+        List<Timestamped<DoubleCandle>> candles = new ArrayList<>();
+        Parser p = new Parser(buffer, end);
+        double[] values = new double[COLUMNS - 2];
+
+        int i = start;
+        while (i < end) {
+            int lineEnd = skipLine(buffer, i, end);
+
+            if (isBlank(buffer, i, lineEnd)) {
+                i = lineEnd;
+                continue;
+            }
+
+            p.position = i;
+            long startSecond = p.parseLong();
+            p.expect(',');
+            long endSecond = p.parseLong();
+            for (int c = 0; c < values.length; c++) {
+                p.expect(',');
+                values[c] = p.parseDouble();
+            }
+            p.expectLineEnd();
+
+            Instant startInstant = Instant.ofEpochSecond(startSecond);
+            Instant endInstant = Instant.ofEpochSecond(endSecond);
+            try {
+                candles.add(new Timestamped<>(startInstant, new DoubleCandle(values[0], values[1], values[2],
+                        values[3], values[4], startInstant, endInstant)));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid candle at byte " + i, e);
+            }
+
+            i = lineEnd;
+        }
+
+        return candles;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b != '\n' && b != '\r' && b != ' ') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Parses the lines of a range of the buffer, splitting it at a line break if it is large.
+     */
+    private static final class ParseTask extends RecursiveTask<List<Timestamped<DoubleCandle>>> {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer buffer;
+        private final int start;
+        private final int end;
+
+        ParseTask(ByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected List<Timestamped<DoubleCandle>> compute() {
+            if (end - start > CHUNK_SIZE) {
+                int mid = skipLine(buffer, start + (end - start) / 2, end);
+
+                if (mid < end) {
+                    ParseTask left = new ParseTask(buffer, start, mid);
+                    ParseTask right = new ParseTask(buffer, mid, end);
+                    right.fork();
+
+                    List<Timestamped<DoubleCandle>> candles = left.compute();
+                    candles.addAll(right.join());
+                    return candles;
+                }
+            }
+
+            try {
+                return parse(buffer, start, end);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Parses numbers at a position of the buffer using absolute reads, so that the buffer can be shared by tasks.
+     */
+    private static final class Parser {
+        private final ByteBuffer buffer;
+        private final int end;
+
+        int position;
+
+        Parser(ByteBuffer buffer, int end) {
+            this.buffer = buffer;
+            this.end = end;
+        }
+
+        void expect(char c) throws IOException {
+            if (position >= end || buffer.get(position) != c) {
+                throw malformed();
+            }
+
+            position++;
+        }
+
+        void expectLineEnd() throws IOException {
+            if (position < end && buffer.get(position) == '\r') {
+                position++;
+            }
+            if (position < end && buffer.get(position) != '\n') {
+                throw malformed();
+            }
+        }
+
+        long parseLong() throws IOException {
+            boolean negative = parseSign();
+            int start = position;
+            long value = 0;
+
+            while (position < end) {
+                int d = buffer.get(position) - '0';
+                if (d < 0 || d > 9) {
+                    break;
+                }
+
+                if (value > (Long.MAX_VALUE - d) / 10) {
+                    throw malformed();
+                }
+
+                value = value * 10 + d;
+                position++;
+            }
+
+            if (position == start) {
+                throw malformed();
+            }
+
+            return negative ? -value : value;
+        }
+
+        /**
+         * Parses a decimal number with an optional exponent. The result is exact as long as the digits fit into
+         * the mantissa of a double and the power of ten is exactly representable, which holds for prices and
+         * volumes. Other numbers, including NaN and infinities, fall back to {@link Double#parseDouble(String)}.
+         */
+        double parseDouble() throws IOException {
+            int start = position;
+            boolean negative = parseSign();
+            long mantissa = 0;
+            int scale = 0;
+            int digits = 0;
+            boolean exact = true;
+
+            while (position < end) {
+                int d = buffer.get(position) - '0';
+                if (d < 0 || d > 9) {
+                    break;
+                }
+
+                exact &= mantissa < MAX_EXACT_MANTISSA / 10;
+                mantissa = mantissa * 10 + d;
+                digits++;
+                position++;
+            }
+
+            if (position < end && buffer.get(position) == '.') {
+                position++;
+
+                while (position < end) {
+                    int d = buffer.get(position) - '0';
+                    if (d < 0 || d > 9) {
+                        break;
+                    }
+
+                    exact &= mantissa < MAX_EXACT_MANTISSA / 10;
+                    mantissa = mantissa * 10 + d;
+                    scale--;
+                    digits++;
+                    position++;
+                }
+            }
+
+            if (digits > 0 && position < end && (buffer.get(position) | 0x20) == 'e') {
+                position++;
+                boolean negativeExponent = parseSign();
+                int exponentStart = position;
+                int exponent = 0;
+
+                while (position < end) {
+                    int d = buffer.get(position) - '0';
+                    if (d < 0 || d > 9) {
+                        break;
+                    }
+
+                    exponent = Math.min(exponent * 10 + d, 1000);
+                    position++;
+                }
+
+                if (position == exponentStart) {
+                    throw malformed();
+                }
+
+                scale += negativeExponent ? -exponent : exponent;
+            }
+
+            if (digits == 0 || !exact || Math.abs(scale) >= POWERS_OF_TEN.length) {
+                return parseSlow(start);
+            }
+
+            double value = scale < 0 ? mantissa / POWERS_OF_TEN[-scale] : mantissa * POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+
+        private double parseSlow(int start) throws IOException {
+            position = start;
+            while (position < end && buffer.get(position) != ',' && buffer.get(position) != '\r'
+                    && buffer.get(position) != '\n') {
+                position++;
+            }
+
+            byte[] bytes = new byte[position - start];
+            buffer.get(start, bytes);
+
+            try {
+                return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                throw malformed();
+            }
+        }
+
+        private boolean parseSign() {
+            if (position < end) {
+                byte b = buffer.get(position);
+                if (b == '-' || b == '+') {
+                    position++;
+                    return b == '-';
+                }
+            }
+
+            return false;
+        }
+
+        private IOException malformed() {
+            return new IOException("Malformed CSV at byte " + position);
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package charting.data;
+
+import charting.timeline.NotificationBaseTimeline;
+import charting.timeline.Timeline;
+import charting.timeline.TimelineCursor;
+import charting.timeline.Timestamped;
+import charting.util.Preconditions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only {@link Timeline} of candles backed by a memory-mapped file.
+ * The candles are not held on the heap but read on demand through lightweight views,
+ * so opening a file is cheap and the loading is left to the operating system's page cache.
+ * <p>
+ * The file consists of a header followed by fixed-width records in chronological order.
+ * Each record holds the start, end and current epoch second followed by open, high, low, close and volume.
+ * Instants are stored with a precision of one second.
+ */
+public final class MappedCandleTimeline extends NotificationBaseTimeline<Candle> {
+    private static final long MAGIC = 0x31454c444e414343L;
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 64;
+
+    private static final int SEGMENT_SHIFT = 24;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    private final ByteBuffer[] segments;
+    private final int size;
+
+    private MappedCandleTimeline(ByteBuffer[] segments, int size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Maps the given file which must have been created by {@link #write(Path, Timeline)}.
+     *
+     * @throws IOException If the file cannot be read or is not a valid candle file.
+     */
+    public static MappedCandleTimeline open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Invalid candle file: " + path);
+            }
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            long count = header.getLong(16);
+            if (header.getLong(0) != MAGIC || header.getInt(8) != VERSION || header.getInt(12) != RECORD_SIZE
+                    || count < 0 || count > Integer.MAX_VALUE || HEADER_SIZE + count * RECORD_SIZE > fileSize) {
+                throw new IOException("Invalid candle file: " + path);
+            }
+
+            int size = (int) count;
+            ByteBuffer[] segments = new ByteBuffer[(size + SEGMENT_MASK) >>> SEGMENT_SHIFT];
+            for (int i = 0; i < segments.length; i++) {
+                long start = HEADER_SIZE + ((long) i << SEGMENT_SHIFT) * RECORD_SIZE;
+                long records = Math.min(1 << SEGMENT_SHIFT, size - ((long) i << SEGMENT_SHIFT));
+
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, records * RECORD_SIZE)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            return new MappedCandleTimeline(segments, size);
+        }
+    }
+
+    /**
+     * Writes the candles of the given timeline into a file that can be opened with {@link #open(Path)}.
+     * The timestamps of the timeline are expected to be the start instants of the candles.
+     *
+     * @throws IllegalArgumentException If an instant has a sub-second precision or the start instants are not in
+     *                                  strictly ascending order, since the file is searched by them.
+     */
+    public static void write(Path path, Timeline<? extends Candle> candles) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+            buffer.putLong(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(RECORD_SIZE);
+            buffer.putLong(candles.size());
+            buffer.position(HEADER_SIZE);
+
+            // Below the epoch second of any instant.
+            long previousStart = Long.MIN_VALUE;
+
+            for (Timestamped<? extends Candle> t : candles) {
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+
+                Candle c = t.value();
+                long start = getEpochSecond(c.getStartInstant());
+                Preconditions.checkArgument(previousStart < start,
+                        "Start instants are not in strictly ascending order.");
+                previousStart = start;
+
+                buffer.putLong(start);
+                buffer.putLong(getEpochSecond(c.getEndInstant()));
+                buffer.putLong(getEpochSecond(c.getCurrentInstant()));
+                buffer.putDouble(c.getOpenDouble());
+                buffer.putDouble(c.getHighDouble());
+                buffer.putDouble(c.getLowDouble());
+                buffer.putDouble(c.getCloseDouble());
+                buffer.putDouble(c.getVolumeDouble());
+            }
+
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static long getEpochSecond(Instant instant) {
+        Preconditions.checkArgument(instant.getNano() == 0, "Sub-second precision is not supported");
+        return instant.getEpochSecond();
+    }
+
+    private ByteBuffer segment(int index) {
+        return segments[index >>> SEGMENT_SHIFT];
+    }
+
+    private int offset(int index, int field) {
+        return (index & SEGMENT_MASK) * RECORD_SIZE + field * 8;
+    }
+
+    private long getLong(int index, int field) {
+        return segment(index).getLong(offset(index, field));
+    }
+
+    private double getDouble(int index, int field) {
+        return segment(index).getDouble(offset(index, field));
+    }
+
+    private int compare(int index, Instant instant) {
+        int c = Long.compare(getLong(index, 0), instant.getEpochSecond());
+        return c != 0 ? c : Integer.compare(0, instant.getNano());
+    }
+
+    private Timestamped<Candle> extract(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+
+        return new Timestamped<>(Instant.ofEpochSecond(getLong(index, 0)), new CandleView(index));
+    }
+
+    @Override
+    public Timestamped<Candle> first() {
+        return extract(0);
+    }
+
+    @Override
+    public Timestamped<Candle> last() {
+        return extract(size - 1);
+    }
+
+    @Override
+    public Timestamped<Candle> get(Instant instant) {
+        return extract(indexOf(instant));
+    }
+
+    @Override
+    public Timestamped<Candle> floor(Instant instant) {
+        return extract(floorIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<Candle> ceiling(Instant instant) {
+        return extract(ceilingIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<Candle> lower(Instant instant) {
+        return extract(lowerIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<Candle> higher(Instant instant) {
+        return extract(higherIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<Candle> get(int i) {
+        Preconditions.checkArgument(i >= 0);
+        return extract(i);
+    }
+
+    @Override
+    public Candle getValue(int i) {
+        Preconditions.checkIndex(i, size);
+        return new CandleView(i);
+    }
+
+    /**
+     * Returns a cursor which reads the candles through a single view, so that a scan doesn't allocate per candle.
+     * The candle returned by {@link TimelineCursor#value()} moves along with the cursor.
+     */
+    @Override
+    public TimelineCursor<Candle> cursor(int i) {
+        Preconditions.checkIndex(i + 1, size + 2);
+        return new CursorImpl(i);
+    }
+
+    @Override
+    public ListIterator<Timestamped<Candle>> listIterator(int i) {
+        Preconditions.checkIndex(i, size + 1);
+        return new ListIteratorImpl(i);
+    }
+
+    @Override
+    public ListIterator<Timestamped<Candle>> listIterator(Instant instant) {
+        return listIterator(indexOf(instant));
+    }
+
+    @Override
+    public int indexOf(Instant instant) {
+        int low = 0;
+        int high = size - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = compare(mid, instant);
+
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private final class CandleView implements Candle {
+        /**
+         * The index of the candle, which a cursor moves along.
+         */
+        private int index;
+
+        CandleView(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Double getOpen() {
+            return getOpenDouble();
+        }
+
+        @Override
+        public double getOpenDouble() {
+            return getDouble(index, 3);
+        }
+
+        @Override
+        public Double getHigh() {
+            return getHighDouble();
+        }
+
+        @Override
+        public double getHighDouble() {
+            return getDouble(index, 4);
+        }
+
+        @Override
+        public Double getLow() {
+            return getLowDouble();
+        }
+
+        @Override
+        public double getLowDouble() {
+            return getDouble(index, 5);
+        }
+
+        @Override
+        public Double getClose() {
+            return getCloseDouble();
+        }
+
+        @Override
+        public double getCloseDouble() {
+            return getDouble(index, 6);
+        }
+
+        @Override
+        public Double getVolume() {
+            return getVolumeDouble();
+        }
+
+        @Override
+        public double getVolumeDouble() {
+            return getDouble(index, 7);
+        }
+
+        @Override
+        public Instant getStartInstant() {
+            return Instant.ofEpochSecond(getLong(index, 0));
+        }
+
+        @Override
+        public Instant getEndInstant() {
+            return Instant.ofEpochSecond(getLong(index, 1));
+        }
+
+        @Override
+        public Instant getCurrentInstant() {
+            return Instant.ofEpochSecond(getLong(index, 2));
+        }
+    }
+
+    private final class CursorImpl implements TimelineCursor<Candle> {
+        private final CandleView view;
+
+        CursorImpl(int index) {
+            view = new CandleView(index);
+        }
+
+        @Override
+        public boolean advance() {
+            view.index = Math.min(view.index + 1, size);
+            return view.index < size;
+        }
+
+        @Override
+        public boolean retreat() {
+            view.index = Math.max(view.index - 1, -1);
+            return view.index >= 0;
+        }
+
+        @Override
+        public int index() {
+            return view.index;
+        }
+
+        @Override
+        public Instant timestamp() {
+            Preconditions.checkIndex(view.index, size);
+            return Instant.ofEpochSecond(getLong(view.index, 0));
+        }
+
+        @Override
+        public Candle value() {
+            Preconditions.checkIndex(view.index, size);
+            return view;
+        }
+    }
+
+    private final class ListIteratorImpl implements ListIterator<Timestamped<Candle>> {
+        int nextIndex;
+
+        ListIteratorImpl(int index) {
+            this.nextIndex = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public Timestamped<Candle> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return extract(nextIndex++);
+        }
+
+        @Override
+        public Timestamped<Candle> previous() {
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+
+            return extract(--nextIndex);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(Timestamped<Candle> t) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(Timestamped<Candle> t) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
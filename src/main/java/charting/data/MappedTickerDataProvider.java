@@ -0,0 +1,81 @@
+package charting.data;
+
+import charting.timeline.Timeline;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link TickerDataProvider} that serves candles from memory-mapped files in a directory.
+ * The candles of a ticker are expected in a file named {@code <symbol>_<interval>.candles},
+ * e.g. {@code AAPL_P1D.candles}, as written by {@link MappedCandleTimeline#write(Path, Timeline)}.
+ */
+public final class MappedTickerDataProvider implements TickerDataProvider {
+    private static final String FILE_EXTENSION = ".candles";
+
+    private final Path directory;
+    private final Map<Ticker, String> symbols;
+
+    private final Map<Path, MappedCandleTimeline> timelines = new ConcurrentHashMap<>();
+
+    public MappedTickerDataProvider(Path directory, Map<Ticker, String> symbols) {
+        this.directory = directory;
+        this.symbols = Map.copyOf(symbols);
+    }
+
+    /**
+     * @return The path of the file that holds the candles of the given ticker and interval.
+     */
+    public Path getPath(Ticker ticker, Interval interval) {
+        String symbol = symbols.get(ticker);
+        if (symbol == null) {
+            throw new IllegalArgumentException("Unknown ticker: " + ticker);
+        }
+
+        return directory.resolve(symbol + "_" + interval + FILE_EXTENSION);
+    }
+
+    /**
+     * Writes the given candles into the file of the given ticker and interval.
+     * Timelines that were already opened for this file are not affected.
+     */
+    public void write(Ticker ticker, Interval interval, Timeline<? extends Candle> candles) throws IOException {
+        MappedCandleTimeline.write(getPath(ticker, interval), candles);
+    }
+
+    @Override
+    public Set<Ticker> getTickers() {
+        return symbols.keySet();
+    }
+
+    @Override
+    public Optional<? extends Timeline<? extends Candle>> getCandles(Ticker ticker, Interval interval) {
+        if (!symbols.containsKey(ticker)) {
+            return Optional.empty();
+        }
+
+        Path path = getPath(ticker, interval);
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(timelines.computeIfAbsent(path, p -> {
+            try {
+                return MappedCandleTimeline.open(p);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    @Override
+    public Optional<String> getTickerSymbol(Ticker ticker) {
+        return Optional.ofNullable(symbols.get(ticker));
+    }
+}
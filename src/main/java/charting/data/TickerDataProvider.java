@@ -1,7 +1,9 @@
 package charting.data;
 
+import charting.timeline.ArrayTimeline;
 import charting.timeline.Timeline;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.Set;
 
@@ -10,5 +12,30 @@ public interface TickerDataProvider {
 
     Optional<? extends Timeline<? extends Candle>> getCandles(Ticker ticker, Interval interval);
 
+    /**
+     * Returns the candles whose start instants are in [from, to), e.g. to load a long history in segments.
+     * The default implementation copies them from {@link #getCandles(Ticker, Interval)}.
+     */
+    default Optional<? extends Timeline<? extends Candle>> getCandles(Ticker ticker, Interval interval,
+                                                                     Instant from, Instant to) {
+        return getCandles(ticker, interval).map(candles -> ArrayTimeline.copyOf(candles, from, to));
+    }
+
+    /**
+     * @return The start instant of the first candle, e.g. to know where the history ends when loading segments.
+     * The default implementation takes it from {@link #getCandles(Ticker, Interval)}.
+     */
+    default Optional<Instant> getFirstCandleInstant(Ticker ticker, Interval interval) {
+        return getCandles(ticker, interval).filter(t -> !t.isEmpty()).map(t -> t.first().timestamp());
+    }
+
+    /**
+     * @return The start instant of the last candle, e.g. to know where to start loading segments.
+     * The default implementation takes it from {@link #getCandles(Ticker, Interval)}.
+     */
+    default Optional<Instant> getLastCandleInstant(Ticker ticker, Interval interval) {
+        return getCandles(ticker, interval).filter(t -> !t.isEmpty()).map(t -> t.last().timestamp());
+    }
+
     Optional<String> getTickerSymbol(Ticker ticker);
 }
@@ -1,19 +1,24 @@
 package charting.data.demo;
 
 import charting.data.*;
-import charting.timeline.OrderStatsTreeTimeline;
+import charting.timeline.ArrayTimeline;
 import charting.timeline.Timeline;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.time.Period;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class DemoTickerDataProvider implements TickerDataProvider {
     private static final TickerSourceId NASDAQ = new TickerSourceId("MIC", "XNAS");
@@ -26,35 +31,38 @@ public final class DemoTickerDataProvider implements TickerDataProvider {
 
     private static final Map<Ticker, String> SYMBOLS = Map.of(AAPL, "AAPL", MSFT, "MSFT", TSLA, "TSLA");
 
-    private static final Map<Ticker, Timeline<? extends Candle>> DAILY_AGGREGATES;
+    private static final Map<Ticker, String> DAILY_RESOURCES = Map.of(AAPL, "AAPL_1D.csv", MSFT, "MSFT_1D.csv",
+            TSLA, "TSLA_1D.csv");
 
-    static {
-        InputStream aapl = DemoTickerDataProvider.class.getResourceAsStream("AAPL_1D.csv");
-        InputStream msft = DemoTickerDataProvider.class.getResourceAsStream("MSFT_1D.csv");
-        InputStream tsla = DemoTickerDataProvider.class.getResourceAsStream("TSLA_1D.csv");
-        DAILY_AGGREGATES = Map.of(AAPL, parseCandles(aapl), MSFT, parseCandles(msft), TSLA, parseCandles(tsla));
+    private final Map<Ticker, ArrayTimeline<DoubleCandle>> dailyAggregates = new ConcurrentHashMap<>();
+
+    private static ArrayTimeline<DoubleCandle> loadCandles(String name) {
+        try {
+            return CsvCandleLoader.load(read(name));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    private static Timeline<DoubleCandle> parseCandles(InputStream inputStream) {
-        try (CSVReader reader = new CSVReaderBuilder(new BufferedReader(new InputStreamReader(inputStream)))
-                .withSkipLines(1).build()) {
-            OrderStatsTreeTimeline<DoubleCandle> candles = new OrderStatsTreeTimeline<>();
-
-            reader.forEach(line -> {
-                Instant start = Instant.ofEpochSecond(Long.parseLong(line[0]));
-                Instant end = Instant.ofEpochSecond(Long.parseLong(line[1]));
-                double open = Double.parseDouble(line[2]);
-                double high = Double.parseDouble(line[3]);
-                double low = Double.parseDouble(line[4]);
-                double close = Double.parseDouble(line[5]);
-                double volume = Double.parseDouble(line[6]);
-
-                candles.put(start, new DoubleCandle(open, high, low, close, volume, start, end));
-            });
-
-            return candles;
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    /**
+     * Memory-maps the resource if it is a plain file, otherwise reads it into memory, e.g. when it is in a jar.
+     */
+    private static ByteBuffer read(String name) throws IOException {
+        URL url = DemoTickerDataProvider.class.getResource(name);
+        if (url == null) {
+            throw new IOException("Missing resource: " + name);
+        }
+
+        if ("file".equals(url.getProtocol())) {
+            try (FileChannel channel = FileChannel.open(Path.of(url.toURI()), StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (URISyntaxException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        try (InputStream inputStream = url.openStream()) {
+            return ByteBuffer.wrap(inputStream.readAllBytes());
         }
     }
 
@@ -65,11 +73,72 @@ public final class DemoTickerDataProvider implements TickerDataProvider {
 
     @Override
     public Optional<? extends Timeline<? extends Candle>> getCandles(Ticker ticker, Interval interval) {
-        if (!(interval instanceof PeriodInterval p) || !p.getPeriod().equals(Period.ofDays(1))) {
+        String name = getResourceName(ticker, interval);
+        if (name == null) {
             return Optional.empty();
         }
 
-        return Optional.ofNullable(DAILY_AGGREGATES.get(ticker));
+        return Optional.of(dailyAggregates.computeIfAbsent(ticker, t -> loadCandles(name)));
+    }
+
+    /**
+     * Parses only the lines of the range, which are found by a binary search in the CSV file of the ticker.
+     */
+    @Override
+    public Optional<? extends Timeline<? extends Candle>> getCandles(Ticker ticker, Interval interval,
+                                                                     Instant from, Instant to) {
+        String name = getResourceName(ticker, interval);
+        if (name == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(CsvCandleLoader.load(read(name), from, to));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads only the first line of the CSV file of the ticker after the header.
+     */
+    @Override
+    public Optional<Instant> getFirstCandleInstant(Ticker ticker, Interval interval) {
+        String name = getResourceName(ticker, interval);
+        if (name == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return CsvCandleLoader.loadFirstStartInstant(read(name));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads only the last line of the CSV file of the ticker.
+     */
+    @Override
+    public Optional<Instant> getLastCandleInstant(Ticker ticker, Interval interval) {
+        String name = getResourceName(ticker, interval);
+        if (name == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return CsvCandleLoader.loadLastStartInstant(read(name));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String getResourceName(Ticker ticker, Interval interval) {
+        if (!(interval instanceof PeriodInterval p) || !p.getPeriod().equals(Period.ofDays(1))) {
+            return null;
+        }
+
+        return DAILY_RESOURCES.get(ticker);
     }
 
     @Override
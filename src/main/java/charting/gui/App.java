@@ -4,27 +4,64 @@ import charting.data.*;
 import charting.data.demo.DemoAssetDataProvider;
 import charting.data.demo.DemoTickerDataProvider;
 import charting.gui.chart.Drawing;
+import charting.gui.chart.FrameScheduler;
 import charting.gui.drawings.*;
 import charting.gui.superchart.ChartContent;
 import charting.gui.superchart.InterDayTimeAxisPosConverter;
 import charting.gui.superchart.ManualMeasureArea;
 import charting.gui.superchart.SuperChart;
 import charting.gui.superchart.indicatorspane.Indicator;
-import charting.timeline.MapperTimeline;
+import charting.indicators.IndicatorRegistry;
+import charting.timeline.NotLoadedException;
+import charting.timeline.PagedTimeline;
 import charting.timeline.Timeline;
+import charting.timeline.TimelineRangeListener;
+import charting.timeline.Timestamped;
+import charting.util.PhaseTimer;
 import charting.util.Range;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
 
 import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.Period;
-import java.util.LinkedHashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class App extends Application {
+    private static final System.Logger LOGGER = System.getLogger(App.class.getName());
+
+    /**
+     * Measures where the time until the first frame goes, starting when the application is launched.
+     */
+    private static final PhaseTimer STARTUP = new PhaseTimer();
+
+    private static final int INITIAL_CANDLES = 400;
+
+    /**
+     * The history is loaded in segments of roughly 250 daily candles, of which 16 are kept in memory besides
+     * those in view.
+     */
+    private static final Duration SEGMENT_DURATION = Duration.ofDays(365);
+    private static final int MAX_LOADED_SEGMENTS = 16;
+
+    /**
+     * Older candles are loaded when less than this number of candles is left of the visible ones.
+     */
+    private static final int PRELOADED_CANDLES = 200;
+
+    private static final ExecutorService HISTORY_LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "history-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
     private final Color bullishColor = Color.valueOf("#0ea59d");
     private final Color bearishColor = Color.valueOf("#ff2e54");
     private final Color lightBullishColor = Color.valueOf("#b2f5f0");
@@ -33,27 +70,83 @@ public class App extends Application {
     private final SuperChart superChart;
     private final ChartContent mainContent;
 
-    private final Timeline<? extends Candle> candles;
+    /**
+     * The candles and their chart, which are null until the candles are shown.
+     */
+    private PagedTimeline<Candle> candles;
+    private CandleChart candleChart;
+
+    private final TimelineRangeListener<Candle> candlesListener = new TimelineRangeListener<>() {
+        @Override
+        public void onUpdate(Instant instant, Candle newValue) {
+            onCandlesUpdate();
+        }
+
+        @Override
+        public void onRangeUpdate(int from, int to) {
+            onCandlesUpdate();
+        }
+    };
+
+    private Range initialTimeAxis;
+    private boolean receivedCandles;
+    private boolean drewFirstFrame;
+    private boolean loadingHistory;
 
     private Map<Indicator, Runnable> indicators;
 
     public App() {
         AssetDataProvider assetDataProvider = new DemoAssetDataProvider();
-        TickerDataProvider tickerDataProvider = new DemoTickerDataProvider();
+        AsyncTickerDataProvider tickerDataProvider = AsyncTickerDataProvider.of(new DemoTickerDataProvider());
+        STARTUP.mark("providers");
 
         Ticker ticker = DemoTickerDataProvider.MSFT;
-
-        candles = tickerDataProvider.getCandles(ticker,
-                new PeriodInterval(Period.ofDays(1))).orElseThrow();
+        Interval interval = new PeriodInterval(Period.ofDays(1));
 
         superChart = new SuperChart();
-        superChart.setTimeAxis(new Range(Math.max(0, candles.size() - 400), candles.size() + 20));
         superChart.getIndicators().setAll(getIndicators().keySet());
         superChart.setIndicatorSelectionHandler(this::handleIndicatorSelection);
-        superChart.setTimeAxisPosConverter(new InterDayTimeAxisPosConverter(candles));
         superChart.userDrawingProperty().subscribe(this::onUserDrawingChange);
 
-        CandleChart candleChart = new CandleChart(candles);
+        mainContent = new ChartContent();
+        mainContent.setLongName(assetDataProvider.getAssetName(ticker.sourceAssetId()).orElse(""));
+        superChart.getChartContents().add(mainContent);
+
+        // The window is shown right away and the charts are added once it is known where the candles start and end.
+        tickerDataProvider.getTickerSymbol(ticker).thenAcceptAsync(
+                symbol -> mainContent.setShortName(symbol.orElse("")), Platform::runLater);
+        CompletableFuture<Optional<Instant>> first = tickerDataProvider.getFirstCandleInstant(ticker, interval);
+        CompletableFuture<Optional<Instant>> last = tickerDataProvider.getLastCandleInstant(ticker, interval);
+        CompletableFuture.allOf(first, last).whenCompleteAsync((v, e) -> {
+            if (e != null) {
+                LOGGER.log(System.Logger.Level.ERROR, "Failed to load the candles", e);
+            } else if (first.join().isPresent() && last.join().isPresent()) {
+                showCandles(tickerDataProvider, ticker, interval, first.join().get(), last.join().get().plusSeconds(1));
+            }
+        }, Platform::runLater);
+        STARTUP.mark("charts");
+    }
+
+    /**
+     * Adds the charts of the candles, of which only the ones in view are loaded at first and older ones when the
+     * time axis is panned towards them.
+     *
+     * @param start The start of the first candle.
+     * @param end   The exclusive end of the candles.
+     */
+    private void showCandles(AsyncTickerDataProvider tickerDataProvider, Ticker ticker, Interval interval,
+                             Instant start, Instant end) {
+        // The segments are loaded on the history loader, also when an evicted one is accessed again, so that the FX
+        // application thread never waits for them.
+        candles = new PagedTimeline<>((from, to) -> toList(tickerDataProvider.getCandles(ticker, interval, from, to)
+                .join()), start, end, SEGMENT_DURATION, MAX_LOADED_SEGMENTS, HISTORY_LOADER, Platform::runLater);
+        STARTUP.mark("candles requested");
+
+        initialTimeAxis = getInitialTimeAxis();
+        superChart.setTimeAxis(initialTimeAxis);
+        superChart.setTimeAxisPosConverter(new InterDayTimeAxisPosConverter(candles));
+
+        candleChart = new CandleChart(candles);
         candleChart.setBullishColor(bullishColor);
         candleChart.setBearishColor(bearishColor);
 
@@ -61,12 +154,17 @@ public class App extends Application {
         volumeChart.setBullishColor(bullishColor);
         volumeChart.setBearishColor(bearishColor);
 
-        mainContent = new ChartContent();
-        mainContent.setLongName(assetDataProvider.getAssetName(ticker.sourceAssetId()).orElse(""));
-        mainContent.setShortName(tickerDataProvider.getTickerSymbol(ticker).orElse(""));
-        mainContent.setValueAxis(getYDrawingRange(candleChart));
+        fitValueAxis(mainContent, candleChart);
         mainContent.getDrawings().addAll(candleChart, volumeChart);
-        superChart.getChartContents().add(mainContent);
+
+        candles.addListener(candlesListener);
+        superChart.timeAxisProperty().subscribe(this::onTimeAxisChange);
+    }
+
+    private static List<Timestamped<? extends Candle>> toList(Optional<? extends Timeline<? extends Candle>> t) {
+        List<Timestamped<? extends Candle>> l = new ArrayList<>();
+        t.ifPresent(candles -> candles.forEach(l::add));
+        return l;
     }
 
     public static void launch(String[] args) {
@@ -79,8 +177,91 @@ public class App extends Application {
 
         URL styleSheetUrl = Objects.requireNonNull(getClass().getResource("App.css"));
         primaryStage.getScene().getStylesheets().add(styleSheetUrl.toExternalForm());
+        STARTUP.mark("scene");
+
+        primaryStage.getScene().addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                primaryStage.getScene().removePostLayoutPulseListener(this);
+                STARTUP.mark("first frame");
+                drewFirstFrame = true;
+                logStartup();
+            }
+        });
 
         primaryStage.show();
+        STARTUP.mark("shown");
+    }
+
+    private Range getInitialTimeAxis() {
+        return new Range(Math.max(0, candles.size() - INITIAL_CANDLES), candles.size() + 20);
+    }
+
+    private void onTimeAxisChange() {
+        retainVisibleCandles();
+        loadHistoryIfNeeded();
+    }
+
+    /**
+     * Keeps the candles in view and as many on either side in memory, so that panning doesn't wait for them.
+     */
+    private void retainVisibleCandles() {
+        Range r = superChart.getTimeAxis();
+        double length = r.end() - r.start();
+        candles.retain((int) Math.floor(r.start() - length), (int) Math.ceil(r.end() + length));
+    }
+
+    /**
+     * Loads the previous segment of the history in the background if the time axis comes close to its start.
+     * The time axis is moved along with the visible candles, since their indices are shifted by the new ones.
+     */
+    private void loadHistoryIfNeeded() {
+        if (loadingHistory || candles.isComplete() || superChart.getTimeAxis().start() > PRELOADED_CANDLES) {
+            return;
+        }
+
+        loadingHistory = true;
+        candles.loadPreviousAsync(HISTORY_LOADER, Platform::runLater).whenComplete((n, e) -> {
+            loadingHistory = false;
+
+            if (e != null) {
+                LOGGER.log(System.Logger.Level.ERROR, "Failed to load the history", e);
+                return;
+            }
+
+            // Unless the latest candles were kept in view already.
+            if (n > 0 && !superChart.getTimeAxis().equals(initialTimeAxis)) {
+                superChart.setTimeAxis(superChart.getTimeAxis().translated(n));
+            }
+
+            loadHistoryIfNeeded();
+        });
+    }
+
+    /**
+     * Keeps the latest candles in view while they are loaded, unless the user moved the time axis meanwhile.
+     */
+    private void onCandlesUpdate() {
+        if (!receivedCandles) {
+            receivedCandles = true;
+            STARTUP.mark("first candles");
+            logStartup();
+        }
+
+        if (superChart.getTimeAxis().equals(initialTimeAxis)) {
+            initialTimeAxis = getInitialTimeAxis();
+            superChart.setTimeAxis(initialTimeAxis);
+            fitValueAxis(mainContent, candleChart);
+        }
+    }
+
+    /**
+     * Logs the startup phases once the first frame was drawn and the first candles were received.
+     */
+    private void logStartup() {
+        if (receivedCandles && drewFirstFrame) {
+            LOGGER.log(System.Logger.Level.INFO, "Startup: {0}", STARTUP);
+        }
     }
 
     private Map<Indicator, Runnable> getIndicators() {
@@ -112,18 +293,38 @@ public class App extends Application {
 
     private void addAsNewChartContent(TimelineDrawing t) {
         ChartContent chartContent = new ChartContent();
-        chartContent.setValueAxis(getYDrawingRange(t));
+        fitValueAxis(chartContent, t);
         chartContent.getDrawings().add(t);
         superChart.getChartContents().add(chartContent);
     }
 
     private void handleIndicatorSelection(Indicator i) {
+        if (candles == null) {
+            return;
+        }
+
         getIndicators().get(i).run();
     }
 
-    private Range getYDrawingRange(TimelineDrawing t) {
-        Range r = t.getYDrawingRange(superChart.getTimeAxis());
-        r = r.scaled(1.2);
+    /**
+     * Fits the value axis to the drawing in view. The range is calculated on the prepare thread, since the drawing
+     * reads the same indicators as a frame, and the value axis is set once it is known. The value axis is kept if
+     * the candles aren't loaded.
+     */
+    private void fitValueAxis(ChartContent content, TimelineDrawing t) {
+        Range timeAxis = superChart.getTimeAxis();
+
+        FrameScheduler.getDefault().calculate(() -> t.getYDrawingRange(timeAxis)).whenCompleteAsync((r, e) -> {
+            if (e == null) {
+                content.setValueAxis(getValueAxis(r));
+            } else if (!(e instanceof NotLoadedException)) {
+                LOGGER.log(System.Logger.Level.ERROR, "Failed to fit the value axis", e);
+            }
+        }, Platform::runLater);
+    }
+
+    private static Range getValueAxis(Range drawingRange) {
+        Range r = drawingRange.scaled(1.2);
 
         if (!Double.isFinite(r.start())) {
             r = new Range(-1, r.end());
@@ -136,8 +337,8 @@ public class App extends Application {
         return r;
     }
 
-    private Timeline<Number> atClose(Timeline<? extends Candle> t) {
-        return new MapperTimeline<>(t, Candle::getClose);
+    private Timeline<Double> atClose(Timeline<? extends Candle> t) {
+        return IndicatorRegistry.getDefault().mapToDouble(t, "close", c -> c.getCloseDouble());
     }
 
     private void onUserDrawingChange(Drawing newVal) {
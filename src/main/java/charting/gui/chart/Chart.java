@@ -23,6 +23,10 @@ public class Chart extends Control {
 
     private final DoubleProperty legendX = new SimpleDoubleProperty(Double.NaN);
 
+    private final LongProperty tileCacheSize = new SimpleLongProperty(0);
+
+    private final DoubleProperty frameBudget = new SimpleDoubleProperty(12);
+
     public Chart(String title) {
         this();
         setTitle(title);
@@ -129,6 +133,39 @@ public class Chart extends Control {
         this.legendX.set(legendX);
     }
 
+    public long getTileCacheSize() {
+        return tileCacheSize.get();
+    }
+
+    /**
+     * The maximum size in bytes of the rendered tiles of {@link TileableDrawing TileableDrawings} which are cached
+     * to speed up panning. 0 disables the cache, which is the default.
+     */
+    public LongProperty tileCacheSizeProperty() {
+        return tileCacheSize;
+    }
+
+    public void setTileCacheSize(long tileCacheSize) {
+        this.tileCacheSize.set(tileCacheSize);
+    }
+
+    public double getFrameBudget() {
+        return frameBudget.get();
+    }
+
+    /**
+     * The time in milliseconds a frame may take. While the viewport changes, e.g. because the user pans or zooms,
+     * frames are drawn in reduced quality if frames of full quality took longer. They are refined as soon as
+     * the viewport stops changing.
+     */
+    public DoubleProperty frameBudgetProperty() {
+        return frameBudget;
+    }
+
+    public void setFrameBudget(double frameBudget) {
+        this.frameBudget.set(frameBudget);
+    }
+
     @Override
     protected Skin<?> createDefaultSkin() {
         return new ChartSkin(this);
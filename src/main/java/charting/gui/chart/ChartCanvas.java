@@ -3,75 +3,450 @@ package charting.gui.chart;
 import charting.util.Range2D;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.scene.SnapshotParameters;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.transform.Transform;
+import javafx.stage.Window;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 class ChartCanvas extends Canvas {
+    /**
+     * The width of a cached tile in pixels.
+     */
+    private static final double TILE_WIDTH = 256;
+
     private final ObjectProperty<Range2D> viewport = new SimpleObjectProperty<>(new Range2D(0, 0, 100, 100));
 
-    ChartCanvas() {
+    private final ChartLayer layer;
+
+    private final DrawableBuffer buffer = new DrawableBuffer();
+
+    /**
+     * The part of the cached drawings that isn't covered by tiles.
+     */
+    private final DrawableBuffer liveBuffer = new DrawableBuffer();
+
+    private final TileCache tileCache = new TileCache(0);
+
+    /**
+     * The tiles prepared for the current frame which weren't cached yet, by their index.
+     */
+    private final Map<Long, DrawableBuffer> newTiles = new HashMap<>();
+
+    /**
+     * The width of a tile in viewport units. It's only changed by zooming, so that floating point errors when
+     * panning don't discard the tiles.
+     */
+    private double tileWidth = Double.NaN;
+    private Object tileKey;
+    private List<TileableDrawing> tiledDrawings = List.of();
+    private long firstTile;
+    private long endTile;
+
+    private Canvas tileCanvas;
+
+    private double scaleX;
+    private double translateX;
+    private double scaleY;
+    private double translateY;
+
+    ChartCanvas(ChartLayer layer) {
+        this.layer = layer;
+
         getStyleClass().add("chart-canvas");
     }
 
+    /**
+     * Redraws the given drawings that belong to the layer of this canvas.
+     */
     void update(List<Drawing> drawings) {
+        DrawingContext drawingContext = createDrawingContext();
+        prepare(drawings, drawingContext);
+        submit(drawingContext);
+    }
+
+    /**
+     * @return A snapshot of the current viewport and canvas size, to prepare a frame with.
+     */
+    DrawingContext createDrawingContext() {
+        return createDrawingContext(false);
+    }
+
+    /**
+     * @param reducedQuality See {@link DrawingContext#isReducedQuality()}.
+     */
+    DrawingContext createDrawingContext(boolean reducedQuality) {
         Range2D v = viewport.get() == null ? Range2D.NAN : viewport.get();
-        DrawingContext drawingContext = new DrawingContext(v, getWidth(), getHeight());
+        return new DrawingContext(v, getWidth(), getHeight(), reducedQuality);
+    }
+
+    /**
+     * The first stage of a redraw, which lets the given drawings that belong to the layer of this canvas write
+     * into the buffer. It doesn't touch the canvas, so it may run on any thread. The caller must ensure that
+     * only one frame is prepared at a time and that it is submitted before the next one is prepared.
+     */
+    void prepare(List<Drawing> drawings, DrawingContext drawingContext) {
+        buffer.clear();
+        liveBuffer.clear();
+        newTiles.clear();
+
+        List<TileableDrawing> tiled = getTiledDrawings(drawings, drawingContext);
+        tiledDrawings = tiled;
+        endTile = firstTile;
+        double liveStartX = tiled.isEmpty() ? Double.NaN : prepareTiles(tiled, drawingContext);
+
+        for (Drawing d : drawings) {
+            if (d == null || d.getLayer() != layer) {
+                continue;
+            }
+
+            if (d instanceof TileableDrawing t && tiled.contains(t)) {
+                t.drawRange(drawingContext, liveBuffer, liveStartX, drawingContext.getViewport().endX());
+                t.drawDecorations(drawingContext, buffer);
+            } else {
+                d.draw(drawingContext, buffer);
+            }
+        }
+    }
+
+    /**
+     * @return The {@link TileableDrawing TileableDrawings} at the beginning of the layer or an empty list
+     * if tiles are disabled.
+     */
+    private List<TileableDrawing> getTiledDrawings(List<Drawing> drawings, DrawingContext drawingContext) {
+        List<TileableDrawing> tiled = new ArrayList<>();
+
+        if (tileCache.getMaxBytes() == 0 || !(drawingContext.getCanvasWidth() > 0) ||
+                !(drawingContext.getViewport().getWidth() > 0)) {
+            return tiled;
+        }
+
+        for (Drawing d : drawings) {
+            if (d == null || d.getLayer() != layer) {
+                continue;
+            }
+
+            if (!(d instanceof TileableDrawing t)) {
+                break;
+            }
 
-        getGraphicsContext2D().clearRect(0, 0, getWidth(), getHeight());
+            tiled.add(t);
+        }
+
+        return tiled;
+    }
+
+    /**
+     * Determines the visible tiles left of the final end of the given drawings and prepares those which aren't
+     * cached yet.
+     *
+     * @return The x coordinate where the tiles end.
+     */
+    private double prepareTiles(List<TileableDrawing> tiled, DrawingContext drawingContext) {
+        Range2D v = drawingContext.getViewport();
 
-        drawings.forEach(drawing -> {
-            if (drawing != null) {
-                drawing.getDrawables(drawingContext).forEach(d -> draw(drawingContext, d));
+        double w = TILE_WIDTH * v.getWidth() / drawingContext.getCanvasWidth();
+        if (!(Math.abs(w - tileWidth) <= tileWidth * 1e-9)) {
+            tileWidth = w;
+        }
+
+        double finalEndX = Double.POSITIVE_INFINITY;
+        List<Object> key = new ArrayList<>(List.of(tileWidth, v.startY(), v.endY(), drawingContext.getCanvasHeight()));
+
+        for (TileableDrawing t : tiled) {
+            finalEndX = Math.min(finalEndX, t.getFinalEndX(drawingContext));
+            key.add(t);
+            key.add(t.getFinalVersion());
+        }
+
+        // Tiles are only rendered once the key was the same for two frames, so that zooming, where every frame
+        // has another key, doesn't pay for rendering tiles that are never reused.
+        boolean stable = key.equals(tileKey);
+
+        tileCache.validate(key);
+        tileKey = key;
+
+        firstTile = (long) Math.floor(v.startX() / tileWidth);
+        endTile = Math.min((long) Math.floor(finalEndX / tileWidth), (long) Math.ceil(v.endX() / tileWidth));
+
+        if (!stable || !(finalEndX > v.startX()) || endTile <= firstTile) {
+            endTile = firstTile;
+            return v.startX();
+        }
+
+        for (long i = firstTile; i < endTile; i++) {
+            if (!tileCache.contains(i)) {
+                newTiles.put(i, prepareTile(tiled, drawingContext, i));
             }
-        });
+        }
+
+        return endTile * tileWidth;
+    }
+
+    private DrawableBuffer prepareTile(List<TileableDrawing> tiled, DrawingContext drawingContext, long i) {
+        DrawingContext c = getTileContext(drawingContext, i);
+        DrawableBuffer b = new DrawableBuffer();
+
+        for (TileableDrawing t : tiled) {
+            t.drawRange(c, b, c.getViewport().startX(), c.getViewport().endX());
+        }
+
+        return b;
+    }
+
+    private DrawingContext getTileContext(DrawingContext drawingContext, long i) {
+        Range2D v = drawingContext.getViewport();
+        return new DrawingContext(new Range2D(i * tileWidth, v.startY(), (i + 1) * tileWidth, v.endY()),
+                TILE_WIDTH, drawingContext.getCanvasHeight());
     }
 
-    private void draw(DrawingContext c, Drawable drawable) {
+    /**
+     * The second stage of a redraw, which draws the prepared frame on the FX application thread.
+     *
+     * @param drawingContext The context the frame was prepared with.
+     */
+    void submit(DrawingContext drawingContext) {
         GraphicsContext gc = getGraphicsContext2D();
+        gc.clearRect(0, 0, getWidth(), getHeight());
+
+        if (endTile > firstTile) {
+            setTransform(drawingContext, true);
+
+            for (long i = firstTile; i < endTile; i++) {
+                gc.drawImage(getTile(drawingContext, i),
+                        Math.round(i * tileWidth * scaleX + translateX), 0, TILE_WIDTH, drawingContext.getCanvasHeight());
+            }
+
+            // Clipped, since the drawables at the border of the tiles were drawn into them already.
+            double liveX = Math.round(endTile * tileWidth * scaleX + translateX);
+
+            gc.save();
+            gc.beginPath();
+            gc.rect(liveX, 0, Math.max(0, drawingContext.getCanvasWidth() - liveX), drawingContext.getCanvasHeight());
+            gc.clip();
+            replay(gc, liveBuffer, drawingContext, true);
+            gc.restore();
+
+            replay(gc, buffer, drawingContext, true);
+        } else {
+            replay(gc, liveBuffer, drawingContext, false);
+            replay(gc, buffer, drawingContext, false);
+        }
+
+        newTiles.clear();
+    }
+
+    /**
+     * @return The cached tile, which is rendered first if necessary.
+     */
+    private Image getTile(DrawingContext drawingContext, long i) {
+        double scale = getRenderScale();
+        Image tile = tileCache.get(i);
+
+        if (tile != null && tile.getWidth() == Math.ceil(TILE_WIDTH * scale)) {
+            return tile;
+        }
+
+        DrawableBuffer b = newTiles.get(i);
+        if (b == null) {
+            // Evicted since the frame was prepared, which only happens if the cache is too small for a frame.
+            b = prepareTile(tiledDrawings, drawingContext, i);
+        }
+
+        DrawingContext c = getTileContext(drawingContext, i);
+
+        if (tileCanvas == null) {
+            tileCanvas = new Canvas();
+        }
+
+        tileCanvas.setWidth(TILE_WIDTH);
+        tileCanvas.setHeight(c.getCanvasHeight());
+
+        GraphicsContext gc = tileCanvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, TILE_WIDTH, c.getCanvasHeight());
+        replay(gc, b, c, true);
+
+        SnapshotParameters p = new SnapshotParameters();
+        p.setFill(Color.TRANSPARENT);
+        p.setTransform(Transform.scale(scale, scale));
+
+        tile = tileCanvas.snapshot(p, new WritableImage((int) Math.ceil(TILE_WIDTH * scale),
+                (int) Math.ceil(c.getCanvasHeight() * scale)));
+        tileCache.put(tileKey, i, tile);
+
+        return tile;
+    }
+
+    private double getRenderScale() {
+        Window w = getScene() == null ? null : getScene().getWindow();
+        return w == null || !(w.getRenderScaleX() > 0) ? 1 : w.getRenderScaleX();
+    }
+
+    private void setTransform(DrawingContext drawingContext, boolean snapTranslation) {
+        // The viewport to canvas mapping as an affine transform, applied inline so that the
+        // coordinates can still be snapped to the pixel grid.
+        Range2D v = drawingContext.getViewport();
+        scaleX = drawingContext.getCanvasWidth() / v.getWidth();
+        translateX = -v.startX() * scaleX;
+        scaleY = -drawingContext.getCanvasHeight() / v.getHeight();
+        translateY = drawingContext.getCanvasHeight() - v.startY() * scaleY;
+
+        // Tiles are aligned to whole pixels, so everything else has to be as well.
+        if (snapTranslation) {
+            translateX = Math.round(translateX);
+        }
+    }
+
+    /**
+     * Draws the commands of the buffer.
+     */
+    private void replay(GraphicsContext gc, DrawableBuffer buffer, DrawingContext drawingContext,
+                        boolean snapTranslation) {
+        setTransform(drawingContext, snapTranslation);
         gc.save();
 
+        int i = 0;
+        while (i < buffer.size()) {
+            byte type = buffer.getType(i);
+
+            if (type == DrawableBuffer.DRAWABLE) {
+                // Text is the most expensive drawable and skipped in frames of reduced quality.
+                if (drawingContext.isReducedQuality() && buffer.getDrawable(i) instanceof Text) {
+                    i++;
+                    continue;
+                }
+
+                gc.save();
+                draw(gc, drawingContext, buffer.getDrawable(i));
+                gc.restore();
+                i++;
+                continue;
+            }
+
+            // Consecutive commands with the same state are drawn as one path.
+            int j = i + 1;
+            while (j < buffer.size() && buffer.getType(j) == type &&
+                    buffer.getPaintId(j) == buffer.getPaintId(i) && buffer.getWidth(j) == buffer.getWidth(i)) {
+                j++;
+            }
+
+            if (type == DrawableBuffer.LINE) {
+                strokeLines(gc, buffer, i, j);
+            } else {
+                drawRects(gc, buffer, i, j, type == DrawableBuffer.STROKE_RECT);
+            }
+
+            i = j;
+        }
+
+        gc.restore();
+    }
+
+    /**
+     * Strokes the lines in the buffer's index range [from, to), which share their paint and width.
+     */
+    private void strokeLines(GraphicsContext gc, DrawableBuffer buffer, int from, int to) {
+        double width = buffer.getWidth(from);
+
+        gc.setStroke(buffer.getPaint(from));
+        gc.setLineWidth(width);
+        gc.setLineDashes(null);
+        gc.setLineDashOffset(0);
+        gc.setLineCap(StrokeLineCap.ROUND);
+
+        double offs = width < 1 || Math.round(width) % 2 == 1 ? 0.5 : 0;
+
+        gc.beginPath();
+
+        for (int i = from; i < to; i++) {
+            gc.moveTo(Math.round(buffer.getCoord(i, 0) * scaleX + translateX) + offs,
+                    Math.round(buffer.getCoord(i, 1) * scaleY + translateY) + offs);
+            gc.lineTo(Math.round(buffer.getCoord(i, 2) * scaleX + translateX) + offs,
+                    Math.round(buffer.getCoord(i, 3) * scaleY + translateY) + offs);
+        }
+
+        gc.stroke();
+    }
+
+    /**
+     * Fills or strokes the rectangles in the buffer's index range [from, to), which share their paint.
+     */
+    private void drawRects(GraphicsContext gc, DrawableBuffer buffer, int from, int to, boolean stroked) {
+        gc.beginPath();
+
+        for (int i = from; i < to; i++) {
+            double x1 = buffer.getCoord(i, 0) * scaleX + translateX;
+            double y1 = buffer.getCoord(i, 1) * scaleY + translateY;
+            double x2 = x1 + buffer.getCoord(i, 2) * scaleX;
+            double y2 = y1 + buffer.getCoord(i, 3) * scaleY;
+
+            gc.rect(Math.min(x1, x2), Math.min(y1, y2), Math.abs(x1 - x2), Math.abs(y1 - y2));
+        }
+
+        if (stroked) {
+            gc.setStroke(buffer.getPaint(from));
+            gc.setLineWidth(1);
+            gc.setLineDashes(null);
+            gc.stroke();
+        } else {
+            gc.setFill(buffer.getPaint(from));
+            gc.fill();
+        }
+    }
+
+    private void draw(GraphicsContext gc, DrawingContext c, Drawable drawable) {
         if (drawable instanceof Rect r) {
-            drawRect(gc, c, r);
+            drawRect(gc, c, r.getX(), r.getY(), r.getWidth(), r.getHeight(), r.getPaint(), r.isStroked());
         } else if (drawable instanceof Line l) {
-            drawLine(gc, c, l);
+            drawLine(gc, c, l.getX1(), l.getY1(), l.getX2(), l.getY2(), l.getPaint(), l.getWidth(),
+                    l.getLineDashes(), l.getLineDashesOffset(), l.getLineCap());
         } else if (drawable instanceof Text t) {
             drawText(gc, c, t);
         } else if (drawable instanceof Polygon p) {
             drawPolygon(gc, c, p);
         }
-
-        gc.restore();
     }
 
-    private void drawRect(GraphicsContext gc, DrawingContext c, Rect r) {
-        double x1 = c.toCanvasX(r.getX());
-        double y1 = c.toCanvasY(r.getY());
-        double x2 = x1 + c.toCanvasWidth(r.getWidth());
-        double y2 = y1 + c.toCanvasHeight(r.getHeight());
+    private void drawRect(GraphicsContext gc, DrawingContext c,
+                          double x, double y, double width, double height, Paint paint, boolean stroked) {
+        double x1 = c.toCanvasX(x);
+        double y1 = c.toCanvasY(y);
+        double x2 = x1 + c.toCanvasWidth(width);
+        double y2 = y1 + c.toCanvasHeight(height);
 
-        if (r.isStroked()) {
-            gc.setStroke(r.getPaint());
+        if (stroked) {
+            gc.setStroke(paint);
             gc.strokeRect(Math.min(x1, x2), Math.min(y1, y2), Math.abs(x1 - x2), Math.abs(y1 - y2));
         } else {
-            gc.setFill(r.getPaint());
+            gc.setFill(paint);
             gc.fillRect(Math.min(x1, x2), Math.min(y1, y2), Math.abs(x1 - x2), Math.abs(y1 - y2));
         }
     }
 
-    private void drawLine(GraphicsContext gc, DrawingContext c, Line l) {
-        gc.setStroke(l.getPaint());
-        gc.setLineWidth(l.getWidth());
-        gc.setLineDashes(l.getLineDashes());
-        gc.setLineDashOffset(l.getLineDashesOffset());
-        gc.setLineCap(l.getLineCap());
+    private void drawLine(GraphicsContext gc, DrawingContext c, double x1, double y1, double x2, double y2,
+                          Paint paint, double width, double[] lineDashes, double lineDashesOffset,
+                          StrokeLineCap lineCap) {
+        gc.setStroke(paint);
+        gc.setLineWidth(width);
+        gc.setLineDashes(lineDashes);
+        gc.setLineDashOffset(lineDashesOffset);
+        gc.setLineCap(lineCap);
 
-        double offs = l.getWidth() < 1 || Math.round(l.getWidth()) % 2 == 1 ? 0.5 : 0;
-        gc.strokeLine(Math.round(c.toCanvasX(l.getX1())) + offs,
-                Math.round(c.toCanvasY(l.getY1())) + offs,
-                Math.round(c.toCanvasX(l.getX2())) + offs,
-                Math.round(c.toCanvasY(l.getY2())) + offs);
+        double offs = width < 1 || Math.round(width) % 2 == 1 ? 0.5 : 0;
+        gc.strokeLine(Math.round(c.toCanvasX(x1)) + offs,
+                Math.round(c.toCanvasY(y1)) + offs,
+                Math.round(c.toCanvasX(x2)) + offs,
+                Math.round(c.toCanvasY(y2)) + offs);
     }
 
     private void drawText(GraphicsContext gc, DrawingContext c, Text t) {
@@ -108,6 +483,17 @@ class ChartCanvas extends Canvas {
         }
     }
 
+    /**
+     * @param maxBytes The maximum size of the cached tiles, 0 disables them.
+     */
+    void setTileCacheSize(long maxBytes) {
+        tileCache.setMaxBytes(maxBytes);
+    }
+
+    ChartLayer getLayer() {
+        return layer;
+    }
+
     ObjectProperty<Range2D> viewportProperty() {
         return viewport;
     }
@@ -0,0 +1,20 @@
+package charting.gui.chart;
+
+/**
+ * The layers of a {@link Chart} from bottom to top. Every layer is drawn on its own canvas and only
+ * redrawn when one of its {@link Drawing Drawings} was invalidated, see {@link Drawing#subscribe(Runnable)}.
+ */
+public enum ChartLayer {
+    /**
+     * For static decorations behind the data, e.g. a watermark.
+     */
+    BACKGROUND,
+    /**
+     * For the series and indicators, which are expensive to draw.
+     */
+    DATA,
+    /**
+     * For drawings that follow the mouse and are cheap to draw, e.g. a crosshair.
+     */
+    OVERLAY
+}
@@ -2,10 +2,13 @@ package charting.gui.chart;
 
 import charting.gui.util.NodeDragDistance;
 import charting.gui.util.NodeRenderingState;
+import charting.timeline.NotLoadedException;
+import charting.timeline.TimelineLock;
 import charting.util.Range2D;
-import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.ListChangeListener;
 import javafx.event.EventHandler;
 import javafx.geometry.Bounds;
 import javafx.geometry.Insets;
@@ -17,27 +20,82 @@ import javafx.scene.layout.Pane;
 import javafx.scene.layout.Region;
 import javafx.util.Subscription;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class ChartSkin extends SkinBase<Chart> {
     private final Pane pane = new Pane();
-    private final ChartCanvas chartCanvas = new ChartCanvas();
+    private final ChartCanvas backgroundCanvas = new ChartCanvas(ChartLayer.BACKGROUND);
+    private final ChartCanvas chartCanvas = new ChartCanvas(ChartLayer.DATA);
+    private final ChartCanvas overlayCanvas = new ChartCanvas(ChartLayer.OVERLAY);
+    private final List<ChartCanvas> canvases = List.of(backgroundCanvas, chartCanvas, overlayCanvas);
     private final ChartLegend chartLegend = new ChartLegend();
 
-    private final AnimationTimer animationTimer = new AnimationTimer() {
-        final static int UPDATE_DELAY_MILLIS = 10;
+    /**
+     * Bit for the legend in {@link #invalid}, the layers use the bits of their ordinals.
+     */
+    private final static int LEGEND = 1 << ChartLayer.values().length;
+    private final static int ALL = (LEGEND << 1) - 1;
+
+    /**
+     * The time after the last viewport change until a frame of reduced quality is refined.
+     */
+    private final static long REFINE_DELAY_NANOS = 150_000_000L;
+
+    private final static int UPDATE_DELAY_MILLIS = 10;
 
-        long t;
+    private final AtomicInteger invalid = new AtomicInteger(ALL);
 
+    private final FrameScheduler scheduler = FrameScheduler.getDefault();
+
+    /**
+     * Hands this chart to the scheduler without making its redraw methods public.
+     */
+    private final FrameScheduler.Client schedulerClient = new FrameScheduler.Client() {
         @Override
-        public void handle(long timestamp) {
-            // Limit the update rate to avoid lags for bigger charts.
-            if ((timestamp - t) / 1000000 >= UPDATE_DELAY_MILLIS && getSkinnable() != null) {
-                updateCanvas();
-                updateLegend();
-                t = timestamp;
-            }
+        public boolean isPrioritized() {
+            return ChartSkin.this.isPrioritized();
+        }
+
+        @Override
+        public long getLastRedraw() {
+            return lastRedraw;
+        }
+
+        @Override
+        public boolean redraw(long timestamp) {
+            return ChartSkin.this.redraw(timestamp);
         }
     };
 
+    /**
+     * The timestamp of the pulse of the last redraw.
+     */
+    private long lastRedraw;
+
+    /**
+     * The timestamp of the pulse of the last redraw of the data layer.
+     */
+    private long lastDataRedraw;
+
+    /**
+     * Whether a frame of the data layer is being prepared, only accessed on the FX application thread.
+     */
+    private boolean preparing;
+
+    private long lastViewportChange = System.nanoTime() - REFINE_DELAY_NANOS;
+
+    /**
+     * The time the last data frame of full quality took to prepare and submit.
+     */
+    private long fullFrameNanos;
+
+    /**
+     * Whether a frame of reduced quality was drawn which isn't refined yet.
+     */
+    private boolean refinePending;
+
     private final NodeRenderingState renderingState;
 
     private final NodeDragDistance dragDistance;
@@ -51,6 +109,9 @@ public class ChartSkin extends SkinBase<Chart> {
     private final ReadOnlyObjectWrapper<Point2D> viewportMousePos = new ReadOnlyObjectWrapper<>();
 
     private final Subscription chartSubscription;
+    private Subscription drawingsSubscription = Subscription.EMPTY;
+
+    private final ListChangeListener<Drawing> drawingsListener = c -> onDrawingsChange();
 
     public ChartSkin(Chart chart) {
         super(chart);
@@ -61,6 +122,10 @@ public class ChartSkin extends SkinBase<Chart> {
         Subscription s4 = chart.viewportProperty().subscribe(this::onViewportChange);
 
         Subscription s5 = viewportMousePos.subscribe(this::onViewportMousePositionChange);
+        Subscription s6 = Invalidation.of(() -> invalidate(LEGEND), chart.legendXProperty());
+        Subscription s7 = Invalidation.of(() -> invalidate(ALL),
+                chartCanvas.widthProperty(), chartCanvas.heightProperty());
+        Subscription s8 = chart.tileCacheSizeProperty().subscribe(this::onTileCacheSizeChange);
         viewportMousePos.set(new Point2D(Double.NaN, Double.NaN));
 
         chartLegend.setMinWidth(Region.USE_PREF_SIZE);
@@ -76,15 +141,24 @@ public class ChartSkin extends SkinBase<Chart> {
         dragDistance.dragDistanceXProperty().subscribe(this::onDragDistanceXChange);
         dragDistance.dragDistanceYProperty().subscribe(this::onDragDistanceYChange);
 
-        chartCanvas.viewportProperty().bind(chart.viewportProperty());
+        for (ChartCanvas c : canvases) {
+            c.viewportProperty().bind(chart.viewportProperty());
+        }
+
+        backgroundCanvas.setMouseTransparent(true);
+        overlayCanvas.setMouseTransparent(true);
+
         chartCanvas.addEventFilter(MouseEvent.ANY, mouseEventFilter);
         chartCanvas.addEventFilter(ScrollEvent.SCROLL, scrollEventFilter);
 
-        chartSubscription = Subscription.combine(s1, s2, s3, s4, s5);
+        chart.getDrawings().addListener(drawingsListener);
+        onDrawingsChange();
+
+        chartSubscription = Subscription.combine(s1, s2, s3, s4, s5, s6, s7, s8);
 
         updateChartCanvasSize();
 
-        pane.getChildren().addAll(chartCanvas, chartLegend);
+        pane.getChildren().addAll(backgroundCanvas, chartCanvas, overlayCanvas, chartLegend);
         getChildren().add(pane);
     }
 
@@ -95,18 +169,204 @@ public class ChartSkin extends SkinBase<Chart> {
         double w = getSkinnable().getWidth() - i.getLeft() - i.getRight();
         double h = getSkinnable().getHeight() - i.getTop() - i.getBottom();
 
-        chartCanvas.setWidth(w);
-        chartCanvas.setHeight(h);
+        for (ChartCanvas c : canvases) {
+            c.setWidth(w);
+            c.setHeight(h);
+        }
+    }
+
+    private void onTileCacheSizeChange(Number size) {
+        for (ChartCanvas c : canvases) {
+            c.setTileCacheSize(size.longValue());
+        }
+
+        invalidate(ALL);
     }
 
     private void onRenderingStateChange(boolean rendering) {
         if (rendering) {
-            animationTimer.start();
+            if (invalid.get() != 0 || refinePending) {
+                scheduler.schedule(schedulerClient);
+            }
         } else {
-            animationTimer.stop();
+            scheduler.unschedule(schedulerClient);
         }
     }
 
+    private void onDrawingsChange() {
+        drawingsSubscription.unsubscribe();
+        drawingsSubscription = Subscription.EMPTY;
+
+        for (Drawing d : getSkinnable().getDrawings()) {
+            if (d != null) {
+                drawingsSubscription = drawingsSubscription.and(subscribe(d));
+            }
+        }
+
+        invalidate(ALL);
+    }
+
+    /**
+     * Invalidates the layer of the drawing on every change. If the drawing moved to another layer,
+     * the previous one is invalidated as well.
+     */
+    private Subscription subscribe(Drawing d) {
+        ChartLayer[] layer = {d.getLayer()};
+
+        return d.subscribe(() -> {
+            ChartLayer l = d.getLayer();
+            invalidate(bit(layer[0]) | bit(l) | (d instanceof LegendDrawing ? LEGEND : 0));
+            layer[0] = l;
+        });
+    }
+
+    private static int bit(ChartLayer layer) {
+        return 1 << layer.ordinal();
+    }
+
+    /**
+     * Schedules a redraw of the given layers and/or the legend for the next pulse. Can be called on any thread.
+     * Multiple invalidations until the next redraw are coalesced.
+     */
+    private void invalidate(int layers) {
+        if (invalid.getAndUpdate(v -> v | layers) != 0) {
+            return;
+        }
+
+        if (Platform.isFxApplicationThread()) {
+            startRedraw();
+        } else {
+            Platform.runLater(this::startRedraw);
+        }
+    }
+
+    private void startRedraw() {
+        if (renderingState.isRendering() && getSkinnable() != null) {
+            scheduler.schedule(schedulerClient);
+        }
+    }
+
+    /**
+     * Redraws the invalidated layers and the legend, called by the {@link FrameScheduler} at most once per pulse.
+     *
+     * @return Whether the chart needs to be redrawn on the next pulse as well.
+     */
+    boolean redraw(long timestamp) {
+        int layers = invalid.getAndSet(0);
+
+        // Keeps being redrawn after a frame of reduced quality until it is refined.
+        if (refinePending && !isInteracting()) {
+            layers |= bit(ChartLayer.DATA) | LEGEND;
+            refinePending = false;
+        }
+
+        if ((layers == 0 && !refinePending) || getSkinnable() == null) {
+            return false;
+        }
+
+        lastRedraw = timestamp;
+
+        // The legend is only updated for refined frames.
+        if ((layers & LEGEND) != 0 && isReducingQuality()) {
+            layers &= ~LEGEND;
+            refinePending = true;
+        }
+
+        // Limit the update rate of the data layer to avoid lags for bigger charts.
+        // The other layers are cheap to draw and follow the mouse at the display's refresh rate.
+        // A data layer which is still being prepared is updated after the current frame was submitted.
+        if ((layers & bit(ChartLayer.DATA)) != 0 &&
+                (preparing || (timestamp - lastDataRedraw) / 1000000 < UPDATE_DELAY_MILLIS)) {
+            invalidate(bit(ChartLayer.DATA));
+            layers &= ~bit(ChartLayer.DATA);
+        }
+
+        for (ChartCanvas c : canvases) {
+            if (c != chartCanvas && (layers & bit(c.getLayer())) != 0) {
+                c.update(getSkinnable().getDrawings());
+            }
+        }
+
+        if ((layers & bit(ChartLayer.DATA)) != 0) {
+            prepareDataLayer();
+            lastDataRedraw = timestamp;
+        }
+
+        if ((layers & LEGEND) != 0) {
+            updateLegend();
+        }
+
+        return true;
+    }
+
+    /**
+     * Whether the chart is redrawn before others, which is the case while it's hovered.
+     */
+    boolean isPrioritized() {
+        return getSkinnable() != null && getSkinnable().isHover();
+    }
+
+    /**
+     * Prepares the data layer on the {@link FrameScheduler FrameScheduler's} prepare thread against a snapshot of
+     * the viewport and the drawings while holding the {@link TimelineLock}, then submits it on the FX application
+     * thread. While the user pans or zooms, frames are drawn in reduced quality if frames of full quality exceed
+     * the chart's frame budget.
+     */
+    private void prepareDataLayer() {
+        boolean reduced = isReducingQuality();
+        DrawingContext context = chartCanvas.createDrawingContext(reduced);
+        List<Drawing> drawings = new ArrayList<>(getSkinnable().getDrawings());
+
+        preparing = true;
+        refinePending |= reduced;
+
+        scheduler.prepare(() -> {
+            long prepareNanos;
+
+            // The drawings read the timelines, whose indicators fill their caches meanwhile.
+            TimelineLock.lock();
+            try {
+                long t = System.nanoTime();
+                chartCanvas.prepare(drawings, context);
+                prepareNanos = System.nanoTime() - t;
+            } catch (NotLoadedException e) {
+                // The frame is discarded and prepared again once the timeline notifies that the data was loaded.
+                Platform.runLater(() -> preparing = false);
+                return;
+            } catch (RuntimeException | Error e) {
+                // Rethrown on the FX application thread, where drawing errors were reported before.
+                Platform.runLater(() -> {
+                    preparing = false;
+                    throw e;
+                });
+                return;
+            } finally {
+                TimelineLock.unlock();
+            }
+
+            Platform.runLater(() -> {
+                preparing = false;
+
+                if (getSkinnable() != null) {
+                    long t = System.nanoTime();
+                    chartCanvas.submit(context);
+
+                    if (!reduced) {
+                        fullFrameNanos = prepareNanos + System.nanoTime() - t;
+                    }
+                }
+            });
+        }, isPrioritized());
+    }
+
+    private boolean isInteracting() {
+        return System.nanoTime() - lastViewportChange < REFINE_DELAY_NANOS;
+    }
+
+    private boolean isReducingQuality() {
+        return isInteracting() && fullFrameNanos > getSkinnable().getFrameBudget() * 1_000_000;
+    }
+
     private void onDragDistanceXChange(Number oldVal, Number newVal) {
         getSkinnable().shiftDrawings(
                 toViewportWidth(newVal.doubleValue() - oldVal.doubleValue()), 0);
@@ -156,7 +416,9 @@ public class ChartSkin extends SkinBase<Chart> {
     }
 
     private void onViewportChange() {
+        lastViewportChange = System.nanoTime();
         viewportMousePos.set(new Point2D(toViewportX(mouseX), toViewportY(mouseY)));
+        invalidate(ALL);
     }
 
     private void onViewportMousePositionChange(Point2D oldPos, Point2D newPos) {
@@ -187,12 +449,23 @@ public class ChartSkin extends SkinBase<Chart> {
         }
     }
 
-    private void updateCanvas() {
-        chartCanvas.update(getSkinnable().getDrawings());
-    }
-
+    /**
+     * Updates the legend unless a frame is being prepared, in which case it is retried on the next pulse, so that
+     * the FX application thread doesn't wait for indicators being calculated.
+     */
     private void updateLegend() {
-        chartLegend.update(getSkinnable().getDrawings(), getSkinnable().getLegendX());
+        if (!TimelineLock.tryLock()) {
+            invalidate(LEGEND);
+            return;
+        }
+
+        try {
+            chartLegend.update(getSkinnable().getDrawings(), getSkinnable().getLegendX());
+        } catch (NotLoadedException e) {
+            // Updated again once the timeline notifies that the data was loaded.
+        } finally {
+            TimelineLock.unlock();
+        }
     }
 
     public Point2D getViewportMousePos() {
@@ -259,8 +532,13 @@ public class ChartSkin extends SkinBase<Chart> {
     @Override
     public void dispose() {
         chartSubscription.unsubscribe();
+        drawingsSubscription.unsubscribe();
+        getSkinnable().getDrawings().removeListener(drawingsListener);
+
+        for (ChartCanvas c : canvases) {
+            c.viewportProperty().unbind();
+        }
 
-        chartCanvas.viewportProperty().unbind();
         chartCanvas.removeEventHandler(MouseEvent.ANY, mouseEventFilter);
         chartCanvas.removeEventHandler(ScrollEvent.SCROLL, scrollEventFilter);
 
@@ -271,7 +549,7 @@ public class ChartSkin extends SkinBase<Chart> {
 
         getChildren().remove(pane);
 
-        animationTimer.stop();
+        scheduler.unschedule(schedulerClient);
 
         super.dispose();
     }
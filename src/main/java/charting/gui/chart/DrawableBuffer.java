@@ -0,0 +1,186 @@
+package charting.gui.chart;
+
+import charting.util.Preconditions;
+import javafx.scene.paint.Paint;
+import javafx.scene.shape.StrokeLineCap;
+
+import java.util.*;
+
+/**
+ * A reusable buffer of draw commands which {@link Drawing Drawings} write into instead of allocating
+ * {@link Drawable Drawables}. Lines and rectangles are stored as primitives, paints as ids of a paint table.
+ * Any other {@link Drawable} is kept as is.
+ * <p>
+ * Coordinates are based on the viewport, just like those of {@link Drawable Drawables}.
+ */
+public final class DrawableBuffer {
+    static final byte LINE = 0;
+    static final byte FILL_RECT = 1;
+    static final byte STROKE_RECT = 2;
+    static final byte DRAWABLE = 3;
+
+    private byte[] types = new byte[64];
+    /**
+     * 4 per command: x1, y1, x2, y2 for lines and x, y, width, height for rectangles.
+     */
+    private double[] coords = new double[256];
+    private double[] widths = new double[64];
+    /**
+     * The paint id for lines and rectangles, the index into {@link #drawables} otherwise.
+     */
+    private int[] refs = new int[64];
+
+    private final List<Paint> paints = new ArrayList<>();
+    private final Map<Paint, Integer> paintIds = new HashMap<>();
+    private Paint lastPaint;
+    private int lastPaintId;
+
+    private final List<Drawable> drawables = new ArrayList<>();
+
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all commands but keeps the allocated memory.
+     */
+    public void clear() {
+        size = 0;
+        paints.clear();
+        paintIds.clear();
+        lastPaint = null;
+        drawables.clear();
+    }
+
+    /**
+     * Adds a solid line with round caps.
+     */
+    public void addLine(double x1, double y1, double x2, double y2, Paint paint, double width) {
+        add(LINE, x1, y1, x2, y2, paint, width);
+    }
+
+    public void addRect(double x, double y, double width, double height, Paint paint, boolean stroked) {
+        add(stroked ? STROKE_RECT : FILL_RECT, x, y, width, height, paint, 1);
+    }
+
+    public void addRect(double x, double y, double width, double height, Paint paint) {
+        addRect(x, y, width, height, paint, false);
+    }
+
+    public void add(Drawable drawable) {
+        Objects.requireNonNull(drawable);
+
+        if (drawable instanceof Rect r) {
+            addRect(r.getX(), r.getY(), r.getWidth(), r.getHeight(), r.getPaint(), r.isStroked());
+        } else if (drawable instanceof Line l && l.getLineDashes() == null && l.getLineCap() == StrokeLineCap.ROUND) {
+            addLine(l.getX1(), l.getY1(), l.getX2(), l.getY2(), l.getPaint(), l.getWidth());
+        } else {
+            ensureCapacity();
+            types[size] = DRAWABLE;
+            refs[size] = drawables.size();
+            drawables.add(drawable);
+            size++;
+        }
+    }
+
+    public void addAll(Collection<? extends Drawable> drawables) {
+        for (Drawable d : drawables) {
+            add(d);
+        }
+    }
+
+    /**
+     * Creates {@link Drawable Drawables} for all commands, for callers that need objects.
+     */
+    public List<Drawable> toDrawables() {
+        List<Drawable> l = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            int c = i * 4;
+
+            l.add(switch (types[i]) {
+                case LINE -> new Line(coords[c], coords[c + 1], coords[c + 2], coords[c + 3],
+                        getPaint(i), widths[i]);
+                case FILL_RECT, STROKE_RECT -> new Rect(coords[c], coords[c + 1], coords[c + 2], coords[c + 3],
+                        getPaint(i), types[i] == STROKE_RECT);
+                default -> drawables.get(refs[i]);
+            });
+        }
+
+        return l;
+    }
+
+    private void add(byte type, double c1, double c2, double c3, double c4, Paint paint, double width) {
+        ensureCapacity();
+
+        int c = size * 4;
+        types[size] = type;
+        coords[c] = c1;
+        coords[c + 1] = c2;
+        coords[c + 2] = c3;
+        coords[c + 3] = c4;
+        widths[size] = width;
+        refs[size] = getPaintId(paint);
+        size++;
+    }
+
+    private int getPaintId(Paint paint) {
+        // Consecutive commands mostly share their paint, which saves the lookup.
+        if (paint != lastPaint || lastPaint == null) {
+            lastPaintId = paintIds.computeIfAbsent(paint, p -> {
+                paints.add(p);
+                return paints.size() - 1;
+            });
+            lastPaint = paint;
+        }
+
+        return lastPaintId;
+    }
+
+    private void ensureCapacity() {
+        if (size == types.length) {
+            int n = types.length * 2;
+            types = Arrays.copyOf(types, n);
+            coords = Arrays.copyOf(coords, n * 4);
+            widths = Arrays.copyOf(widths, n);
+            refs = Arrays.copyOf(refs, n);
+        }
+    }
+
+    byte getType(int i) {
+        Preconditions.checkIndex(i, size);
+        return types[i];
+    }
+
+    /**
+     * @param j The index of the coordinate within the command, see {@link #coords}.
+     */
+    double getCoord(int i, int j) {
+        return coords[i * 4 + j];
+    }
+
+    double getWidth(int i) {
+        return widths[i];
+    }
+
+    /**
+     * The id of the paint of the line or rectangle at the given index. Equal ids denote equal paints.
+     */
+    int getPaintId(int i) {
+        return refs[i];
+    }
+
+    Paint getPaint(int i) {
+        return paints.get(refs[i]);
+    }
+
+    Drawable getDrawable(int i) {
+        return drawables.get(refs[i]);
+    }
+}
@@ -1,5 +1,7 @@
 package charting.gui.chart;
 
+import javafx.util.Subscription;
+
 import java.util.List;
 
 /**
@@ -9,6 +11,47 @@ public interface Drawing {
     /**
      * Provides the list of {@link Drawable drawables} for this {@link Drawing}.
      * {@link Drawable} coordinates are based on the viewport.
+     * <p>
+     * Implementations must override this method or {@link #draw(DrawingContext, DrawableBuffer)}.
+     * The default implementation collects the drawables written by the latter.
+     */
+    default List<? extends Drawable> getDrawables(DrawingContext drawingContext) {
+        DrawableBuffer buffer = new DrawableBuffer();
+        draw(drawingContext, buffer);
+        return buffer.toDrawables();
+    }
+
+    /**
+     * Writes the drawables of this {@link Drawing} into the given buffer, which is how the {@link Chart} draws it.
+     * Drawings with many drawables should override this method to avoid allocating objects for each of them.
+     * The default implementation adds the result of {@link #getDrawables(DrawingContext)}.
+     * <p>
+     * Drawings on the {@link ChartLayer#DATA data layer} are drawn on a background thread while holding the
+     * {@link charting.timeline.TimelineLock}, so they must not access the scene graph here. Drawings on the other
+     * layers are drawn on the FX application thread without it, so they must not read timelines.
+     */
+    default void draw(DrawingContext drawingContext, DrawableBuffer buffer) {
+        buffer.addAll(getDrawables(drawingContext));
+    }
+
+    /**
+     * Registers a listener which is called whenever the drawables or the legend of this drawing may have changed,
+     * e.g. because a property or the underlying data changed. The {@link Chart} only redraws after such a change
+     * or a change of its viewport. The listener may be called on any thread.
+     * <p>
+     * The default implementation is for drawings that never change and doesn't call the listener at all.
+     *
+     * @see Invalidation
+     */
+    default Subscription subscribe(Runnable invalidationListener) {
+        return Subscription.EMPTY;
+    }
+
+    /**
+     * The layer this drawing is drawn on. Drawings that may change their layer must invalidate themselves
+     * when doing so.
      */
-    List<? extends Drawable> getDrawables(DrawingContext drawingContext);
+    default ChartLayer getLayer() {
+        return ChartLayer.DATA;
+    }
 }
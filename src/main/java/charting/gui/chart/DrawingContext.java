@@ -8,10 +8,16 @@ import charting.util.Range2D;
 public final class DrawingContext {
     private final Range2D viewport;
     private final Range2D canvasBounds;
+    private final boolean reducedQuality;
 
     public DrawingContext(Range2D viewport, double canvasWidth, double canvasHeight) {
+        this(viewport, canvasWidth, canvasHeight, false);
+    }
+
+    public DrawingContext(Range2D viewport, double canvasWidth, double canvasHeight, boolean reducedQuality) {
         this.viewport = viewport;
         this.canvasBounds = new Range2D(0, 0, canvasWidth, canvasHeight);
+        this.reducedQuality = reducedQuality;
     }
 
     public Range2D getViewport() {
@@ -26,6 +32,14 @@ public final class DrawingContext {
         return canvasBounds.getHeight();
     }
 
+    /**
+     * Whether a quick frame is drawn while the user pans or zooms, which is refined afterwards.
+     * Drawings may simplify their drawables then.
+     */
+    public boolean isReducedQuality() {
+        return reducedQuality;
+    }
+
     public double toViewportX(double canvasX) {
         return canvasBounds.toTargetX(canvasX, viewport);
     }
@@ -0,0 +1,170 @@
+package charting.gui.chart;
+
+import charting.timeline.TimelineLock;
+import javafx.animation.AnimationTimer;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Redraws all {@link Chart Charts} with a single {@link AnimationTimer}, so that many charts in a scene don't
+ * compete for the pulses. On every pulse the invalidated charts are redrawn, the hovered ones first and then those
+ * which waited the longest, until the pulse's time budget is used up. The remaining charts are redrawn on the next
+ * pulse. Charts which aren't rendered, e.g. because they are hidden, are not scheduled at all.
+ * <p>
+ * The data layers of the charts are prepared one after another on a single thread, since they read timelines
+ * while holding the {@link TimelineLock}.
+ */
+public final class FrameScheduler {
+    private static final FrameScheduler DEFAULT = new FrameScheduler();
+
+    /**
+     * The time of a pulse that may be spent on redrawing charts, after which further charts are deferred.
+     */
+    private static final long PULSE_BUDGET_NANOS = 8_000_000L;
+
+    private final ThreadPoolExecutor prepareExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(), r -> {
+        Thread t = new Thread(r, "chart-prepare");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong prepareSequence = new AtomicLong();
+
+    /**
+     * The clock which measures the time spent in a pulse.
+     */
+    private final LongSupplier nanoTime;
+
+    /**
+     * The charts to redraw on the next pulse, only accessed on the FX application thread.
+     */
+    private final Set<Client> scheduled = new LinkedHashSet<>();
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long timestamp) {
+            onPulse(timestamp);
+        }
+    };
+
+    FrameScheduler() {
+        this(System::nanoTime);
+    }
+
+    FrameScheduler(LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    public static FrameScheduler getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Redraws the chart on the next pulses until {@link Client#redraw(long)} returns false.
+     * Must be called on the FX application thread.
+     */
+    void schedule(Client client) {
+        scheduled.add(client);
+        timer.start();
+    }
+
+    void unschedule(Client client) {
+        scheduled.remove(client);
+    }
+
+    /**
+     * Runs the task on the prepare thread. Prioritized tasks run first, otherwise in the order of submission.
+     */
+    void prepare(Runnable task, boolean prioritized) {
+        prepareExecutor.execute(new PrepareTask(task, prioritized, prepareSequence.getAndIncrement()));
+    }
+
+    /**
+     * Calculates a value from timelines on the prepare thread while holding the {@link TimelineLock}, e.g. the value
+     * range of a drawing, so that the FX application thread doesn't wait for a frame which is being prepared.
+     *
+     * @return A future of the value, which completes on the prepare thread.
+     */
+    public <T> CompletableFuture<T> calculate(Supplier<? extends T> calculation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        prepare(() -> {
+            try {
+                result.complete(TimelineLock.get(calculation));
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        }, false);
+
+        return result;
+    }
+
+    /**
+     * Redraws the scheduled charts, called by the timer on every pulse.
+     */
+    void onPulse(long timestamp) {
+        if (scheduled.isEmpty()) {
+            timer.stop();
+            return;
+        }
+
+        List<Client> clients = new ArrayList<>(scheduled);
+        scheduled.clear();
+
+        clients.sort(Comparator.comparing((Client c) -> !c.isPrioritized())
+                .thenComparingLong(Client::getLastRedraw));
+
+        long start = nanoTime.getAsLong();
+
+        for (Client c : clients) {
+            if (nanoTime.getAsLong() - start > PULSE_BUDGET_NANOS || c.redraw(timestamp)) {
+                scheduled.add(c);
+            }
+        }
+    }
+
+    /**
+     * A chart as seen by the scheduler.
+     */
+    interface Client {
+        /**
+         * Whether the chart is redrawn before others.
+         */
+        boolean isPrioritized();
+
+        /**
+         * The timestamp of the pulse of the last redraw.
+         */
+        long getLastRedraw();
+
+        /**
+         * @return Whether the chart needs to be redrawn on the next pulse as well.
+         */
+        boolean redraw(long timestamp);
+    }
+
+    private record PrepareTask(Runnable task, boolean prioritized, long sequence)
+            implements Runnable, Comparable<PrepareTask> {
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public int compareTo(PrepareTask o) {
+            if (prioritized != o.prioritized) {
+                return prioritized ? -1 : 1;
+            }
+
+            return Long.compare(sequence, o.sequence);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package charting.gui.chart;
+
+import charting.timeline.Timeline;
+import charting.timeline.TimelineRangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.util.Subscription;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Helpers to implement {@link Drawing#subscribe(Runnable)}.
+ */
+public final class Invalidation {
+    private Invalidation() {
+    }
+
+    /**
+     * Calls the listener whenever one of the values changes.
+     */
+    public static Subscription of(Runnable listener, ObservableValue<?>... values) {
+        Subscription s = Subscription.EMPTY;
+
+        for (ObservableValue<?> v : values) {
+            s = s.and(v.subscribe((oldVal, newVal) -> listener.run()));
+        }
+
+        return s;
+    }
+
+    /**
+     * Calls the listener whenever the value changes and keeps a subscription to the current value,
+     * which is created by the given subscriber.
+     */
+    public static <T> Subscription of(Runnable listener, ObservableValue<T> value,
+                                      Function<? super T, Subscription> subscriber) {
+        Subscription[] current = {Subscription.EMPTY};
+
+        Subscription s = value.subscribe((oldVal, newVal) -> {
+            current[0].unsubscribe();
+            current[0] = newVal == null ? Subscription.EMPTY : subscriber.apply(newVal);
+            listener.run();
+        });
+
+        T v = value.getValue();
+        current[0] = v == null ? Subscription.EMPTY : subscriber.apply(v);
+
+        return () -> {
+            s.unsubscribe();
+            current[0].unsubscribe();
+        };
+    }
+
+    /**
+     * Calls the listener whenever the current timeline changes or one of its elements is updated.
+     * The listener may be called on any thread that modifies the timeline.
+     */
+    public static Subscription ofTimeline(Runnable listener, ObservableValue<? extends Timeline<?>> timeline) {
+        return of(listener, timeline, t -> ofTimeline(listener, t));
+    }
+
+    /**
+     * Calls the listener whenever one of the timeline's elements is updated.
+     * The listener may be called on any thread that modifies the timeline.
+     */
+    public static Subscription ofTimeline(Runnable listener, Timeline<?> timeline) {
+        TimelineRangeListener<Object> l = new TimelineRangeListener<>() {
+            @Override
+            public void onUpdate(Instant instant, Object newValue) {
+                listener.run();
+            }
+
+            @Override
+            public void onRangeUpdate(int from, int to) {
+                listener.run();
+            }
+        };
+
+        // Weak, so that a chart which is never disposed doesn't keep the timeline's listeners alive.
+        // The subscription holds the strong reference.
+        timeline.addWeakListener(l);
+        return () -> timeline.removeListener(l);
+    }
+
+    /**
+     * Calls the listener whenever the current drawings change or one of them is invalidated.
+     */
+    public static Subscription ofDrawings(Runnable listener,
+                                          ObservableValue<? extends Collection<? extends Drawing>> drawings) {
+        return of(listener, drawings, d -> ofDrawings(listener, d));
+    }
+
+    /**
+     * Calls the listener whenever one of the drawings is invalidated.
+     */
+    public static Subscription ofDrawings(Runnable listener, Collection<? extends Drawing> drawings) {
+        Subscription s = Subscription.EMPTY;
+
+        for (Drawing d : drawings) {
+            if (d != null) {
+                s = s.and(d.subscribe(listener));
+            }
+        }
+
+        return s;
+    }
+}
@@ -0,0 +1,99 @@
+package charting.gui.chart;
+
+import charting.util.Preconditions;
+import javafx.scene.image.Image;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Rendered tiles by their index, bounded by their size in bytes. The least recently used tiles are evicted first.
+ * All tiles belong to a key, e.g. the zoom level they were rendered for, and are discarded when the key changes.
+ */
+final class TileCache {
+    private final LinkedHashMap<Long, Image> tiles = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long maxBytes;
+    private long bytes;
+
+    private Object key;
+
+    TileCache(long maxBytes) {
+        setMaxBytes(maxBytes);
+    }
+
+    synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * @param maxBytes The maximum size of all tiles, 0 disables the cache.
+     */
+    synchronized void setMaxBytes(long maxBytes) {
+        Preconditions.checkArgument(maxBytes >= 0);
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    synchronized int size() {
+        return tiles.size();
+    }
+
+    /**
+     * Discards all tiles unless the given key equals the key they belong to.
+     */
+    synchronized void validate(Object key) {
+        if (!Objects.equals(this.key, key)) {
+            clear();
+            this.key = key;
+        }
+    }
+
+    synchronized boolean contains(long index) {
+        return tiles.containsKey(index);
+    }
+
+    /**
+     * @return The tile or null if it isn't cached.
+     */
+    synchronized Image get(long index) {
+        return tiles.get(index);
+    }
+
+    /**
+     * Adds the tile unless it was rendered for another key than the current one.
+     */
+    synchronized void put(Object key, long index, Image tile) {
+        if (!Objects.equals(this.key, key)) {
+            return;
+        }
+
+        Image previous = tiles.put(index, tile);
+        bytes += getBytes(tile) - (previous == null ? 0 : getBytes(previous));
+        evict();
+    }
+
+    synchronized void clear() {
+        tiles.clear();
+        bytes = 0;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Long, Image>> it = tiles.entrySet().iterator();
+
+        while (bytes > maxBytes && it.hasNext()) {
+            bytes -= getBytes(it.next().getValue());
+            it.remove();
+        }
+    }
+
+    private static long getBytes(Image image) {
+        return (long) Math.ceil(image.getWidth()) * (long) Math.ceil(image.getHeight()) * 4;
+    }
+}
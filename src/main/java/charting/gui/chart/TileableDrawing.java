@@ -0,0 +1,40 @@
+package charting.gui.chart;
+
+/**
+ * A {@link Drawing} whose historical part may be cached by the {@link Chart} as rendered tiles, which are reused
+ * while panning. Left of {@link #getFinalEndX(DrawingContext)}, the drawables must only depend on the data at
+ * their own x coordinate and must not change unless {@link #getFinalVersion()} changes.
+ * <p>
+ * Only drawings at the beginning of a chart's drawings are cached, so that the drawing order is kept.
+ */
+public interface TileableDrawing extends Drawing {
+    /**
+     * @return The x coordinate up to which the drawables are final for the given context, e.g. the start of the
+     * first candle which is not terminated yet.
+     */
+    double getFinalEndX(DrawingContext context);
+
+    /**
+     * @return A number which changes whenever drawables left of the final end change, e.g. because a property
+     * or the historical data changed.
+     */
+    long getFinalVersion();
+
+    /**
+     * Writes at least the drawables which intersect the x range [startX, endX) into the buffer.
+     */
+    void drawRange(DrawingContext context, DrawableBuffer buffer, double startX, double endX);
+
+    /**
+     * Writes the drawables which don't belong to an x coordinate, e.g. a line across the whole viewport.
+     * They are drawn on top of the range and never cached. The default implementation writes nothing.
+     */
+    default void drawDecorations(DrawingContext context, DrawableBuffer buffer) {
+    }
+
+    @Override
+    default void draw(DrawingContext context, DrawableBuffer buffer) {
+        drawRange(context, buffer, context.getViewport().startX(), context.getViewport().endX());
+        drawDecorations(context, buffer);
+    }
+}
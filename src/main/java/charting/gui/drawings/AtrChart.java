@@ -1,7 +1,7 @@
 package charting.gui.drawings;
 
 import charting.data.Candle;
-import charting.indicators.Atr;
+import charting.indicators.IndicatorRegistry;
 import charting.timeline.Timeline;
 import charting.util.Range;
 import javafx.beans.property.IntegerProperty;
@@ -41,7 +41,7 @@ public class AtrChart extends DelegateLegendDrawing implements TimelineDrawing {
         if (getBase() == null) {
             line.setValues(null);
         } else {
-            line.setValues(new Atr(getBase(), getLength()));
+            line.setValues(IndicatorRegistry.getDefault().atr(getBase(), getLength()));
         }
     }
 
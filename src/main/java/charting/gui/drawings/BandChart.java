@@ -3,8 +3,10 @@ package charting.gui.drawings;
 import charting.gui.chart.ChartLegendString;
 import charting.gui.chart.Drawable;
 import charting.gui.chart.DrawingContext;
+import charting.gui.chart.Invalidation;
 import charting.gui.chart.Polygon;
 import charting.timeline.Timeline;
+import charting.timeline.TimelineCursor;
 import charting.util.MathUtil;
 import charting.util.Range;
 import javafx.beans.property.ObjectProperty;
@@ -12,6 +14,7 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.scene.paint.Color;
+import javafx.util.Subscription;
 
 import java.util.Collections;
 import java.util.List;
@@ -23,6 +26,11 @@ public class BandChart implements TimelineDrawing {
 
     private final StringProperty description = new SimpleStringProperty("");
 
+    private final M4Decimator lowerDecimator = new M4Decimator();
+    private final M4Decimator upperDecimator = new M4Decimator();
+    private double[] lowerValues = new double[0];
+    private double[] upperValues = new double[0];
+
     public Color getColor() {
         return color.get();
     }
@@ -68,22 +76,35 @@ public class BandChart implements TimelineDrawing {
         int from = getStartIndex(context);
         int to = getEndIndex(context);
 
-        int points = (to - from) * 2;
+        if (lowerValues.length < to - from) {
+            lowerValues = new double[Math.max(to - from, lowerValues.length * 2)];
+            upperValues = new double[lowerValues.length];
+        }
+
+        TimelineCursor<? extends Range> c = getValues().cursor(from - 1);
+        while (c.advance() && c.index() < to) {
+            Range r = c.value();
+            lowerValues[c.index() - from] = r.start();
+            upperValues[c.index() - from] = r.end();
+        }
+
+        // Both edges are decimated on their own, so that the polygon has O(pixels) vertices when zoomed out.
+        double indicesPerColumn = M4Decimator.getIndicesPerColumn(context);
+        int lowerPoints = lowerDecimator.decimate(lowerValues, from, to, indicesPerColumn);
+        int upperPoints = upperDecimator.decimate(upperValues, from, to, indicesPerColumn);
+
+        int points = lowerPoints + upperPoints;
         double[] xs = new double[points];
         double[] ys = new double[points];
 
-        var it = getValues().listIterator(from);
-        while (it.nextIndex() < to) {
-            int i = it.nextIndex();
-            Range r = it.next().value();
-
-            int i1 = i - from;
-            int i2 = points - 1 - (i - from);
+        for (int i = 0; i < lowerPoints; i++) {
+            xs[i] = lowerDecimator.getX(i);
+            ys[i] = lowerDecimator.getY(i);
+        }
 
-            xs[i1] = i;
-            xs[i2] = i;
-            ys[i1] = r.start();
-            ys[i2] = r.end();
+        for (int i = 0; i < upperPoints; i++) {
+            xs[points - 1 - i] = upperDecimator.getX(i);
+            ys[points - 1 - i] = upperDecimator.getY(i);
         }
 
         return List.of(new Polygon(xs, ys, getColor()));
@@ -118,4 +139,10 @@ public class BandChart implements TimelineDrawing {
                 (m, v) -> MathUtil.getMinIgnoreNan(m, v.start(), v.end()),
                 (m, v) -> MathUtil.getMaxIgnoreNan(m, v.start(), v.end()));
     }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return Invalidation.of(invalidationListener, color, description)
+                .and(Invalidation.ofTimeline(invalidationListener, values));
+    }
 }
@@ -1,21 +1,20 @@
 package charting.gui.drawings;
 
 import charting.gui.chart.ChartLegendString;
-import charting.gui.chart.Drawable;
+import charting.gui.chart.DrawableBuffer;
 import charting.gui.chart.DrawingContext;
-import charting.gui.chart.Rect;
+import charting.gui.chart.Invalidation;
+import charting.timeline.DoubleTimeline;
 import charting.timeline.Timeline;
-import charting.util.MathUtil;
-import charting.util.Preconditions;
 import charting.util.Range;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.scene.paint.Color;
+import javafx.util.Subscription;
 
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 public class BarChart implements TimelineDrawing {
@@ -32,6 +31,12 @@ public class BarChart implements TimelineDrawing {
 
     private final StringProperty description = new SimpleStringProperty("");
 
+    private final ValueBuffer valueBuffer = new ValueBuffer();
+    /**
+     * Separate from {@link #valueBuffer}, since drawing may happen on another thread.
+     */
+    private final ValueBuffer rangeBuffer = new ValueBuffer();
+
     public BarChart() {
     }
 
@@ -117,29 +122,28 @@ public class BarChart implements TimelineDrawing {
     }
 
     @Override
-    public List<? extends Drawable> getDrawables(DrawingContext context) {
+    public void draw(DrawingContext context, DrawableBuffer buffer) {
         if (getValues() == null) {
-            return Collections.emptyList();
+            return;
         }
 
-        List<Drawable> bars = new LinkedList<>();
+        int start = getStartIndex(context);
+        int end = Math.max(getEndIndex(context), start);
+        double[] values = valueBuffer.fill(getValues(), start, end);
 
         double last = Double.NaN;
 
-        var it = getValues().listIterator(getStartIndex(context));
-        while (it.nextIndex() < getEndIndex(context)) {
-            double current = it.next().value().doubleValue();
+        for (int i = start; i < end; i++) {
+            double current = values[i - start];
 
             if (!Double.isNaN(current)) {
-                double barX = it.previousIndex() - 0.5 + (1 - 0.8) / 2;
+                double barX = i - 0.5 + (1 - 0.8) / 2;
 
-                bars.add(new Rect(barX, 0, 0.8, current, getBarColor(last, current)));
+                buffer.addRect(barX, 0, 0.8, current, getBarColor(last, current));
             }
 
             last = current;
         }
-
-        return bars;
     }
 
     private int getStartIndex(DrawingContext c) {
@@ -173,16 +177,21 @@ public class BarChart implements TimelineDrawing {
         }
 
         int i = (int) (Double.isNaN(x) ? s - 1 : Math.min(Math.max(0, Math.round(x)), s - 1));
-        double last = i == 0 ? Double.NaN : getValues().get(i - 1).value().doubleValue();
-        double current = getValues().get(i).value().doubleValue();
+        double last = i == 0 ? Double.NaN : DoubleTimeline.getDouble(getValues(), i - 1);
+        double current = DoubleTimeline.getDouble(getValues(), i);
 
         return List.of(new ChartLegendString(getDescription(), current, getBarColor(last, current)));
     }
 
     @Override
     public Range getYDrawingRange(double startX, double endX) {
-        return TimelineDrawing.calculateYDrawingRange(startX, endX, getValues(),
-                (m, v) -> MathUtil.getMinIgnoreNan(m, v.doubleValue()),
-                (m, v) -> MathUtil.getMaxIgnoreNan(m, v.doubleValue()));
+        return rangeBuffer.getYDrawingRange(startX, endX, getValues());
+    }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return Invalidation.of(invalidationListener, ascendingPositiveColor, descendingNegativeColor,
+                        descendingPositiveColor, ascendingNegativeColor, description)
+                .and(Invalidation.ofTimeline(invalidationListener, values));
     }
 }
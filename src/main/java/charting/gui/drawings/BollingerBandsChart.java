@@ -2,6 +2,8 @@ package charting.gui.drawings;
 
 import charting.gui.chart.ChartLegendString;
 import charting.indicators.BollingerBands;
+import charting.indicators.IndicatorRegistry;
+import charting.timeline.DoubleMapperTimeline;
 import charting.timeline.MapperTimeline;
 import charting.timeline.Timeline;
 import charting.util.MathUtil;
@@ -62,10 +64,10 @@ public class BollingerBandsChart extends DelegateLegendDrawing implements Timeli
             lowerLine.setValues(null);
             band.setValues(null);
         } else {
-            bollingerBands = new BollingerBands(getBase(), getLength(), 2);
-            maLine.setValues(new MapperTimeline<>(bollingerBands, BollingerBands.Values::ma));
-            upperLine.setValues(new MapperTimeline<>(bollingerBands, BollingerBands.Values::upper));
-            lowerLine.setValues(new MapperTimeline<>(bollingerBands, BollingerBands.Values::lower));
+            bollingerBands = IndicatorRegistry.getDefault().bollingerBands(getBase(), getLength(), 2);
+            maLine.setValues(new DoubleMapperTimeline<>(bollingerBands, BollingerBands.Values::ma));
+            upperLine.setValues(new DoubleMapperTimeline<>(bollingerBands, BollingerBands.Values::upper));
+            lowerLine.setValues(new DoubleMapperTimeline<>(bollingerBands, BollingerBands.Values::lower));
             band.setValues(new MapperTimeline<>(bollingerBands, b -> new Range(b.lower(), b.upper())));
         }
     }
@@ -1,22 +1,25 @@
 package charting.gui.drawings;
 
 import charting.data.Candle;
-import charting.gui.chart.Line;
+import charting.data.CandlePyramid;
 import charting.gui.chart.*;
 import charting.timeline.Timeline;
+import charting.timeline.TimelineRangeListener;
 import charting.util.MathUtil;
 import charting.util.Range;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.paint.Color;
+import javafx.util.Subscription;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class CandleChart implements TimelineDrawing {
+public class CandleChart implements TimelineDrawing, TileableDrawing {
     private final static double BAR_WIDTH = 0.8;
 
     private final ObjectProperty<Timeline<? extends Candle>> candleTimeline = new SimpleObjectProperty<>();
@@ -26,8 +29,43 @@ public class CandleChart implements TimelineDrawing {
 
     private final HorizontalLine priceLine = new HorizontalLine();
 
+    private CandlePyramid pyramid;
+    private double[] buckets = new double[0];
+
+    private final AtomicLong finalVersion = new AtomicLong();
+    /**
+     * The index of the first candle which isn't terminated, as of the last call to {@link #getFinalEndX}.
+     */
+    private volatile int finalEndIndex;
+
+    private final TimelineRangeListener<Candle> finalListener = new TimelineRangeListener<>() {
+        @Override
+        public void onUpdate(Instant instant, Candle newValue) {
+            Timeline<? extends Candle> t = getCandleTimeline();
+            int i = t == null ? 0 : t.indexOf(instant);
+            onCandlesUpdate(i < 0 ? -i - 1 : i);
+        }
+
+        @Override
+        public void onRangeUpdate(int from, int to) {
+            onCandlesUpdate(from);
+        }
+    };
+
     public CandleChart() {
         priceLine.setDashed(true);
+
+        candleTimeline.subscribe((oldVal, newVal) -> {
+            if (oldVal != null) {
+                oldVal.removeListener(finalListener);
+            }
+
+            if (newVal != null) {
+                newVal.addWeakListener(finalListener);
+            }
+        });
+
+        Invalidation.of(finalVersion::incrementAndGet, candleTimeline, bullishColor, bearishColor);
     }
 
     public CandleChart(Timeline<? extends Candle> candleTimeline) {
@@ -82,10 +120,10 @@ public class CandleChart implements TimelineDrawing {
         int i = (int) (Double.isNaN(x) ? s - 1 : Math.min(Math.max(0, Math.round(x)), s - 1));
         Candle c = getCandleTimeline().get(i).value();
 
-        double open = c.getOpen().doubleValue();
-        double high = c.getHigh().doubleValue();
-        double low = c.getLow().doubleValue();
-        double close = c.getClose().doubleValue();
+        double open = c.getOpenDouble();
+        double high = c.getHighDouble();
+        double low = c.getLowDouble();
+        double close = c.getCloseDouble();
 
         Color color = getColor(c);
 
@@ -102,8 +140,8 @@ public class CandleChart implements TimelineDrawing {
 
     private String getAbsDiff(int i) {
         if (i > 0) {
-            double close = getCandleTimeline().get(i).value().getClose().doubleValue();
-            double previousClose = getCandleTimeline().get(i - 1).value().getClose().doubleValue();
+            double close = getCandleTimeline().get(i).value().getCloseDouble();
+            double previousClose = getCandleTimeline().get(i - 1).value().getCloseDouble();
             return NumberFormatUtil.format((close - previousClose));
         }
 
@@ -112,8 +150,8 @@ public class CandleChart implements TimelineDrawing {
 
     private String getPctDiff(int i) {
         if (i > 0) {
-            double close = getCandleTimeline().get(i).value().getClose().doubleValue();
-            double previousClose = getCandleTimeline().get(i - 1).value().getClose().doubleValue();
+            double close = getCandleTimeline().get(i).value().getCloseDouble();
+            double previousClose = getCandleTimeline().get(i - 1).value().getCloseDouble();
             double pctDiff = (close - previousClose) / previousClose * 100;
             return String.format("(%s%s%%)", pctDiff >= 0 ? "+" : "", NumberFormatUtil.format(pctDiff));
         }
@@ -122,71 +160,121 @@ public class CandleChart implements TimelineDrawing {
     }
 
     @Override
-    public List<? extends Drawable> getDrawables(DrawingContext context) {
-        if (getCandleTimeline() == null || getCandleTimeline().isEmpty()) {
-            return Collections.emptyList();
+    public double getFinalEndX(DrawingContext context) {
+        Timeline<? extends Candle> t = getCandleTimeline();
+
+        if (t == null) {
+            return Double.NEGATIVE_INFINITY;
         }
 
-        List<Drawable> drawables = new LinkedList<>();
+        int i = t.size();
+        while (i > 0 && !t.get(i - 1).value().isTerminated()) {
+            i--;
+        }
 
-        var it = getCandleTimeline().listIterator(getStartIndex(context));
-        while (it.nextIndex() < getEndIndex(context)) {
-            int i = it.nextIndex();
-            Candle c = it.next().value();
+        finalEndIndex = i;
 
-            drawables.add(getBody(c, i));
-            drawables.add(getShadow(c, i));
-        }
+        // A merged candle is final only if all of its candles are.
+        int level = CandlePyramid.getLevel(context.getViewport().getWidth() / context.getCanvasWidth());
+        return ((i >> level) << level) - 0.5;
+    }
 
-        adjustPriceLine();
-        drawables.addAll(priceLine.getDrawables(context));
+    @Override
+    public long getFinalVersion() {
+        return finalVersion.get();
+    }
 
-        return drawables;
+    private void onCandlesUpdate(int index) {
+        if (index < finalEndIndex) {
+            finalVersion.incrementAndGet();
+        }
     }
 
-    private int getStartIndex(DrawingContext c) {
-        return (int) Math.min(Math.max(c.getViewport().startX(), 0), getCandleTimeline().size());
+    @Override
+    public void drawRange(DrawingContext context, DrawableBuffer buffer, double startX, double endX) {
+        if (getCandleTimeline() == null || getCandleTimeline().isEmpty()) {
+            return;
+        }
+
+        // Draw merged candles when a candle is narrower than a pixel so that the cost depends on the canvas width.
+        int level = CandlePyramid.getLevel(context.getViewport().getWidth() / context.getCanvasWidth());
+        int start = getStartIndex(startX) >> level;
+        int end = (getEndIndex(endX) + (1 << level) - 1) >> level;
+
+        double[] b = fillBuckets(level, start, end);
+        double width = BAR_WIDTH * (1 << level);
+
+        for (int i = start; i < end; i++) {
+            int j = (i - start) * CandlePyramid.STRIDE;
+            double x = (i << level) + ((1 << level) - 1) / 2.0;
+            double open = b[j + CandlePyramid.OPEN];
+            double close = b[j + CandlePyramid.CLOSE];
+            Color color = open < close ? getBullishColor() : getBearishColor();
+
+            addBody(buffer, x, width, open, close, color);
+            buffer.addLine(x, b[j + CandlePyramid.HIGH], x, b[j + CandlePyramid.LOW], color, 1);
+        }
     }
 
-    private int getEndIndex(DrawingContext c) {
-        return (int) Math.min(c.getViewport().endX() + 2, getCandleTimeline().size());
+    @Override
+    public void drawDecorations(DrawingContext context, DrawableBuffer buffer) {
+        if (getCandleTimeline() == null || getCandleTimeline().isEmpty()) {
+            return;
+        }
+
+        adjustPriceLine();
+        priceLine.draw(context, buffer);
     }
 
-    private Drawable getBody(Candle c, int i) {
-        double open = c.getOpen().doubleValue();
-        double close = c.getClose().doubleValue();
+    private int getStartIndex(double startX) {
+        return (int) Math.min(Math.max(startX - 0.5, 0), getCandleTimeline().size());
+    }
 
-        double bodyX = i - 0.5 + (1 - BAR_WIDTH) / 2;
+    private int getEndIndex(double endX) {
+        return (int) Math.min(Math.max(endX + 2, 0), getCandleTimeline().size());
+    }
 
-        if (open == close) {
-            return new Line(bodyX, open, bodyX + BAR_WIDTH, open, getColor(c), 1);
+    private double[] fillBuckets(int level, int start, int end) {
+        if (pyramid == null || pyramid.getCandles() != getCandleTimeline()) {
+            pyramid = CandlePyramid.of(getCandleTimeline());
         }
 
-        double top = Math.max(open, close);
-        double bottom = Math.min(open, close);
-        return new Rect(bodyX, bottom, BAR_WIDTH, top - bottom, getColor(c));
+        buckets = pyramid.copyRange(level, start, end, buckets);
+        return buckets;
     }
 
-    private Line getShadow(Candle c, int i) {
-        double bodyX = i - 0.5 + (1 - BAR_WIDTH) / 2;
-        double shadowX = bodyX + BAR_WIDTH / 2;
-        return new Line(shadowX, c.getHigh().doubleValue(), shadowX, c.getLow().doubleValue(), getColor(c));
+    private void addBody(DrawableBuffer buffer, double x, double width, double open, double close, Color color) {
+        double bodyX = x - width / 2;
+
+        if (open == close) {
+            buffer.addLine(bodyX, open, bodyX + width, open, color, 1);
+        } else {
+            double top = Math.max(open, close);
+            double bottom = Math.min(open, close);
+            buffer.addRect(bodyX, bottom, width, top - bottom, color);
+        }
     }
 
     private void adjustPriceLine() {
         Candle c = getCandleTimeline().last().value();
         priceLine.setColor(getColor(c));
-        priceLine.setY(c.getClose().doubleValue());
+        priceLine.setY(c.getCloseDouble());
     }
 
     private Color getColor(Candle c) {
-        return c.getOpen().doubleValue() < c.getClose().doubleValue() ? getBullishColor() : getBearishColor();
+        return c.getOpenDouble() < c.getCloseDouble() ? getBullishColor() : getBearishColor();
     }
 
     @Override
     public Range getYDrawingRange(double startX, double endX) {
         return TimelineDrawing.calculateYDrawingRange(startX, endX, getCandleTimeline(),
-                (m, c) -> MathUtil.getMinIgnoreNan(m, c.getLow().doubleValue()),
-                (m, c) -> MathUtil.getMaxIgnoreNan(m, c.getHigh().doubleValue()));
+                (m, c) -> MathUtil.getMinIgnoreNan(m, c.getLowDouble()),
+                (m, c) -> MathUtil.getMaxIgnoreNan(m, c.getHighDouble()));
+    }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return Invalidation.of(invalidationListener, bullishColor, bearishColor)
+                .and(Invalidation.ofTimeline(invalidationListener, candleTimeline));
     }
-}
\ No newline at end of file
+}
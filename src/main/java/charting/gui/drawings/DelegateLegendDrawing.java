@@ -1,11 +1,13 @@
 package charting.gui.drawings;
 
 import charting.gui.chart.ChartLegendString;
-import charting.gui.chart.Drawable;
+import charting.gui.chart.DrawableBuffer;
 import charting.gui.chart.DrawingContext;
+import charting.gui.chart.Invalidation;
 import charting.gui.chart.LegendDrawing;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.util.Subscription;
 
 import java.util.*;
 
@@ -43,18 +45,14 @@ public abstract class DelegateLegendDrawing implements LegendDrawing {
     }
 
     @Override
-    public List<Drawable> getDrawables(DrawingContext drawingContext) {
+    public void draw(DrawingContext drawingContext, DrawableBuffer buffer) {
         if (getDelegates() == null) {
-            return Collections.emptyList();
+            return;
         }
 
-        List<Drawable> drawables = new LinkedList<>();
-
         for (LegendDrawing d : getDelegates()) {
-            drawables.addAll(d.getDrawables(drawingContext));
+            d.draw(drawingContext, buffer);
         }
-
-        return drawables;
     }
 
     @Override
@@ -71,4 +69,9 @@ public abstract class DelegateLegendDrawing implements LegendDrawing {
 
         return strings;
     }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return Invalidation.ofDrawings(invalidationListener, delegates);
+    }
 }
@@ -1,6 +1,6 @@
 package charting.gui.drawings;
 
-import charting.indicators.Ema;
+import charting.indicators.IndicatorRegistry;
 import charting.timeline.Timeline;
 import charting.util.Range;
 import javafx.beans.property.IntegerProperty;
@@ -10,6 +10,11 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.paint.Color;
 
 public class EmaChart extends DelegateLegendDrawing implements TimelineDrawing {
+    /**
+     * Seeding an EMA this many times its length before the first accessed value makes the error negligible.
+     */
+    private static final int LOOKBACK_PERIODS = 20;
+
     private final LineChart line = new LineChart();
 
     private final IntegerProperty length = new SimpleIntegerProperty(10);
@@ -40,7 +45,7 @@ public class EmaChart extends DelegateLegendDrawing implements TimelineDrawing {
         if (getBase() == null) {
             line.setValues(null);
         } else {
-            line.setValues(new Ema(getBase(), getLength()));
+            line.setValues(IndicatorRegistry.getDefault().ema(getBase(), getLength(), LOOKBACK_PERIODS * getLength()));
         }
     }
 
@@ -3,10 +3,12 @@ package charting.gui.drawings;
 import charting.gui.chart.Drawable;
 import charting.gui.chart.Drawing;
 import charting.gui.chart.DrawingContext;
+import charting.gui.chart.Invalidation;
 import charting.gui.chart.Line;
 import javafx.beans.property.*;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.StrokeLineCap;
+import javafx.util.Subscription;
 
 import java.util.Collections;
 import java.util.List;
@@ -77,4 +79,9 @@ public class HorizontalLine implements Drawing {
 
         return List.of(line);
     }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return Invalidation.of(invalidationListener, y, color, dashed);
+    }
 }
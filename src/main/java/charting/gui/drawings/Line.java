@@ -3,11 +3,13 @@ package charting.gui.drawings;
 import charting.gui.chart.Drawable;
 import charting.gui.chart.Drawing;
 import charting.gui.chart.DrawingContext;
+import charting.gui.chart.Invalidation;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.paint.Color;
+import javafx.util.Subscription;
 
 import java.util.Collections;
 import java.util.List;
@@ -99,4 +101,9 @@ public class Line implements Drawing {
 
         return List.of(new charting.gui.chart.Line(getStartX(), getStartY(), getEndX(), getEndY(), getColor()));
     }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return Invalidation.of(invalidationListener, startX, startY, endX, endY, color);
+    }
 }
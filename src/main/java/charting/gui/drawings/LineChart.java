@@ -1,19 +1,20 @@
 package charting.gui.drawings;
 
 import charting.gui.chart.ChartLegendString;
+import charting.gui.chart.DrawableBuffer;
 import charting.gui.chart.DrawingContext;
-import charting.gui.chart.Line;
+import charting.gui.chart.Invalidation;
+import charting.timeline.DoubleTimeline;
 import charting.timeline.Timeline;
-import charting.util.MathUtil;
 import charting.util.Range;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.scene.paint.Color;
+import javafx.util.Subscription;
 
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 public class LineChart implements TimelineDrawing {
@@ -23,6 +24,14 @@ public class LineChart implements TimelineDrawing {
 
     private final StringProperty description = new SimpleStringProperty("");
 
+    private final ValueBuffer valueBuffer = new ValueBuffer();
+    /**
+     * Separate from {@link #valueBuffer}, since drawing may happen on another thread.
+     */
+    private final ValueBuffer rangeBuffer = new ValueBuffer();
+
+    private final M4Decimator decimator = new M4Decimator();
+
     public LineChart() {
     }
 
@@ -80,39 +89,37 @@ public class LineChart implements TimelineDrawing {
         }
 
         int i = (int) (Double.isNaN(x) ? s - 1 : Math.min(Math.max(0, Math.round(x)), s - 1));
-        double v = getValues().get(i).value().doubleValue();
+        double v = DoubleTimeline.getDouble(getValues(), i);
 
         return List.of(new ChartLegendString(getDescription(), v, getColor()));
     }
 
     @Override
-    public List<Line> getDrawables(DrawingContext context) {
+    public void draw(DrawingContext context, DrawableBuffer buffer) {
         if (getValues() == null) {
-            return Collections.emptyList();
+            return;
         }
 
-        List<Line> lines = new LinkedList<>();
+        int start = getStartIndex(context);
+        int end = Math.max(getEndIndex(context), start);
+        double[] values = valueBuffer.fill(getValues(), start, end);
+        int points = decimator.decimate(values, start, end, M4Decimator.getIndicesPerColumn(context));
 
-        Number last = null;
+        Color color = getColor();
+        double lastX = points > 0 ? decimator.getX(0) - 1 : 0;
+        double lastY = points > 0 ? decimator.getY(0) : Double.NaN;
 
-        var it = getValues().listIterator(getStartIndex(context));
-        while (it.nextIndex() < getEndIndex(context)) {
-            int i = it.nextIndex();
-            Number current = it.next().value();
-
-            if (last == null) {
-                last = current;
-            }
+        for (int i = 0; i < points; i++) {
+            double x = decimator.getX(i);
+            double y = decimator.getY(i);
 
-            if (!Double.isNaN(last.doubleValue()) && !Double.isNaN(current.doubleValue())) {
-                lines.add(new Line(i - 1, last.doubleValue(), i, current.doubleValue(),
-                        getColor(), 1.25));
+            if (!Double.isNaN(lastY) && !Double.isNaN(y)) {
+                buffer.addLine(lastX, lastY, x, y, color, 1.25);
             }
 
-            last = current;
+            lastX = x;
+            lastY = y;
         }
-
-        return lines;
     }
 
     private int getStartIndex(DrawingContext c) {
@@ -125,8 +132,12 @@ public class LineChart implements TimelineDrawing {
 
     @Override
     public Range getYDrawingRange(double startX, double endX) {
-        return TimelineDrawing.calculateYDrawingRange(startX, endX, getValues(),
-                (m, v) -> MathUtil.getMinIgnoreNan(m, v.doubleValue()),
-                (m, v) -> MathUtil.getMaxIgnoreNan(m, v.doubleValue()));
+        return rangeBuffer.getYDrawingRange(startX, endX, getValues());
+    }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return Invalidation.of(invalidationListener, color, description)
+                .and(Invalidation.ofTimeline(invalidationListener, values));
     }
 }
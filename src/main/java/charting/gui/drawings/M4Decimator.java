@@ -0,0 +1,140 @@
+package charting.gui.drawings;
+
+import charting.gui.chart.DrawingContext;
+import charting.util.Preconditions;
+
+/**
+ * Reduces a polyline through consecutive values to at most four points per pixel column: the first, the lowest,
+ * the highest and the last value of the column. Such a polyline covers the same pixels as the full one, but its
+ * size only depends on the number of pixels.
+ * <p>
+ * NaN values break the polyline, just like when drawing it without decimation. Instances are reusable.
+ */
+final class M4Decimator {
+    /**
+     * The width of a column in pixels in frames of reduced quality.
+     */
+    private static final int REDUCED_QUALITY_COLUMN_WIDTH = 3;
+
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private int size;
+
+    /**
+     * Decimates the values where {@code values[i]} belongs to the index {@code from + i}.
+     * If there is at most one value per pixel column, all values are kept.
+     *
+     * @param indicesPerColumn The number of indices per column, usually per pixel.
+     * @return The number of points. A point with a NaN y value separates two parts of the polyline.
+     */
+    int decimate(double[] values, int from, int to, double indicesPerColumn) {
+        Preconditions.checkArgument(from <= to);
+        ensureCapacity(to - from);
+        size = 0;
+
+        if (!(indicesPerColumn > 1)) {
+            for (int i = from; i < to; i++) {
+                add(i, values[i - from]);
+            }
+
+            return size;
+        }
+
+        long bucket = 0;
+        int first = -1;
+        int min = -1;
+        int max = -1;
+        int last = -1;
+
+        for (int i = from; i < to; i++) {
+            double v = values[i - from];
+
+            if (Double.isNaN(v)) {
+                if (first >= 0) {
+                    flush(values, from, first, min, max, last);
+                    first = -1;
+                }
+
+                if (size > 0 && !Double.isNaN(ys[size - 1])) {
+                    add(i, Double.NaN);
+                }
+
+                continue;
+            }
+
+            long b = (long) Math.floor(i / indicesPerColumn);
+
+            if (first >= 0 && b != bucket) {
+                flush(values, from, first, min, max, last);
+                first = -1;
+            }
+
+            if (first < 0) {
+                bucket = b;
+                first = min = max = i;
+            } else if (v < values[min - from]) {
+                min = i;
+            } else if (v > values[max - from]) {
+                max = i;
+            }
+
+            last = i;
+        }
+
+        if (first >= 0) {
+            flush(values, from, first, min, max, last);
+        }
+
+        return size;
+    }
+
+    /**
+     * @return The number of indices per column to decimate to, which are wider than a pixel in frames of
+     * reduced quality.
+     */
+    static double getIndicesPerColumn(DrawingContext context) {
+        double indicesPerPixel = context.getViewport().getWidth() / context.getCanvasWidth();
+        return context.isReducedQuality() ? indicesPerPixel * REDUCED_QUALITY_COLUMN_WIDTH : indicesPerPixel;
+    }
+
+    double getX(int i) {
+        Preconditions.checkIndex(i, size);
+        return xs[i];
+    }
+
+    double getY(int i) {
+        Preconditions.checkIndex(i, size);
+        return ys[i];
+    }
+
+    private void flush(double[] values, int from, int first, int min, int max, int last) {
+        addIndex(values, from, first);
+        addIndex(values, from, Math.min(min, max));
+        addIndex(values, from, Math.max(min, max));
+        addIndex(values, from, last);
+    }
+
+    /**
+     * Adds the point at the given index unless it is the last point already.
+     */
+    private void addIndex(double[] values, int from, int i) {
+        if (size == 0 || xs[size - 1] != i) {
+            add(i, values[i - from]);
+        }
+    }
+
+    private void add(double x, double y) {
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+    }
+
+    private void ensureCapacity(int n) {
+        // Every value adds at most one point.
+        if (xs.length < n) {
+            int c = Math.max(n, xs.length * 2);
+            xs = new double[c];
+            ys = new double[c];
+        }
+    }
+}
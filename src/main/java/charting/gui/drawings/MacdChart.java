@@ -1,7 +1,8 @@
 package charting.gui.drawings;
 
+import charting.indicators.IndicatorRegistry;
 import charting.indicators.Macd;
-import charting.timeline.MapperTimeline;
+import charting.timeline.DoubleMapperTimeline;
 import charting.timeline.Timeline;
 import charting.util.MathUtil;
 import charting.util.Range;
@@ -41,10 +42,10 @@ public class MacdChart extends DelegateLegendDrawing implements TimelineDrawing
             macdLine.setValues(null);
             signalLine.setValues(null);
         } else {
-            macd = new Macd(getBase());
-            histogram.setValues(new MapperTimeline<>(macd, Macd.Values::histogram));
-            macdLine.setValues(new MapperTimeline<>(macd, Macd.Values::macd));
-            signalLine.setValues(new MapperTimeline<>(macd, Macd.Values::signal));
+            macd = IndicatorRegistry.getDefault().macd(getBase());
+            histogram.setValues(new DoubleMapperTimeline<>(macd, Macd.Values::histogram));
+            macdLine.setValues(new DoubleMapperTimeline<>(macd, Macd.Values::macd));
+            signalLine.setValues(new DoubleMapperTimeline<>(macd, Macd.Values::signal));
         }
     }
 
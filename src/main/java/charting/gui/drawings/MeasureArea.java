@@ -12,6 +12,7 @@ import javafx.geometry.VPos;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
+import javafx.util.Subscription;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -208,4 +209,9 @@ public class MeasureArea implements Drawing {
         return getColor().deriveColor(
                 0, 1, 1, 0.25);
     }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return Invalidation.of(invalidationListener, startX, startY, endX, endY, bullishColor, bearishColor);
+    }
 }
@@ -1,6 +1,6 @@
 package charting.gui.drawings;
 
-import charting.indicators.Sma;
+import charting.indicators.IndicatorRegistry;
 import charting.timeline.Timeline;
 import charting.util.Range;
 import javafx.beans.property.IntegerProperty;
@@ -40,7 +40,7 @@ public class SmaChart extends DelegateLegendDrawing implements TimelineDrawing {
         if (getBase() == null) {
             line.setValues(null);
         } else {
-            line.setValues(new Sma(getBase(), getLength()));
+            line.setValues(IndicatorRegistry.getDefault().sma(getBase(), getLength()));
         }
     }
 
@@ -2,6 +2,7 @@ package charting.gui.drawings;
 
 import charting.gui.chart.LegendDrawing;
 import charting.timeline.Timeline;
+import charting.timeline.TimelineCursor;
 import charting.util.Preconditions;
 import charting.util.Range;
 
@@ -25,9 +26,9 @@ public interface TimelineDrawing extends LegendDrawing {
         if (timeline != null) {
             startX = Math.min(Math.max(0, startX), timeline.size());
 
-            var it = timeline.listIterator((int) startX);
-            while (it.hasNext() && it.nextIndex() < endX) {
-                T t = it.next().value();
+            TimelineCursor<? extends T> c = timeline.cursor((int) startX - 1);
+            while (c.advance() && c.index() < endX) {
+                T t = c.value();
                 minY = minAccumulator.applyAsDouble(minY, t);
                 maxY = maxAccumulator.applyAsDouble(maxY, t);
             }
@@ -0,0 +1,59 @@
+package charting.gui.drawings;
+
+import charting.timeline.DoubleTimeline;
+import charting.timeline.Timeline;
+import charting.util.Preconditions;
+import charting.util.Range;
+
+/**
+ * A reusable buffer for the values of a numeric {@link Timeline} so that drawing them does not box every value.
+ */
+final class ValueBuffer {
+    private double[] values = new double[0];
+
+    /**
+     * Copies the values in the index range [from, to) of the given timeline into this buffer.
+     *
+     * @return The buffer where the value at index i is stored at position i - from.
+     */
+    double[] fill(Timeline<? extends Number> timeline, int from, int to) {
+        if (values.length < to - from) {
+            values = new double[Math.max(to - from, values.length * 2)];
+        }
+
+        DoubleTimeline.copyRange(timeline, from, to, values);
+        return values;
+    }
+
+    /**
+     * Works like {@link TimelineDrawing#calculateYDrawingRange} with accumulators that ignore NaN values.
+     */
+    Range getYDrawingRange(double startX, double endX, Timeline<? extends Number> timeline) {
+        Preconditions.checkArgument(startX <= endX);
+
+        if (timeline == null) {
+            return new Range(Double.NaN, Double.NaN);
+        }
+
+        int from = (int) Math.min(Math.max(0, startX), timeline.size());
+        int to = (int) Math.min(Math.max(from, Math.ceil(endX)), timeline.size());
+
+        if (from == to) {
+            return new Range(Double.NaN, Double.NaN);
+        }
+
+        double[] v = fill(timeline, from, to);
+
+        double minY = Double.POSITIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < to - from; i++) {
+            if (!Double.isNaN(v[i])) {
+                minY = Math.min(minY, v[i]);
+                maxY = Math.max(maxY, v[i]);
+            }
+        }
+
+        return new Range(minY, maxY);
+    }
+}
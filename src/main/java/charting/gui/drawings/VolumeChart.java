@@ -1,19 +1,18 @@
 package charting.gui.drawings;
 
 import charting.data.Candle;
+import charting.data.CandlePyramid;
 import charting.gui.chart.*;
 import charting.timeline.Timeline;
-import charting.timeline.Timestamped;
 import charting.util.MathUtil;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.paint.Color;
+import javafx.util.Subscription;
 
 import java.math.BigDecimal;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 
 public class VolumeChart implements LegendDrawing {
     private final static double BAR_WIDTH = 0.8;
@@ -24,6 +23,9 @@ public class VolumeChart implements LegendDrawing {
     private final ObjectProperty<Color> bullishColor = new SimpleObjectProperty<>(Color.GREEN);
     private final ObjectProperty<Color> bearishColor = new SimpleObjectProperty<>(Color.RED);
 
+    private CandlePyramid pyramid;
+    private double[] buckets = new double[0];
+
     public VolumeChart() {
     }
 
@@ -78,36 +80,40 @@ public class VolumeChart implements LegendDrawing {
         int i = (int) (Double.isNaN(x) ? s - 1 : Math.min(Math.max(0, Math.round(x)), s - 1));
         Candle c = getCandleTimeline().get(i).value();
 
-        double volume = c.getVolume().doubleValue();
+        double volume = c.getVolumeDouble();
 
         return List.of(new ChartLegendString("Vol: ", volume, getColor(c)));
     }
 
     @Override
-    public List<? extends Drawable> getDrawables(DrawingContext context) {
+    public void draw(DrawingContext context, DrawableBuffer buffer) {
         if (getCandleTimeline() == null) {
-            return Collections.emptyList();
+            return;
         }
 
-        List<Rect> bars = new LinkedList<>();
+        // Draw merged bars when a bar is narrower than a pixel so that the cost depends on the canvas width.
+        int level = CandlePyramid.getLevel(context.getViewport().getWidth() / context.getCanvasWidth());
+        int start = getStartIndex(context) >> level;
+        int end = (getEndIndex(context) + (1 << level) - 1) >> level;
 
-        int s = getStartIndex(context);
-        int e = getEndIndex(context);
-
-        double highestVolume = getHighestVolume(s, e);
+        double[] b = fillBuckets(level, start, end);
+        double highestVolume = getHighestVolume(b, end - start);
         double heightSection = context.getViewport().getHeight() * HEIGHT_PERCENTAGE;
+        double width = BAR_WIDTH * (1 << level);
+
+        Color bullishBarColor = getBarColor(getBullishColor());
+        Color bearishBarColor = getBarColor(getBearishColor());
 
-        var it = getCandleTimeline().listIterator(s);
-        while (it.nextIndex() < e) {
-            Candle candle = it.next().value();
-            double volume = candle.getVolume().doubleValue();
-            double barX = it.previousIndex() - 0.5 + (1 - BAR_WIDTH) / 2;
+        for (int i = start; i < end; i++) {
+            int j = (i - start) * CandlePyramid.STRIDE;
+            double volume = b[j + CandlePyramid.VOLUME];
+            double barX = (i << level) + ((1 << level) - 1) / 2.0 - width / 2;
             double height = heightSection * (volume / highestVolume);
+            boolean bullish = b[j + CandlePyramid.OPEN] <= b[j + CandlePyramid.CLOSE];
 
-            bars.add(new Rect(barX, context.getViewport().startY(), BAR_WIDTH, height, getBarColor(candle)));
+            buffer.addRect(barX, context.getViewport().startY(), width, height,
+                    bullish ? bullishBarColor : bearishBarColor);
         }
-
-        return bars;
     }
 
     private int getStartIndex(DrawingContext c) {
@@ -118,13 +124,20 @@ public class VolumeChart implements LegendDrawing {
         return (int) Math.min(c.getViewport().endX() + 2, getCandleTimeline().size());
     }
 
-    private double getHighestVolume(int start, int end) {
-        ListIterator<? extends Timestamped<? extends Candle>> it = getCandleTimeline().listIterator(start);
+    private double[] fillBuckets(int level, int start, int end) {
+        if (pyramid == null || pyramid.getCandles() != getCandleTimeline()) {
+            pyramid = CandlePyramid.of(getCandleTimeline());
+        }
 
+        buckets = pyramid.copyRange(level, start, end, buckets);
+        return buckets;
+    }
+
+    private static double getHighestVolume(double[] buckets, int count) {
         double highestVolume = 0;
 
-        while (it.hasNext() && it.nextIndex() <= end) {
-            double v = it.next().value().getVolume().doubleValue();
+        for (int i = 0; i < count; i++) {
+            double v = buckets[i * CandlePyramid.STRIDE + CandlePyramid.VOLUME];
             v = Double.isNaN(v) ? 0 : v;
 
             highestVolume = Math.max(highestVolume, v);
@@ -133,12 +146,22 @@ public class VolumeChart implements LegendDrawing {
         return highestVolume;
     }
 
-    private Color getBarColor(Candle c) {
-        return getColor(c).deriveColor(
+    private Color getBarColor(Color c) {
+        return c.deriveColor(
                 0, 1, 1, 0.5);
     }
 
     private Color getColor(Candle c) {
-        return c.getOpen().doubleValue() <= c.getClose().doubleValue() ? getBullishColor() : getBearishColor();
+        return isBullish(c) ? getBullishColor() : getBearishColor();
+    }
+
+    private boolean isBullish(Candle c) {
+        return c.getOpenDouble() <= c.getCloseDouble();
+    }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return Invalidation.of(invalidationListener, bullishColor, bearishColor)
+                .and(Invalidation.ofTimeline(invalidationListener, candleTimeline));
     }
-}
\ No newline at end of file
+}
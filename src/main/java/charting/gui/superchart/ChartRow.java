@@ -40,6 +40,9 @@ class ChartRow {
         this.content = content;
         this.timeAxis = timeAxis;
 
+        // Enough for a few screens of history at common chart sizes.
+        chart.setTileCacheSize(64L << 20);
+
         GridPane.setHgrow(chart, Priority.ALWAYS);
         GridPane.setVgrow(chart, Priority.ALWAYS);
         GridPane.setVgrow(valueAxis, Priority.ALWAYS);
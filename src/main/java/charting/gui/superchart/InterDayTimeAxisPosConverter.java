@@ -25,11 +25,14 @@ public class InterDayTimeAxisPosConverter implements TimeAxisPosConverter {
             return ChronoUnit.DAYS.between(Instant.EPOCH, i);
         }
 
-        if (i.isBefore(timeline.first().timestamp())) {
-            return ChronoUnit.DAYS.between(timeline.first().timestamp(), i);
+        Instant first = getInstant(0);
+        Instant last = getInstant(timeline.size() - 1);
+
+        if (i.isBefore(first)) {
+            return ChronoUnit.DAYS.between(first, i);
         }
-        if (i.isAfter(timeline.last().timestamp())) {
-            return timeline.size() - 1 + ChronoUnit.DAYS.between(timeline.last().timestamp(), i);
+        if (i.isAfter(last)) {
+            return timeline.size() - 1 + ChronoUnit.DAYS.between(last, i);
         }
 
         return timeline.floorIndexOf(i);
@@ -42,12 +45,19 @@ public class InterDayTimeAxisPosConverter implements TimeAxisPosConverter {
         }
 
         if (i < 0) {
-            return timeline.first().timestamp().minus(-i, ChronoUnit.DAYS);
+            return getInstant(0).minus(-i, ChronoUnit.DAYS);
         }
         if (i >= timeline.size()) {
-            return timeline.last().timestamp().plus(i + 1 - timeline.size(), ChronoUnit.DAYS);
+            return getInstant(timeline.size() - 1).plus(i + 1 - timeline.size(), ChronoUnit.DAYS);
         }
 
-        return timeline.get((int) i).timestamp();
+        return getInstant((int) i);
+    }
+
+    /**
+     * Reads only the instant, so that a {@link charting.timeline.PagedTimeline} doesn't need to load the candle.
+     */
+    private Instant getInstant(int i) {
+        return timeline.cursor(i).timestamp();
     }
 }
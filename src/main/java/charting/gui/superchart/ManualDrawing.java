@@ -1,5 +1,6 @@
 package charting.gui.superchart;
 
+import charting.gui.chart.ChartLayer;
 import charting.gui.chart.Drawing;
 import charting.gui.chart.MouseEventDrawing;
 import javafx.beans.property.ReadOnlyIntegerProperty;
@@ -27,4 +28,12 @@ public interface ManualDrawing extends MouseEventDrawing {
     }
 
     Drawing getUnderlying();
+
+    /**
+     * A drawing in progress follows the mouse and is therefore drawn on the overlay.
+     */
+    @Override
+    default ChartLayer getLayer() {
+        return isDone() ? ChartLayer.DATA : ChartLayer.OVERLAY;
+    }
 }
@@ -2,12 +2,14 @@ package charting.gui.superchart;
 
 import charting.gui.chart.Drawable;
 import charting.gui.chart.DrawingContext;
+import charting.gui.chart.Invalidation;
 import charting.gui.chart.MouseButtonEvent;
 import charting.gui.drawings.HorizontalLine;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.scene.input.MouseButton;
+import javafx.util.Subscription;
 
 import java.util.List;
 
@@ -54,4 +56,9 @@ public class ManualHorizontalLine implements ManualDrawing {
     public HorizontalLine getUnderlying() {
         return horizontalLine;
     }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return horizontalLine.subscribe(invalidationListener).and(Invalidation.of(invalidationListener, remaining));
+    }
 }
@@ -7,6 +7,7 @@ import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.scene.input.MouseButton;
+import javafx.util.Subscription;
 
 import java.util.List;
 
@@ -59,4 +60,9 @@ public class ManualLine implements ManualDrawing {
     public Line getUnderlying() {
         return line;
     }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return line.subscribe(invalidationListener).and(Invalidation.of(invalidationListener, remaining));
+    }
 }
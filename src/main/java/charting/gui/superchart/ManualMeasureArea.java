@@ -6,6 +6,7 @@ import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.scene.input.MouseButton;
+import javafx.util.Subscription;
 
 import java.util.List;
 
@@ -58,4 +59,9 @@ public class ManualMeasureArea implements ManualDrawing {
     public MeasureArea getUnderlying() {
         return measureArea;
     }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return measureArea.subscribe(invalidationListener).and(Invalidation.of(invalidationListener, remaining));
+    }
 }
@@ -3,6 +3,7 @@ package charting.gui.superchart;
 import charting.gui.chart.*;
 import javafx.beans.property.*;
 import javafx.scene.paint.Color;
+import javafx.util.Subscription;
 
 import java.util.Collections;
 import java.util.List;
@@ -95,4 +96,14 @@ public class MouseLine implements MouseEventDrawing {
     @Override
     public void onMouseButtonEvent(MouseButtonEvent event) {
     }
+
+    @Override
+    public ChartLayer getLayer() {
+        return ChartLayer.OVERLAY;
+    }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return Invalidation.of(invalidationListener, horizontal, pos, color);
+    }
 }
@@ -1,8 +1,10 @@
 package charting.gui.superchart;
 
+import charting.gui.chart.ChartLayer;
 import charting.gui.chart.Drawable;
 import charting.gui.chart.Drawing;
 import charting.gui.chart.DrawingContext;
+import charting.gui.chart.Invalidation;
 import charting.gui.chart.Text;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
@@ -12,6 +14,7 @@ import javafx.geometry.Bounds;
 import javafx.geometry.VPos;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
+import javafx.util.Subscription;
 
 import java.util.Collections;
 import java.util.List;
@@ -114,4 +117,14 @@ public class Watermark implements Drawing {
         measureText.setTextAlignment(text.getAlignment());
         return measureText.getLayoutBounds();
     }
+
+    @Override
+    public ChartLayer getLayer() {
+        return ChartLayer.BACKGROUND;
+    }
+
+    @Override
+    public Subscription subscribe(Runnable invalidationListener) {
+        return Invalidation.of(invalidationListener, color, shortName, longName);
+    }
 }
@@ -17,9 +17,24 @@ public final class Atr extends MappedTimeline<Double, Double> {
     }
 
     public Atr(Timeline<? extends Candle> base, int length) {
-        super(new Sma(new TrueRange(base), length));
+        this(base, length, false);
+    }
+
+    /**
+     * @param streaming If true, the underlying moving average is calculated in streaming mode.
+     * @see Sum#Sum(Timeline, int, boolean, boolean)
+     */
+    public Atr(Timeline<? extends Candle> base, int length, boolean streaming) {
+        this(new Sma(new TrueRange(base), length, false, streaming));
+    }
+
+    /**
+     * Creates the ATR based on the given moving average of true ranges, which may be shared with other indicators.
+     */
+    Atr(Sma trueRangeAverage) {
+        super(trueRangeAverage);
 
-        this.length = length;
+        this.length = trueRangeAverage.getLength();
     }
 
     public int getLength() {
@@ -39,4 +54,11 @@ public final class Atr extends MappedTimeline<Double, Double> {
 
         onUpdate(instant, newBaseValue);
     }
+
+    @Override
+    protected void onBaseRangeUpdate(int from, int to) {
+        if (hasListeners()) {
+            onRangeUpdate(from, to);
+        }
+    }
 }
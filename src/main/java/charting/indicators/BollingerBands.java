@@ -2,6 +2,8 @@ package charting.indicators;
 
 import charting.timeline.MappedTimeline;
 import charting.timeline.Timeline;
+import charting.timeline.TimelineListener;
+import charting.timeline.TimelineRangeListener;
 import charting.timeline.Timestamped;
 import charting.util.Preconditions;
 
@@ -16,6 +18,21 @@ public final class BollingerBands extends MappedTimeline<Number, BollingerBands.
 
     private final Sma sma;
 
+    /**
+     * Registered weakly, since the moving average may be shared and outlive this indicator.
+     */
+    private final TimelineListener<Double> smaListener = new TimelineRangeListener<>() {
+        @Override
+        public void onUpdate(Instant instant, Double newValue) {
+            onSmaUpdate(instant, newValue);
+        }
+
+        @Override
+        public void onRangeUpdate(int from, int to) {
+            onSmaRangeUpdate(from, to);
+        }
+    };
+
     public BollingerBands(Timeline<? extends Number> base) {
         this(base, 20, 2);
     }
@@ -25,15 +42,31 @@ public final class BollingerBands extends MappedTimeline<Number, BollingerBands.
      * @param deviations The distance of standard deviations between the simple moving average and the upper/lower band.
      */
     public BollingerBands(Timeline<? extends Number> base, int length, int deviations) {
-        super(new StandardDeviation(base, length));
+        this(base, length, deviations, false);
+    }
+
+    /**
+     * @param streaming If true, the moving average and the standard deviation are calculated in streaming mode.
+     * @see StandardDeviation#StandardDeviation(Timeline, int, boolean)
+     */
+    public BollingerBands(Timeline<? extends Number> base, int length, int deviations, boolean streaming) {
+        this(new StandardDeviation(base, length, streaming), new Sma(base, length, false, streaming), deviations);
+    }
 
-        Preconditions.checkArgument(length > 0);
+    /**
+     * Creates the bands based on the given standard deviation and moving average of the same base and length,
+     * which may be shared with other indicators.
+     */
+    BollingerBands(StandardDeviation standardDeviation, Sma sma, int deviations) {
+        super(standardDeviation);
+
+        Preconditions.checkArgument(standardDeviation.getLength() == sma.getLength());
         Preconditions.checkArgument(deviations > 0);
 
         this.deviations = deviations;
 
-        sma = new Sma(base, length);
-        sma.addListener(this::onSmaUpdate);
+        this.sma = sma;
+        sma.addWeakListener(smaListener);
     }
 
     @Override
@@ -61,6 +94,13 @@ public final class BollingerBands extends MappedTimeline<Number, BollingerBands.
         onUpdate(instant, map(instant, newBaseValue));
     }
 
+    @Override
+    protected void onBaseRangeUpdate(int from, int to) {
+        if (hasListeners()) {
+            onRangeUpdate(from, to);
+        }
+    }
+
     private void onSmaUpdate(Instant instant, Double newValue) {
         if (!hasListeners()) {
             return;
@@ -73,10 +113,20 @@ public final class BollingerBands extends MappedTimeline<Number, BollingerBands.
         }
     }
 
+    private void onSmaRangeUpdate(int from, int to) {
+        if (hasListeners()) {
+            onRangeUpdate(from, to);
+        }
+    }
+
     public int getDeviations() {
         return deviations;
     }
 
+    Sma getSma() {
+        return sma;
+    }
+
     public int getLength() {
         return sma.getLength();
     }
@@ -0,0 +1,49 @@
+package charting.indicators;
+
+import charting.util.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of doubles where only the first {@link #size()} values are valid.
+ * Used by streaming indicators to store their state for every index of the base timeline.
+ */
+final class DenseBuffer {
+    private double[] values = new double[16];
+
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    double get(int i) {
+        Preconditions.checkIndex(i, size);
+        return values[i];
+    }
+
+    void add(double v) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+
+        values[size++] = v;
+    }
+
+    /**
+     * Invalidates all values from the given index on.
+     */
+    void truncate(int size) {
+        this.size = Math.min(this.size, Math.max(size, 0));
+    }
+
+    /**
+     * Copies the values in the index range [from, to) into the given array starting at index 0.
+     */
+    void copyTo(int from, int to, double[] dst) {
+        Preconditions.checkIndex(to, size + 1);
+        Preconditions.checkIndex(from, to + 1);
+
+        System.arraycopy(values, from, dst, 0, to - from);
+    }
+}
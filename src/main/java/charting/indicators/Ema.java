@@ -1,104 +1,158 @@
 package charting.indicators;
 
+import charting.timeline.DoubleTimeline;
 import charting.timeline.MappedTimeline;
 import charting.timeline.Timeline;
-import charting.timeline.Timestamped;
 import charting.util.Preconditions;
 
 import java.time.Instant;
-import java.util.TreeMap;
 
 /**
  * An exponential moving average timeline. Similar to {@link Sma} but more weight is given to more recent values.
+ * Since every value depends on its predecessor, the values are calculated in order and stored densely
+ * so that appending a value takes O(1) time. An update of a base value only invalidates the values from its index on,
+ * which are recalculated from the last valid value.
+ * <p>
+ * With a bounded lookback, only a segment of values is stored. Accessing a value far away from the segment seeds
+ * a new segment a fixed number of periods before the value instead of calculating all values from the start.
+ * The seeded values are an approximation whose error decreases exponentially with the lookback.
  */
-public final class Ema extends MappedTimeline<Number, Double> {
+public final class Ema extends MappedTimeline<Number, Double> implements DoubleTimeline {
     private final int emaLength;
 
+    private final int lookback;
+
     private final double multiplier;
 
-    private final TreeMap<Integer, Double> emas = new TreeMap<>();
+    /**
+     * The values in the index range [offset, offset + emas.size()).
+     */
+    private final DenseBuffer emas = new DenseBuffer();
+
+    private int offset;
 
     public Ema(Timeline<? extends Number> base, int emaLength) {
+        this(base, emaLength, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param lookback The number of values that are calculated before an accessed value when seeding a new segment.
+     */
+    public Ema(Timeline<? extends Number> base, int emaLength, int lookback) {
         super(base);
 
         Preconditions.checkArgument(emaLength > 0);
+        Preconditions.checkArgument(lookback >= 0);
 
         this.emaLength = emaLength;
+        this.lookback = lookback;
         multiplier = 2.0 / (1 + emaLength);
     }
 
     @Override
     protected Double map(Instant instant, Number number) {
         if (number == null) {
-            emas.tailMap(getBase().indexOf(instant), true).clear();
             return null;
         }
 
-        return getEma(indexOf(instant));
+        return getDouble(indexOf(instant));
     }
 
-    private Double getEma(int index) {
-        if (index < 0) {
-            return null;
-        }
+    /**
+     * Makes sure that the values in the index range [from, to) are calculated.
+     */
+    private void calculateEmas(int from, int to) {
+        int end = offset + emas.size();
 
-        if (emas.containsKey(index)) {
-            return emas.get(index);
+        boolean inWarmUp = offset > 0 && from < offset + lookback;
+        if (from < offset || inWarmUp || from - end > lookback) {
+            offset = getSeedIndex(from);
+            emas.truncate(0);
         }
 
-        if (index + 1 < emaLength) {
-            return Double.NaN;
+        for (int i = offset + emas.size(); i < to; i++) {
+            if (i + 1 < emaLength) {
+                emas.add(Double.NaN);
+            } else if (i + 1 == emaLength || i == offset) {
+                emas.add(calculateStartEma(i));
+            } else {
+                emas.add(multiplier * DoubleTimeline.getDouble(getBase(), i) +
+                        emas.get(i - 1 - offset) * (1 - multiplier));
+            }
         }
+    }
 
-        if (emas.isEmpty()) {
-            emas.put(emaLength - 1, calculateStartEma());
-        }
+    private int getSeedIndex(int index) {
+        long seed = (long) index - lookback;
+        return seed <= emaLength - 1 ? 0 : (int) seed;
+    }
 
-        for (int i = emas.size() + emaLength - 1; i <= index; i++) {
-            emas.put(i, multiplier * getBase().get(i).value().doubleValue() +
-                    emas.lastEntry().getValue() * (1 - multiplier));
+    /**
+     * @return The simple moving average of the values up to the given index.
+     */
+    private double calculateStartEma(int index) {
+        double[] values = new double[emaLength];
+        DoubleTimeline.copyRange(getBase(), index + 1 - emaLength, index + 1, values);
+
+        double sum = 0;
+        for (double v : values) {
+            sum += v;
         }
 
-        return emas.lastEntry().getValue();
+        return sum / emaLength;
     }
 
-    private double calculateStartEma() {
-        double sum = 0;
+    @Override
+    public double getDouble(int i) {
+        Preconditions.checkIndex(i, size());
 
-        int i = 0;
-        for (Timestamped<? extends Number> n : getBase()) {
-            sum += n.value().doubleValue();
+        calculateEmas(i, i + 1);
+        return emas.get(i - offset);
+    }
 
-            i++;
+    @Override
+    public void copyRange(int from, int to, double[] dst) {
+        Preconditions.checkIndex(to, size() + 1);
+        Preconditions.checkIndex(from, to + 1);
+        Preconditions.checkArgument(dst.length >= to - from);
 
-            if (i == emaLength) {
-                break;
-            }
+        if (from == to) {
+            return;
         }
 
-        return sum / emaLength;
+        calculateEmas(from, to);
+        emas.copyTo(from - offset, to - offset, dst);
     }
 
     @Override
     protected void onBaseUpdate(Instant instant, Number newBaseValue) {
         int i = indexOf(instant);
 
-        emas.tailMap(i).clear();
-
-        if (!hasListeners()) {
-            return;
+        if (i < 0) {
+            onUpdate(instant, null);
+            onBaseRangeUpdate(-i - 1, -i - 1);
+        } else {
+            onBaseRangeUpdate(i, i + 1);
         }
+    }
 
-        onUpdate(instant, newBaseValue == null ? null : getEma(indexOf(instant)));
+    /**
+     * Every value from the start of the range on depends on the updated base values.
+     */
+    @Override
+    protected void onBaseRangeUpdate(int from, int to) {
+        emas.truncate(from - offset);
 
-        Timestamped<? extends Number> t = getBase().higher(instant);
-        while (t != null) {
-            onUpdate(t.timestamp(), getEma(indexOf(t.timestamp())));
-            t = getBase().higher(t.timestamp());
+        if (hasListeners()) {
+            onRangeUpdate(Math.min(from, size()), size());
         }
     }
 
     public int getEmaLength() {
         return emaLength;
     }
+
+    public int getLookback() {
+        return lookback;
+    }
 }
@@ -0,0 +1,82 @@
+package charting.indicators;
+
+import charting.util.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * A Fenwick tree (binary indexed tree) of doubles. Appending a value, updating a value and calculating the sum
+ * of an index range take O(log n) time.
+ */
+final class FenwickTree {
+    /**
+     * 1-based, the node at index i holds the sum of the values in the index range [i - lowestOneBit(i), i).
+     */
+    private double[] tree = new double[17];
+    private double[] values = new double[16];
+
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    double get(int i) {
+        Preconditions.checkIndex(i, size);
+        return values[i];
+    }
+
+    void add(double v) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+            tree = Arrays.copyOf(tree, values.length + 1);
+        }
+
+        int i = size + 1;
+        double sum = v;
+        for (int j = i - 1; j > i - Integer.lowestOneBit(i); j -= Integer.lowestOneBit(j)) {
+            sum += tree[j];
+        }
+
+        tree[i] = sum;
+        values[size++] = v;
+    }
+
+    void set(int i, double v) {
+        Preconditions.checkIndex(i, size);
+
+        double delta = v - values[i];
+        values[i] = v;
+
+        for (int j = i + 1; j <= size; j += Integer.lowestOneBit(j)) {
+            tree[j] += delta;
+        }
+    }
+
+    /**
+     * Removes all values from the given index on. The remaining nodes stay valid since they only cover
+     * values with lower indices.
+     */
+    void truncate(int size) {
+        this.size = Math.min(this.size, Math.max(size, 0));
+    }
+
+    /**
+     * @return The sum of the values in the index range [from, to).
+     */
+    double sum(int from, int to) {
+        Preconditions.checkIndex(to, size + 1);
+        Preconditions.checkIndex(from, to + 1);
+
+        return prefixSum(to) - prefixSum(from);
+    }
+
+    private double prefixSum(int to) {
+        double sum = 0;
+        for (int i = to; i > 0; i -= Integer.lowestOneBit(i)) {
+            sum += tree[i];
+        }
+
+        return sum;
+    }
+}
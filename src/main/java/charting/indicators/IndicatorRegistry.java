@@ -0,0 +1,118 @@
+package charting.indicators;
+
+import charting.data.Candle;
+import charting.timeline.DoubleMapperTimeline;
+import charting.timeline.Timeline;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Creates indicators and shares identical ones, i.e. those of the same type with the same base and parameters,
+ * so that they are calculated and cached only once. Composite indicators like {@link BollingerBands} and
+ * {@link Macd} are built from shared components as well.
+ * <p>
+ * Indicators are only referenced weakly, so they are released as soon as they are no longer used elsewhere.
+ */
+public final class IndicatorRegistry {
+    private static final IndicatorRegistry DEFAULT = new IndicatorRegistry();
+
+    private final Map<Timeline<?>, Map<List<Object>, WeakReference<Timeline<?>>>> indicators = new WeakHashMap<>();
+
+    public static IndicatorRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @param key Identifies the mapper, since functions can't be compared for equality.
+     * @return A shared {@link DoubleMapperTimeline} of the base.
+     */
+    public <T> DoubleMapperTimeline<T> mapToDouble(Timeline<? extends T> base, Object key,
+                                                   ToDoubleFunction<? super T> mapper) {
+        @SuppressWarnings("unchecked")
+        DoubleMapperTimeline<T> t = get(base, DoubleMapperTimeline.class,
+                () -> new DoubleMapperTimeline<>(base, mapper), key);
+        return t;
+    }
+
+    public Sum sum(Timeline<? extends Number> base, int length, boolean eager, boolean streaming) {
+        return get(base, Sum.class, () -> new Sum(base, length, eager, streaming), length, eager, streaming);
+    }
+
+    public Sma sma(Timeline<? extends Number> base, int length) {
+        return sma(base, length, false, false);
+    }
+
+    public Sma sma(Timeline<? extends Number> base, int length, boolean eager, boolean streaming) {
+        return get(base, Sma.class, () -> new Sma(sum(base, length, eager, streaming)), length, eager, streaming);
+    }
+
+    public Ema ema(Timeline<? extends Number> base, int length) {
+        return ema(base, length, Integer.MAX_VALUE);
+    }
+
+    public Ema ema(Timeline<? extends Number> base, int length, int lookback) {
+        return get(base, Ema.class, () -> new Ema(base, length, lookback), length, lookback);
+    }
+
+    public StandardDeviation standardDeviation(Timeline<? extends Number> base, int length, boolean streaming) {
+        return get(base, StandardDeviation.class,
+                () -> new StandardDeviation(base, sma(base, length, false, streaming)), length, streaming);
+    }
+
+    public BollingerBands bollingerBands(Timeline<? extends Number> base, int length, int deviations) {
+        return bollingerBands(base, length, deviations, false);
+    }
+
+    public BollingerBands bollingerBands(Timeline<? extends Number> base, int length, int deviations,
+                                         boolean streaming) {
+        return get(base, BollingerBands.class, () -> new BollingerBands(standardDeviation(base, length, streaming),
+                sma(base, length, false, streaming), deviations), length, deviations, streaming);
+    }
+
+    public Macd macd(Timeline<? extends Number> base) {
+        return macd(base, 12, 26, 9);
+    }
+
+    public Macd macd(Timeline<? extends Number> base, int shortPeriod, int longPeriod, int signalPeriod) {
+        return get(base, Macd.class, () -> new Macd(ema(base, shortPeriod), ema(base, longPeriod), signalPeriod),
+                shortPeriod, longPeriod, signalPeriod);
+    }
+
+    public TrueRange trueRange(Timeline<? extends Candle> base) {
+        return get(base, TrueRange.class, () -> new TrueRange(base));
+    }
+
+    public Atr atr(Timeline<? extends Candle> base, int length) {
+        return atr(base, length, false);
+    }
+
+    public Atr atr(Timeline<? extends Candle> base, int length, boolean streaming) {
+        return get(base, Atr.class, () -> new Atr(sma(trueRange(base), length, false, streaming)), length, streaming);
+    }
+
+    private synchronized <R extends Timeline<?>> R get(Timeline<?> base, Class<R> type, Supplier<? extends R> factory,
+                                                       Object... parameters) {
+        Map<List<Object>, WeakReference<Timeline<?>>> nodes = indicators.computeIfAbsent(base, b -> new HashMap<>());
+
+        List<Object> key = new ArrayList<>(parameters.length + 1);
+        key.add(type);
+        key.addAll(Arrays.asList(parameters));
+
+        WeakReference<Timeline<?>> ref = nodes.get(key);
+        Timeline<?> existing = ref == null ? null : ref.get();
+
+        if (existing != null) {
+            return type.cast(existing);
+        }
+
+        R created = factory.get();
+
+        nodes.values().removeIf(r -> r.get() == null);
+        nodes.put(key, new WeakReference<>(created));
+
+        return created;
+    }
+}
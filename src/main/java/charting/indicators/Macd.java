@@ -3,6 +3,7 @@ package charting.indicators;
 import charting.timeline.MappedTimeline;
 import charting.timeline.SkipTimeline;
 import charting.timeline.Timeline;
+import charting.timeline.TimelineRangeListener;
 import charting.timeline.Timestamped;
 
 import java.time.Instant;
@@ -19,14 +20,31 @@ public final class Macd extends MappedTimeline<Double, Macd.Values> {
     }
 
     public Macd(Timeline<? extends Number> base, int shortPeriod, int longPeriod, int signalPeriod) {
-        super(new Subtraction(new Ema(base, shortPeriod), new Ema(base, longPeriod)));
+        this(new Ema(base, shortPeriod), new Ema(base, longPeriod), signalPeriod);
+    }
+
+    /**
+     * Creates the MACD based on the given EMAs of the same base, which may be shared with other indicators.
+     */
+    Macd(Ema shortEma, Ema longEma, int signalPeriod) {
+        super(new Subtraction(shortEma, longEma, true));
 
-        this.shortPeriod = shortPeriod;
-        this.longPeriod = longPeriod;
+        this.shortPeriod = shortEma.getEmaLength();
+        this.longPeriod = longEma.getEmaLength();
         this.signalPeriod = signalPeriod;
 
         signalEma = new Ema(new SkipTimeline<>(getBase(), longPeriod - 1), signalPeriod);
-        signalEma.addListener(this::onSignalEmaUpdate);
+        signalEma.addListener(new TimelineRangeListener<>() {
+            @Override
+            public void onUpdate(Instant instant, Double newValue) {
+                onSignalEmaUpdate(instant, newValue);
+            }
+
+            @Override
+            public void onRangeUpdate(int from, int to) {
+                onSignalEmaRangeUpdate(from, to);
+            }
+        });
     }
 
     @Override
@@ -48,6 +66,13 @@ public final class Macd extends MappedTimeline<Double, Macd.Values> {
         onUpdate(instant, map(instant, newBaseValue));
     }
 
+    @Override
+    protected void onBaseRangeUpdate(int from, int to) {
+        if (hasListeners()) {
+            onRangeUpdate(from, to);
+        }
+    }
+
     private void onSignalEmaUpdate(Instant instant, Double newValue) {
         if (!hasListeners()) {
             return;
@@ -60,6 +85,17 @@ public final class Macd extends MappedTimeline<Double, Macd.Values> {
         }
     }
 
+    /**
+     * The signal is calculated on the base without its first (long period - 1) elements,
+     * so its indices are shifted accordingly.
+     */
+    private void onSignalEmaRangeUpdate(int from, int to) {
+        if (hasListeners()) {
+            int skips = longPeriod - 1;
+            onRangeUpdate(Math.min(from + skips, size()), Math.min(to + skips, size()));
+        }
+    }
+
     public int getShortPeriod() {
         return shortPeriod;
     }
@@ -1,15 +1,15 @@
 package charting.indicators;
 
+import charting.timeline.DoubleTimeline;
 import charting.timeline.MappedTimeline;
 import charting.timeline.Timeline;
-import charting.util.Preconditions;
 
 import java.time.Instant;
 
 /**
  * A simple moving average timeline (the average value over a specified period).
  */
-public final class Sma extends MappedTimeline<Double, Double> {
+public final class Sma extends MappedTimeline<Double, Double> implements DoubleTimeline {
     private final int length;
     private final boolean eager;
 
@@ -23,12 +23,25 @@ public final class Sma extends MappedTimeline<Double, Double> {
      *              for averaging instead of the length.
      */
     public Sma(Timeline<? extends Number> base, int length, boolean eager) {
-        super(new Sum(base, length, eager));
+        this(base, length, eager, false);
+    }
+
+    /**
+     * @param streaming If true, the underlying sums are calculated in streaming mode.
+     * @see Sum#Sum(Timeline, int, boolean, boolean)
+     */
+    public Sma(Timeline<? extends Number> base, int length, boolean eager, boolean streaming) {
+        this(new Sum(base, length, eager, streaming));
+    }
 
-        Preconditions.checkArgument(length > 0);
+    /**
+     * Creates an average of the given sums, which may be shared with other indicators.
+     */
+    Sma(Sum sum) {
+        super(sum);
 
-        this.length = length;
-        this.eager = eager;
+        this.length = sum.getLength();
+        this.eager = sum.isEager();
     }
 
     @Override
@@ -37,11 +50,29 @@ public final class Sma extends MappedTimeline<Double, Double> {
             return null;
         }
 
+        return average(indexOf(instant), number);
+    }
+
+    private double average(int index, double sum) {
         if (eager) {
-            return number / Math.min(length, indexOf(instant) + 1);
+            return sum / Math.min(length, index + 1);
         }
 
-        return number / length;
+        return sum / length;
+    }
+
+    @Override
+    public double getDouble(int i) {
+        return average(i, DoubleTimeline.getDouble(getBase(), i));
+    }
+
+    @Override
+    public void copyRange(int from, int to, double[] dst) {
+        DoubleTimeline.copyRange(getBase(), from, to, dst);
+
+        for (int i = from; i < to; i++) {
+            dst[i - from] = average(i, dst[i - from]);
+        }
     }
 
     @Override
@@ -53,6 +84,13 @@ public final class Sma extends MappedTimeline<Double, Double> {
         onUpdate(instant, map(instant, newBaseValue));
     }
 
+    @Override
+    protected void onBaseRangeUpdate(int from, int to) {
+        if (hasListeners()) {
+            onRangeUpdate(from, to);
+        }
+    }
+
     public int getLength() {
         return length;
     }
@@ -60,4 +98,8 @@ public final class Sma extends MappedTimeline<Double, Double> {
     public boolean isEager() {
         return eager;
     }
+
+    public boolean isStreaming() {
+        return ((Sum) getBase()).isStreaming();
+    }
 }
@@ -1,23 +1,74 @@
 package charting.indicators;
 
+import charting.timeline.DoubleTimeline;
 import charting.timeline.MappedTimeline;
 import charting.timeline.Timeline;
-import charting.timeline.Timestamped;
+import charting.timeline.TimelineListener;
+import charting.timeline.TimelineRangeListener;
+import charting.util.Preconditions;
 
 import java.time.Instant;
 
-public final class StandardDeviation extends MappedTimeline<Number, Double> {
+public final class StandardDeviation extends MappedTimeline<Number, Double> implements DoubleTimeline {
     private final int length;
+    private final boolean streaming;
 
     private final Sma sma;
 
+    /**
+     * Registered weakly, since the moving average may be shared and outlive this indicator.
+     */
+    private final TimelineListener<Double> smaListener = new TimelineRangeListener<>() {
+        @Override
+        public void onUpdate(Instant instant, Double newValue) {
+            onSmaUpdate(instant, newValue);
+        }
+
+        @Override
+        public void onRangeUpdate(int from, int to) {
+            onSmaRangeUpdate(from, to);
+        }
+    };
+
+    /**
+     * The running sums of the values and of their squares in the window of every index in streaming mode.
+     * To avoid cancellation they are relative to a reference value which is reset every length elements.
+     */
+    private final DenseBuffer sums = new DenseBuffer();
+    private final DenseBuffer squareSums = new DenseBuffer();
+    private final DenseBuffer references = new DenseBuffer();
+
+    /**
+     * The size of the base at the last update. A change means that elements were inserted.
+     */
+    private int notifiedBaseSize;
+
     public <N extends Number> StandardDeviation(Timeline<N> base, int length) {
+        this(base, length, false);
+    }
+
+    /**
+     * @param streaming If true, the deviations are calculated in order with running sums and stored densely
+     *                  so that appending a value takes amortized O(1) time.
+     *                  Accessing a value for the first time calculates all deviations up to its index.
+     */
+    public <N extends Number> StandardDeviation(Timeline<N> base, int length, boolean streaming) {
+        this(base, new Sma(base, length, false, streaming));
+    }
+
+    /**
+     * Creates the standard deviation based on the given moving average of the base, which may be shared with other
+     * indicators.
+     */
+    StandardDeviation(Timeline<? extends Number> base, Sma sma) {
         super(base);
 
-        this.length = length;
+        this.length = sma.getLength();
+        this.streaming = sma.isStreaming();
 
-        sma = new Sma(base, length);
-        sma.addListener(this::onSmaUpdate);
+        this.sma = sma;
+        this.notifiedBaseSize = base.size();
+        sma.addWeakListener(smaListener);
     }
 
     @Override
@@ -26,41 +77,142 @@ public final class StandardDeviation extends MappedTimeline<Number, Double> {
             return null;
         }
 
-        int index = getBase().indexOf(instant);
+        return getDouble(getBase().indexOf(instant));
+    }
+
+    @Override
+    public double getDouble(int i) {
+        Preconditions.checkIndex(i, size());
 
-        if (index + 1 < length) {
+        if (i + 1 < length) {
             return Double.NaN;
         }
 
-        double sma = this.sma.get(instant).value();
+        if (streaming) {
+            calculateStreamingSums(i + 1);
+            return getStreamingDeviation(i);
+        }
+
+        double[] values = new double[length];
+        DoubleTimeline.copyRange(getBase(), i + 1 - length, i + 1, values);
+
+        return calculate(values, 0, sma.getDouble(i));
+    }
+
+    @Override
+    public void copyRange(int from, int to, double[] dst) {
+        Preconditions.checkIndex(to, size() + 1);
+        Preconditions.checkIndex(from, to + 1);
+        Preconditions.checkArgument(dst.length >= to - from);
+
+        if (streaming) {
+            calculateStreamingSums(to);
+            for (int i = from; i < to; i++) {
+                dst[i - from] = i + 1 < length ? Double.NaN : getStreamingDeviation(i);
+            }
+            return;
+        }
+
+        int start = Math.max(from - length + 1, 0);
+
+        double[] values = new double[to - start];
+        DoubleTimeline.copyRange(getBase(), start, to, values);
+        sma.copyRange(from, to, dst);
+
+        for (int i = from; i < to; i++) {
+            dst[i - from] = i + 1 < length ? Double.NaN : calculate(values, i + 1 - length - start, dst[i - from]);
+        }
+    }
 
+    private double calculate(double[] values, int offset, double sma) {
         double sum = 0;
 
-        var it = getBase().listIterator(index + 1);
-        for (int i = 0; it.hasPrevious(); ) {
-            sum += Math.pow(it.previous().value().doubleValue() - sma, 2);
+        for (int i = offset; i < offset + length; i++) {
+            sum += Math.pow(values[i] - sma, 2);
+        }
 
-            i++;
+        return Math.sqrt(sum / getLength());
+    }
 
-            if (i == length) {
-                break;
+    private void calculateStreamingSums(int to) {
+        for (int i = sums.size(); i < to; i++) {
+            double v = DoubleTimeline.getDouble(getBase(), i);
+            double sum = i > 0 ? sums.get(i - 1) : Double.NaN;
+            double squareSum;
+            double reference;
+
+            if (i % length == 0 || Double.isNaN(sum)) {
+                int start = Math.max(i - length + 1, 0);
+                double[] values = new double[i + 1 - start];
+                DoubleTimeline.copyRange(getBase(), start, i + 1, values);
+
+                reference = Double.isNaN(v) ? 0 : v;
+                sum = 0;
+                squareSum = 0;
+
+                for (double w : values) {
+                    sum += w - reference;
+                    squareSum += (w - reference) * (w - reference);
+                }
+            } else {
+                reference = references.get(i - 1);
+                squareSum = squareSums.get(i - 1);
+
+                sum += v - reference;
+                squareSum += (v - reference) * (v - reference);
+
+                if (i >= length) {
+                    double o = DoubleTimeline.getDouble(getBase(), i - length);
+                    sum -= o - reference;
+                    squareSum -= (o - reference) * (o - reference);
+                }
             }
+
+            sums.add(sum);
+            squareSums.add(squareSum);
+            references.add(reference);
         }
+    }
 
-        return Math.sqrt(sum / getLength());
+    private double getStreamingDeviation(int i) {
+        double mean = sums.get(i) / length;
+        return Math.sqrt(Math.max(squareSums.get(i) / length - mean * mean, 0));
     }
 
     @Override
     protected void onBaseUpdate(Instant instant, Number newBaseValue) {
+        int i = getBase().indexOf(instant);
+
+        if (i < 0) {
+            if (hasListeners()) {
+                onUpdate(instant, null);
+            }
+            onBaseRangeUpdate(-i - 1, -i - 1);
+        } else {
+            onBaseRangeUpdate(i, i + 1);
+        }
+    }
+
+    /**
+     * Every deviation in the range [from, to + length - 1) is affected by an update of the base range [from, to).
+     * If elements were inserted, all deviations from the start of the range on are shifted.
+     */
+    @Override
+    protected void onBaseRangeUpdate(int from, int to) {
+        sums.truncate(from);
+        squareSums.truncate(from);
+        references.truncate(from);
+
+        int baseSize = getBase().size();
+        boolean inserted = baseSize != notifiedBaseSize;
+        notifiedBaseSize = baseSize;
+
         if (!hasListeners()) {
             return;
         }
 
-        var it = getBase().listIterator(instant);
-        for (int i = 0; it.hasNext() && i < length; i++) {
-            Timestamped<? extends Number> t = it.next();
-            onUpdate(t.timestamp(), map(t.timestamp(), t.value()));
-        }
+        int end = inserted ? size() : Math.min(to + length - 1, size());
+        onRangeUpdate(Math.min(from, end), end);
     }
 
     private void onSmaUpdate(Instant instant, Double newValue) {
@@ -75,7 +227,21 @@ public final class StandardDeviation extends MappedTimeline<Number, Double> {
         }
     }
 
+    private void onSmaRangeUpdate(int from, int to) {
+        if (hasListeners()) {
+            onRangeUpdate(from, to);
+        }
+    }
+
+    Sma getSma() {
+        return sma;
+    }
+
     public int getLength() {
         return length;
     }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
 }
@@ -1,25 +1,50 @@
 package charting.indicators;
 
+import charting.timeline.DoubleTimeline;
 import charting.timeline.MappedTimeline;
 import charting.timeline.Timeline;
+import charting.timeline.TimelineCursor;
 import charting.timeline.TimelineListener;
+import charting.timeline.TimelineRangeListener;
 import charting.timeline.Timestamped;
+import charting.util.Preconditions;
 
 import java.time.Instant;
 
 /**
  * Subtracts from every value in the base timeline the value at the same instant of another timeline
- * if such a value is present.
+ * if such a value is present. If both timelines have the same instants, e.g. moving averages of the same base,
+ * the values are subtracted by index without looking up the instants.
  */
-public final class Subtraction extends MappedTimeline<Number, Double> {
+public final class Subtraction extends MappedTimeline<Number, Double> implements DoubleTimeline {
     private final Timeline<? extends Number> subtrahend;
 
-    private final TimelineListener<Number> subtrahendListener = this::onSubtrahendUpdate;
+    private final boolean aligned;
+
+    private final TimelineListener<Number> subtrahendListener = new TimelineRangeListener<>() {
+        @Override
+        public void onUpdate(Instant instant, Number newValue) {
+            onSubtrahendUpdate(instant, newValue);
+        }
+
+        @Override
+        public void onRangeUpdate(int from, int to) {
+            onSubtrahendRangeUpdate(from, to);
+        }
+    };
 
     public Subtraction(Timeline<? extends Number> base, Timeline<? extends Number> subtrahend) {
+        this(base, subtrahend, false);
+    }
+
+    /**
+     * @param aligned Whether the timelines always have the same instants.
+     */
+    Subtraction(Timeline<? extends Number> base, Timeline<? extends Number> subtrahend, boolean aligned) {
         super(base);
 
         this.subtrahend = subtrahend;
+        this.aligned = aligned;
 
         subtrahend.addWeakListener(subtrahendListener);
     }
@@ -30,13 +55,53 @@ public final class Subtraction extends MappedTimeline<Number, Double> {
             return null;
         }
 
-        Timestamped<? extends Number> s = subtrahend.get(instant);
+        return subtract(instant, number.doubleValue());
+    }
 
-        if (s == null) {
-            return number.doubleValue();
+    private double subtract(Instant instant, double minuend) {
+        int i = subtrahend.indexOf(instant);
+
+        if (i < 0) {
+            return minuend;
         }
 
-        return number.doubleValue() - s.value().doubleValue();
+        return minuend - DoubleTimeline.getDouble(subtrahend, i);
+    }
+
+    @Override
+    public double getDouble(int i) {
+        Preconditions.checkIndex(i, size());
+
+        if (aligned) {
+            return DoubleTimeline.getDouble(getBase(), i) - DoubleTimeline.getDouble(subtrahend, i);
+        }
+
+        Timestamped<? extends Number> t = getBase().get(i);
+        return subtract(t.timestamp(), t.value().doubleValue());
+    }
+
+    @Override
+    public void copyRange(int from, int to, double[] dst) {
+        Preconditions.checkIndex(to, size() + 1);
+        Preconditions.checkIndex(from, to + 1);
+        Preconditions.checkArgument(dst.length >= to - from);
+
+        if (aligned) {
+            double[] subtrahends = new double[to - from];
+            DoubleTimeline.copyRange(getBase(), from, to, dst);
+            DoubleTimeline.copyRange(subtrahend, from, to, subtrahends);
+
+            for (int i = 0; i < subtrahends.length; i++) {
+                dst[i] -= subtrahends[i];
+            }
+
+            return;
+        }
+
+        TimelineCursor<? extends Number> c = getBase().cursor(from - 1);
+        for (int i = from; i < to && c.advance(); i++) {
+            dst[i - from] = subtract(c.timestamp(), c.value().doubleValue());
+        }
     }
 
     @Override
@@ -48,6 +113,13 @@ public final class Subtraction extends MappedTimeline<Number, Double> {
         onUpdate(instant, map(instant, newBaseValue));
     }
 
+    @Override
+    protected void onBaseRangeUpdate(int from, int to) {
+        if (hasListeners()) {
+            onRangeUpdate(from, to);
+        }
+    }
+
     private void onSubtrahendUpdate(Instant instant, Number newValue) {
         if (!hasListeners()) {
             return;
@@ -62,4 +134,20 @@ public final class Subtraction extends MappedTimeline<Number, Double> {
         double n = newValue == null ? 0 : newValue.doubleValue();
         onUpdate(instant, s.value().doubleValue() - n);
     }
+
+    /**
+     * Translates the index range of the subtrahend into the index range of the base.
+     */
+    private void onSubtrahendRangeUpdate(int from, int to) {
+        if (!hasListeners()) {
+            return;
+        }
+
+        int f = ceilingIndexOf(subtrahend.get(from).timestamp());
+        int t = to == subtrahend.size() ? size() : floorIndexOf(subtrahend.get(to - 1).timestamp()) + 1;
+
+        if (f >= 0 && t > f) {
+            onRangeUpdate(f, t);
+        }
+    }
 }
@@ -1,159 +1,239 @@
 package charting.indicators;
 
+import charting.timeline.DoubleTimeline;
 import charting.timeline.MappedTimeline;
 import charting.timeline.Timeline;
-import charting.timeline.Timestamped;
 import charting.util.Preconditions;
 
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Sums up the last n values.
  */
-public final class Sum extends MappedTimeline<Number, Double> {
+public final class Sum extends MappedTimeline<Number, Double> implements DoubleTimeline {
     private final int length;
     private final boolean eager;
-
-    private final Map<Instant, Double> cache = new HashMap<>();
+    private final boolean streaming;
+
+    /**
+     * The base values (with NaN values replaced by 0) and the positions of NaN values by index.
+     */
+    private final FenwickTree values = new FenwickTree();
+    private final FenwickTree nans = new FenwickTree();
+
+    /**
+     * The size of the base when the trees were last synchronized. A change means that elements were inserted.
+     */
+    private int treeBaseSize;
+
+    /**
+     * The running sums without NaN values and the number of NaN values in the window for every index in streaming mode.
+     */
+    private final DenseBuffer sums = new DenseBuffer();
+    private final DenseBuffer nanCounts = new DenseBuffer();
+
+    /**
+     * The size of the base at the last update. A change means that elements were inserted.
+     */
+    private int notifiedBaseSize;
 
     public Sum(Timeline<? extends Number> base, int length) {
         this(base, length, false);
     }
 
     public Sum(Timeline<? extends Number> base, int length, boolean eager) {
+        this(base, length, eager, false);
+    }
+
+    /**
+     * @param streaming If true, the sums are calculated in order with a running sum and stored densely
+     *                  so that appending a value takes O(1) time. Accessing a value for the first time
+     *                  calculates all sums up to its index.
+     *                  Otherwise, the base values are kept in a Fenwick tree so that every sum takes O(log n) time.
+     */
+    public Sum(Timeline<? extends Number> base, int length, boolean eager, boolean streaming) {
         super(base);
 
         Preconditions.checkArgument(length > 0);
 
         this.length = length;
         this.eager = eager;
+        this.streaming = streaming;
+        this.notifiedBaseSize = base.size();
     }
 
     @Override
     protected Double map(Instant instant, Number number) {
         if (number == null) {
-            cache.remove(instant);
-
-            for (int i = 0; i < length; i++) {
-                Timestamped<? extends Number> t = getBase().higher(instant);
-
-                if (t == null) {
-                    break;
-                } else {
-                    instant = t.timestamp();
-                    cache.remove(instant);
-                }
-            }
-
             return null;
         }
 
-        return getSum(instant);
+        return getDouble(indexOf(instant));
     }
 
-    private Double getSum(Instant instant) {
-        return cache.computeIfAbsent(instant, this::calculateSum);
-    }
+    private void fillTrees(int to) {
+        int from = values.size();
 
-    private Double calculateSum(Instant instant) {
-        Timestamped<? extends Number> n = getBase().get(instant);
+        if (from >= to) {
+            return;
+        }
 
-        if (n == null) {
-            return null;
+        double[] v = new double[to - from];
+        DoubleTimeline.copyRange(getBase(), from, to, v);
+
+        for (double d : v) {
+            boolean nan = Double.isNaN(d);
+            values.add(nan ? 0 : d);
+            nans.add(nan ? 1 : 0);
         }
 
-        int i = getBase().indexOf(instant);
+        treeBaseSize = getBase().size();
+    }
 
-        if (!eager && i + 1 < length) {
-            return Double.NaN;
+    private void updateTrees(int from, int to) {
+        if (getBase().size() != treeBaseSize) {
+            values.truncate(from);
+            nans.truncate(from);
+            treeBaseSize = getBase().size();
+            return;
         }
 
-        if (!eager && i + 1 == length) {
-            return calculateSumByIteration(i);
+        for (int i = from; i < Math.min(to, values.size()); i++) {
+            double d = DoubleTimeline.getDouble(getBase(), i);
+            boolean nan = Double.isNaN(d);
+            values.set(i, nan ? 0 : d);
+            nans.set(i, nan ? 1 : 0);
         }
+    }
 
-        if (length > 5) {
-            if (i > 0) {
-                Timestamped<? extends Number> l = getBase().lower(instant);
-                if (cache.containsKey(l.timestamp())) {
-                    return calculateSumBasedOnLower(i, cache.get(l.timestamp()));
-                }
+    private void calculateStreamingSums(int to) {
+        for (int i = sums.size(); i < to; i++) {
+            double v = DoubleTimeline.getDouble(getBase(), i);
+            double sum = i > 0 ? sums.get(i - 1) : 0;
+            double n = i > 0 ? nanCounts.get(i - 1) : 0;
+
+            if (Double.isNaN(v)) {
+                n++;
+            } else {
+                sum += v;
             }
 
-            if (i != getBase().size() - 1) {
-                Timestamped<? extends Number> h = getBase().higher(instant);
-                if (cache.containsKey(h.timestamp())) {
-                    return calculateSumBasedOnHigher(i, cache.get(h.timestamp()));
+            if (i >= length) {
+                double o = DoubleTimeline.getDouble(getBase(), i - length);
+                if (Double.isNaN(o)) {
+                    n--;
+                } else {
+                    sum -= o;
                 }
             }
+
+            sums.add(sum);
+            nanCounts.add(n);
         }
+    }
 
-        return calculateSumByIteration(i);
+    private double getStreamingSum(int i) {
+        return nanCounts.get(i) > 0 || (!eager && i + 1 < length) ? Double.NaN : sums.get(i);
     }
 
-    private double calculateSumBasedOnLower(int index, double lowerSum) {
-        double n = getBase().get(index).value().doubleValue();
+    @Override
+    public double getDouble(int i) {
+        Preconditions.checkIndex(i, size());
+
+        if (streaming) {
+            calculateStreamingSums(i + 1);
+            return getStreamingSum(i);
+        }
 
-        if (index - length >= 0) {
-            return lowerSum - getBase().get(index - length).value().doubleValue() + n;
+        if (!eager && i + 1 < length) {
+            return Double.NaN;
         }
 
-        return lowerSum + n;
-    }
+        fillTrees(i + 1);
 
-    private double calculateSumBasedOnHigher(int index, double higherSum) {
-        double n = getBase().get(index + 1).value().doubleValue();
+        int start = Math.max(i - length + 1, 0);
+        return nans.sum(start, i + 1) > 0 ? Double.NaN : values.sum(start, i + 1);
+    }
 
-        if (index - length + 1 >= 0) {
-            return higherSum - n + getBase().get(index - length + 1).value().doubleValue();
+    /**
+     * Calculates the sums with a sliding window over the base values instead of accessing each sum separately.
+     */
+    @Override
+    public void copyRange(int from, int to, double[] dst) {
+        Preconditions.checkIndex(to, size() + 1);
+        Preconditions.checkIndex(from, to + 1);
+        Preconditions.checkArgument(dst.length >= to - from);
+
+        if (streaming) {
+            calculateStreamingSums(to);
+            for (int i = from; i < to; i++) {
+                dst[i - from] = getStreamingSum(i);
+            }
+            return;
         }
 
-        return higherSum - n;
-    }
+        int start = Math.max(from - length + 1, 0);
 
-    private double calculateSumByIteration(int index) {
-        double sum = 0;
+        double[] values = new double[to - start];
+        DoubleTimeline.copyRange(getBase(), start, to, values);
 
-        var it = getBase().listIterator(index + 1);
-        for (int i = 0; it.hasPrevious(); ) {
-            sum += it.previous().value().doubleValue();
+        double sum = 0;
+        int nans = 0;
+
+        for (int i = start; i < to; i++) {
+            double v = values[i - start];
+            if (Double.isNaN(v)) {
+                nans++;
+            } else {
+                sum += v;
+            }
 
-            i++;
+            if (i - length >= start) {
+                double o = values[i - length - start];
+                if (Double.isNaN(o)) {
+                    nans--;
+                } else {
+                    sum -= o;
+                }
+            }
 
-            if (i == length) {
-                break;
+            if (i >= from) {
+                dst[i - from] = nans > 0 || (!eager && i + 1 < length) ? Double.NaN : sum;
             }
         }
-
-        return sum;
     }
 
     @Override
     protected void onBaseUpdate(Instant instant, Number newBaseValue) {
-        List<Instant> instantsToUpdate = new ArrayList<>();
-
-        instantsToUpdate.add(instant);
+        int i = indexOf(instant);
 
-        int index = higherIndexOf(instant);
-        if (index >= 0) {
-            var it = getBase().listIterator(index);
-            for (int i = 0; i < length && it.hasNext(); i++) {
-                instantsToUpdate.add(it.next().timestamp());
-            }
+        if (i < 0) {
+            onUpdate(instant, null);
+            onBaseRangeUpdate(-i - 1, -i - 1);
+        } else {
+            onBaseRangeUpdate(i, i + 1);
         }
+    }
 
-        instantsToUpdate.forEach(cache::remove);
-
-        if (!hasListeners()) {
-            return;
+    /**
+     * Every sum in the range [from, to + length - 1) is affected by an update of the base range [from, to).
+     * If elements were inserted, all sums from the start of the range on are shifted.
+     */
+    @Override
+    protected void onBaseRangeUpdate(int from, int to) {
+        int baseSize = getBase().size();
+        int end = baseSize != notifiedBaseSize ? size() : Math.min(to + length - 1, size());
+        notifiedBaseSize = baseSize;
+
+        if (streaming) {
+            sums.truncate(from);
+            nanCounts.truncate(from);
+        } else {
+            updateTrees(from, to);
         }
 
-        for (Instant i : instantsToUpdate) {
-            onUpdate(i, getSum(i));
+        if (hasListeners()) {
+            onRangeUpdate(Math.min(from, end), end);
         }
     }
 
@@ -164,4 +244,8 @@ public final class Sum extends MappedTimeline<Number, Double> {
     public boolean isEager() {
         return eager;
     }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
 }
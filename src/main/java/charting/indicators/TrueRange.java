@@ -1,17 +1,20 @@
 package charting.indicators;
 
 import charting.data.Candle;
+import charting.timeline.DoubleTimeline;
 import charting.timeline.MappedTimeline;
 import charting.timeline.Timeline;
+import charting.timeline.TimelineCursor;
 import charting.timeline.Timestamped;
 import charting.util.MathUtil;
+import charting.util.Preconditions;
 
 import java.time.Instant;
 
 /**
  * The true range is defined as max(high - low, abs(close - previous high), abs(close - previous low)).
  */
-public final class TrueRange extends MappedTimeline<Candle, Double> {
+public final class TrueRange extends MappedTimeline<Candle, Double> implements DoubleTimeline {
     public TrueRange(Timeline<? extends Candle> base) {
         super(base);
     }
@@ -21,15 +24,37 @@ public final class TrueRange extends MappedTimeline<Candle, Double> {
         return calculate(getValue(getBase().lower(instant)), candle);
     }
 
-    private Double calculate(Candle p, Candle c) {
-        double h = c.getHigh().doubleValue();
-        double l = c.getLow().doubleValue();
+    @Override
+    public double getDouble(int i) {
+        Preconditions.checkIndex(i, size());
+        return calculate(i == 0 ? null : getBase().get(i - 1).value(), getBase().get(i).value());
+    }
+
+    @Override
+    public void copyRange(int from, int to, double[] dst) {
+        Preconditions.checkIndex(to, size() + 1);
+        Preconditions.checkIndex(from, to + 1);
+        Preconditions.checkArgument(dst.length >= to - from);
+
+        TimelineCursor<? extends Candle> c = getBase().cursor(from - 1);
+        Candle previous = from == 0 ? null : c.value();
+
+        for (int i = from; i < to && c.advance(); i++) {
+            Candle current = c.value();
+            dst[i - from] = calculate(previous, current);
+            previous = current;
+        }
+    }
+
+    private double calculate(Candle p, Candle c) {
+        double h = c.getHighDouble();
+        double l = c.getLowDouble();
 
         if (p == null) {
             return h - l;
         }
 
-        double cp = p.getClose().doubleValue();
+        double cp = p.getCloseDouble();
 
         return MathUtil.getMax(h - l, Math.abs(h - cp), Math.abs(l - cp));
     }
@@ -59,4 +84,14 @@ public final class TrueRange extends MappedTimeline<Candle, Double> {
                     calculate(newBaseValue == null ? getValue(predecessor) : newBaseValue, successor.value()));
         }
     }
+
+    /**
+     * The true range of the element after the range depends on the last element of the range.
+     */
+    @Override
+    protected void onBaseRangeUpdate(int from, int to) {
+        if (hasListeners()) {
+            onRangeUpdate(from, Math.min(to + 1, size()));
+        }
+    }
 }
@@ -20,7 +20,7 @@ public final class TypicalPrice extends MappedTimeline<Candle, Double> {
             return null;
         }
 
-        return (candle.getHigh().doubleValue() + candle.getLow().doubleValue() + candle.getClose().doubleValue()) / 3;
+        return (candle.getHighDouble() + candle.getLowDouble() + candle.getCloseDouble()) / 3;
     }
 
     @Override
@@ -31,4 +31,11 @@ public final class TypicalPrice extends MappedTimeline<Candle, Double> {
 
         onUpdate(instant, map(instant, newBaseValue));
     }
+
+    @Override
+    protected void onBaseRangeUpdate(int from, int to) {
+        if (hasListeners()) {
+            onRangeUpdate(from, to);
+        }
+    }
 }
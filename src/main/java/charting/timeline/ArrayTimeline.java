@@ -0,0 +1,419 @@
+package charting.timeline;
+
+import charting.util.Preconditions;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * A {@link Timeline} implementation based on sorted parallel arrays.
+ * Provides O(1) access by index, O(log n) access by instant and amortized O(1) appending of elements
+ * that are newer than the last element. Inserting an element before the last element takes O(n) time.
+ */
+public final class ArrayTimeline<T> extends NotificationBaseTimeline<T> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] seconds;
+    private int[] nanos;
+    private Object[] values;
+
+    private int size;
+
+    private int modCount;
+
+    public ArrayTimeline() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ArrayTimeline(int initialCapacity) {
+        Preconditions.checkArgument(initialCapacity >= 0);
+
+        seconds = new long[initialCapacity];
+        nanos = new int[initialCapacity];
+        values = new Object[initialCapacity];
+    }
+
+    /**
+     * @return A new timeline with the elements of the given timeline whose instants are in [from, to).
+     */
+    public static <T> ArrayTimeline<T> copyOf(Timeline<? extends T> timeline, Instant from, Instant to) {
+        int start = timeline.ceilingIndexOf(from);
+        if (start < 0) {
+            return new ArrayTimeline<>(0);
+        }
+
+        int end = timeline.ceilingIndexOf(to);
+        if (end < 0) {
+            end = timeline.size();
+        }
+
+        ArrayTimeline<T> copy = new ArrayTimeline<>(Math.max(0, end - start));
+        TimelineCursor<? extends T> c = timeline.cursor(start - 1);
+        while (c.advance() && c.index() < end) {
+            copy.set(copy.size++, c.timestamp(), c.value());
+        }
+
+        return copy;
+    }
+
+    public void put(Instant instant, T value) {
+        modCount++;
+
+        int i = size == 0 || compare(size - 1, instant) < 0 ? -size - 1 : indexOf(instant);
+
+        if (i >= 0) {
+            values[i] = value;
+        } else {
+            insert(-i - 1, instant, value);
+        }
+
+        onUpdate(instant, value);
+    }
+
+    /**
+     * Puts all given elements in one go in O(n + m) time, where n is the size of this timeline and m the number
+     * of elements. Appending elements that are newer than the last element takes O(m) time.
+     * Listeners are notified once after all elements were put.
+     *
+     * @param elements The elements to put in strictly ascending order of their instants.
+     * @throws IllegalArgumentException If the elements are not in strictly ascending order.
+     */
+    public void putAll(Iterable<? extends Timestamped<? extends T>> elements) {
+        List<Timestamped<? extends T>> l = new ArrayList<>();
+        for (Timestamped<? extends T> t : elements) {
+            Preconditions.checkArgument(l.isEmpty() || l.get(l.size() - 1).timestamp().isBefore(t.timestamp()),
+                    "Elements are not in strictly ascending order.");
+            l.add(t);
+        }
+
+        if (l.isEmpty()) {
+            return;
+        }
+
+        // Before changing anything, so that elements shifted by an insertion are reported as well.
+        beginUpdate();
+        try {
+            modCount++;
+
+            if (size == 0 || compare(size - 1, l.get(0).timestamp()) < 0) {
+                ensureCapacity(size + l.size());
+                for (Timestamped<? extends T> t : l) {
+                    set(size++, t.timestamp(), t.value());
+                }
+            } else {
+                merge(l);
+            }
+
+            onUpdate(l.get(0).timestamp(), l.get(0).value());
+            onUpdate(l.get(l.size() - 1).timestamp(), l.get(l.size() - 1).value());
+        } finally {
+            endUpdate();
+        }
+    }
+
+    /**
+     * @see #putAll(Iterable)
+     */
+    public void putAll(SortedMap<Instant, ? extends T> elements) {
+        Preconditions.checkArgument(elements.comparator() == null, "Elements must be sorted by natural order.");
+
+        List<Timestamped<T>> l = new ArrayList<>(elements.size());
+        elements.forEach((k, v) -> l.add(new Timestamped<>(k, v)));
+
+        putAll(l);
+    }
+
+    private void merge(List<Timestamped<? extends T>> elements) {
+        long[] oldSeconds = seconds;
+        int[] oldNanos = nanos;
+        Object[] oldValues = values;
+        int oldSize = size;
+
+        int capacity = Math.max(oldSize + elements.size(), seconds.length);
+        seconds = new long[capacity];
+        nanos = new int[capacity];
+        values = new Object[capacity];
+        size = 0;
+
+        int i = 0;
+        for (Timestamped<? extends T> t : elements) {
+            Instant instant = t.timestamp();
+
+            while (i < oldSize && compare(oldSeconds[i], oldNanos[i], instant) < 0) {
+                seconds[size] = oldSeconds[i];
+                nanos[size] = oldNanos[i];
+                values[size++] = oldValues[i++];
+            }
+
+            if (i < oldSize && compare(oldSeconds[i], oldNanos[i], instant) == 0) {
+                i++;
+            }
+
+            set(size++, instant, t.value());
+        }
+
+        int rest = oldSize - i;
+        System.arraycopy(oldSeconds, i, seconds, size, rest);
+        System.arraycopy(oldNanos, i, nanos, size, rest);
+        System.arraycopy(oldValues, i, values, size, rest);
+        size += rest;
+    }
+
+    /**
+     * Increases the capacity to hold at least the given number of elements without further reallocation.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > seconds.length) {
+            int newCapacity = Math.max(capacity, seconds.length + (seconds.length >> 1));
+            seconds = Arrays.copyOf(seconds, newCapacity);
+            nanos = Arrays.copyOf(nanos, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+    }
+
+    private void insert(int index, Instant instant, T value) {
+        ensureCapacity(size + 1);
+
+        if (index < size) {
+            System.arraycopy(seconds, index, seconds, index + 1, size - index);
+            System.arraycopy(nanos, index, nanos, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+        }
+
+        set(index, instant, value);
+        size++;
+    }
+
+    private void set(int index, Instant instant, T value) {
+        seconds[index] = instant.getEpochSecond();
+        nanos[index] = instant.getNano();
+        values[index] = value;
+    }
+
+    private int compare(int index, Instant instant) {
+        return compare(seconds[index], nanos[index], instant);
+    }
+
+    private static int compare(long seconds, int nanos, Instant instant) {
+        int c = Long.compare(seconds, instant.getEpochSecond());
+        return c != 0 ? c : Integer.compare(nanos, instant.getNano());
+    }
+
+    private Instant getInstant(int index) {
+        return Instant.ofEpochSecond(seconds[index], nanos[index]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T value(int index) {
+        return (T) values[index];
+    }
+
+    private Timestamped<T> extract(int index) {
+        return (index < 0 || index >= size) ? null : new Timestamped<>(getInstant(index), value(index));
+    }
+
+    @Override
+    public Timestamped<T> first() {
+        return extract(0);
+    }
+
+    @Override
+    public Timestamped<T> last() {
+        return extract(size - 1);
+    }
+
+    @Override
+    public Timestamped<T> get(Instant instant) {
+        return extract(indexOf(instant));
+    }
+
+    @Override
+    public Timestamped<T> floor(Instant instant) {
+        return extract(floorIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<T> ceiling(Instant instant) {
+        return extract(ceilingIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<T> lower(Instant instant) {
+        return extract(lowerIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<T> higher(Instant instant) {
+        return extract(higherIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<T> get(int i) {
+        Preconditions.checkArgument(i >= 0);
+        return extract(i);
+    }
+
+    @Override
+    public T getValue(int i) {
+        Preconditions.checkIndex(i, size);
+        return value(i);
+    }
+
+    @Override
+    public ListIterator<Timestamped<T>> listIterator(int i) {
+        Preconditions.checkIndex(i, size() + 1);
+        return new ListIteratorImpl(i);
+    }
+
+    @Override
+    public ListIterator<Timestamped<T>> listIterator(Instant instant) {
+        return listIterator(indexOf(instant));
+    }
+
+    @Override
+    public TimelineCursor<T> cursor(int i) {
+        Preconditions.checkIndex(i + 1, size + 2);
+        return new CursorImpl(i);
+    }
+
+    @Override
+    public int indexOf(Instant instant) {
+        int low = 0;
+        int high = size - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = compare(mid, instant);
+
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -(low + 1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private class ListIteratorImpl implements ListIterator<Timestamped<T>> {
+        final int expectedModCount = modCount;
+
+        int nextIndex;
+
+        ListIteratorImpl(int index) {
+            this.nextIndex = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public Timestamped<T> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return extract(nextIndex++);
+        }
+
+        @Override
+        public Timestamped<T> previous() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+
+            return extract(--nextIndex);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(Timestamped<T> t) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(Timestamped<T> t) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class CursorImpl implements TimelineCursor<T> {
+        final int expectedModCount = modCount;
+
+        int index;
+
+        CursorImpl(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public boolean advance() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            index = Math.min(index + 1, size);
+            return index < size;
+        }
+
+        @Override
+        public boolean retreat() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            index = Math.max(index - 1, -1);
+            return index >= 0;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public Instant timestamp() {
+            Preconditions.checkIndex(index, size);
+            return getInstant(index);
+        }
+
+        @Override
+        public T value() {
+            return getValue(index);
+        }
+    }
+}
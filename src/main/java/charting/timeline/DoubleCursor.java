@@ -0,0 +1,12 @@
+package charting.timeline;
+
+/**
+ * A {@link TimelineCursor} over a {@link DoubleTimeline} that also gives access to the values without boxing.
+ */
+public interface DoubleCursor extends TimelineCursor<Double> {
+    /**
+     * @return The value of the element the cursor is positioned at.
+     * @throws IndexOutOfBoundsException If the cursor is not positioned at an element.
+     */
+    double doubleValue();
+}
@@ -0,0 +1,96 @@
+package charting.timeline;
+
+import charting.util.Preconditions;
+
+import java.time.Instant;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A {@link DoubleTimeline} implementation where every element of a base {@link Timeline}
+ * is mapped to exactly one double by using a mapper.
+ */
+public final class DoubleMapperTimeline<T> extends MappedTimeline<T, Double> implements DoubleTimeline {
+    private final ToDoubleFunction<? super T> mapper;
+
+    public DoubleMapperTimeline(Timeline<? extends T> base, ToDoubleFunction<? super T> mapper) {
+        super(base);
+
+        this.mapper = mapper;
+    }
+
+    @Override
+    protected Double map(Instant instant, T t) {
+        return mapper.applyAsDouble(t);
+    }
+
+    @Override
+    protected void onBaseUpdate(Instant instant, T newBaseValue) {
+        if (!hasListeners()) {
+            return;
+        }
+
+        onUpdate(instant, newBaseValue == null ? null : map(instant, newBaseValue));
+    }
+
+    @Override
+    protected void onBaseRangeUpdate(int from, int to) {
+        if (hasListeners()) {
+            onRangeUpdate(from, to);
+        }
+    }
+
+    @Override
+    public double getDouble(int i) {
+        Preconditions.checkIndex(i, size());
+        return mapper.applyAsDouble(getBase().getValue(i));
+    }
+
+    @Override
+    public void copyRange(int from, int to, double[] dst) {
+        Preconditions.checkIndex(to, size() + 1);
+        Preconditions.checkIndex(from, to + 1);
+        Preconditions.checkArgument(dst.length >= to - from);
+
+        TimelineCursor<? extends T> c = getBase().cursor(from - 1);
+        for (int i = from; i < to && c.advance(); i++) {
+            dst[i - from] = mapper.applyAsDouble(c.value());
+        }
+    }
+
+    @Override
+    public DoubleCursor doubleCursor(int i) {
+        TimelineCursor<? extends T> c = getBase().cursor(i);
+
+        return new DoubleCursor() {
+            @Override
+            public boolean advance() {
+                return c.advance();
+            }
+
+            @Override
+            public boolean retreat() {
+                return c.retreat();
+            }
+
+            @Override
+            public int index() {
+                return c.index();
+            }
+
+            @Override
+            public Instant timestamp() {
+                return c.timestamp();
+            }
+
+            @Override
+            public Double value() {
+                return doubleValue();
+            }
+
+            @Override
+            public double doubleValue() {
+                return mapper.applyAsDouble(c.value());
+            }
+        };
+    }
+}
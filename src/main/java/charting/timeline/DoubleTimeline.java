@@ -0,0 +1,79 @@
+package charting.timeline;
+
+import charting.util.Preconditions;
+
+/**
+ * A {@link Timeline} of doubles which also offers access to its values without boxing.
+ */
+public interface DoubleTimeline extends Timeline<Double> {
+    /**
+     * @return The value at the given index.
+     * @throws IndexOutOfBoundsException If the index is out of the range (index < 0 || index >= size()).
+     */
+    double getDouble(int i);
+
+    @Override
+    default Double getValue(int i) {
+        return getDouble(i);
+    }
+
+    /**
+     * Copies the values in the index range [from, to) into the given array starting at index 0.
+     *
+     * @throws IndexOutOfBoundsException If the range is not within [0, size()].
+     * @throws IllegalArgumentException  If the array is too small.
+     */
+    default void copyRange(int from, int to, double[] dst) {
+        checkRange(from, to, size(), dst);
+
+        for (int i = from; i < to; i++) {
+            dst[i - from] = getDouble(i);
+        }
+    }
+
+    /**
+     * @return A {@link DoubleCursor} positioned at the given index.
+     * @throws IndexOutOfBoundsException If the index is out of the range (index < -1 || index > size()).
+     */
+    default DoubleCursor doubleCursor(int i) {
+        return new IndexCursor.OfDouble(this, i);
+    }
+
+    /**
+     * @return The value at the given index of the given timeline, without boxing if it is a {@link DoubleTimeline}.
+     * @throws IndexOutOfBoundsException If the index is out of the range (index < 0 || index >= size()).
+     */
+    static double getDouble(Timeline<? extends Number> timeline, int i) {
+        if (timeline instanceof DoubleTimeline d) {
+            return d.getDouble(i);
+        }
+
+        return timeline.getValue(i).doubleValue();
+    }
+
+    /**
+     * Copies the values in the index range [from, to) of the given timeline into the given array,
+     * without boxing if it is a {@link DoubleTimeline}.
+     *
+     * @see #copyRange(int, int, double[])
+     */
+    static void copyRange(Timeline<? extends Number> timeline, int from, int to, double[] dst) {
+        if (timeline instanceof DoubleTimeline d) {
+            d.copyRange(from, to, dst);
+            return;
+        }
+
+        checkRange(from, to, timeline.size(), dst);
+
+        TimelineCursor<? extends Number> c = timeline.cursor(from - 1);
+        for (int i = from; i < to && c.advance(); i++) {
+            dst[i - from] = c.value().doubleValue();
+        }
+    }
+
+    private static void checkRange(int from, int to, int size, double[] dst) {
+        Preconditions.checkIndex(to, size + 1);
+        Preconditions.checkIndex(from, to + 1);
+        Preconditions.checkArgument(dst.length >= to - from);
+    }
+}
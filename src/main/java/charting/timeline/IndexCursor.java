@@ -0,0 +1,76 @@
+package charting.timeline;
+
+import charting.util.Preconditions;
+
+import java.time.Instant;
+
+/**
+ * A {@link TimelineCursor} that accesses the elements of a {@link Timeline} by their index.
+ */
+class IndexCursor<T> implements TimelineCursor<T> {
+    private final Timeline<T> timeline;
+
+    private int index;
+
+    private Timestamped<T> current;
+
+    IndexCursor(Timeline<T> timeline, int index) {
+        Preconditions.checkIndex(index + 1, timeline.size() + 2);
+
+        this.timeline = timeline;
+        this.index = index;
+    }
+
+    @Override
+    public boolean advance() {
+        index = Math.min(index + 1, timeline.size());
+        current = null;
+        return index < timeline.size();
+    }
+
+    @Override
+    public boolean retreat() {
+        index = Math.max(index - 1, -1);
+        current = null;
+        return index >= 0;
+    }
+
+    @Override
+    public int index() {
+        return index;
+    }
+
+    @Override
+    public Instant timestamp() {
+        return current().timestamp();
+    }
+
+    @Override
+    public T value() {
+        return current().value();
+    }
+
+    private Timestamped<T> current() {
+        if (current == null) {
+            Preconditions.checkIndex(index, timeline.size());
+            current = timeline.get(index);
+        }
+
+        return current;
+    }
+
+    static final class OfDouble extends IndexCursor<Double> implements DoubleCursor {
+        private final DoubleTimeline timeline;
+
+        OfDouble(DoubleTimeline timeline, int index) {
+            super(timeline, index);
+
+            this.timeline = timeline;
+        }
+
+        @Override
+        public double doubleValue() {
+            return timeline.getDouble(index());
+        }
+    }
+}
@@ -12,7 +12,17 @@ import java.util.ListIterator;
 public abstract class MappedTimeline<T, R> extends NotificationBaseTimeline<R> {
     private final Timeline<? extends T> base;
 
-    private final TimelineListener<T> listener = this::onBaseUpdate;
+    private final TimelineListener<T> listener = new TimelineRangeListener<>() {
+        @Override
+        public void onUpdate(Instant instant, T newValue) {
+            onBaseUpdate(instant, newValue);
+        }
+
+        @Override
+        public void onRangeUpdate(int from, int to) {
+            onBaseRangeUpdate(from, to);
+        }
+    };
 
     protected MappedTimeline(Timeline<? extends T> base) {
         this.base = base;
@@ -46,6 +56,22 @@ public abstract class MappedTimeline<T, R> extends NotificationBaseTimeline<R> {
      */
     protected abstract void onBaseUpdate(Instant instant, T newBaseValue);
 
+    /**
+     * Called whenever the base elements in the index range [from, to) are updated at once. By default
+     * {@link #onBaseUpdate} is called for every element in the range while the notification of listeners is deferred.
+     */
+    protected void onBaseRangeUpdate(int from, int to) {
+        beginUpdate();
+        try {
+            TimelineCursor<? extends T> c = base.cursor(from - 1);
+            while (c.advance() && c.index() < to) {
+                onBaseUpdate(c.timestamp(), c.value());
+            }
+        } finally {
+            endUpdate();
+        }
+    }
+
     @Override
     public Timestamped<R> first() {
         return export(base.first());
@@ -145,6 +171,38 @@ public abstract class MappedTimeline<T, R> extends NotificationBaseTimeline<R> {
         return listIterator(indexOf(instant));
     }
 
+    @Override
+    public TimelineCursor<R> cursor(int i) {
+        TimelineCursor<? extends T> c = base.cursor(i);
+
+        return new TimelineCursor<>() {
+            @Override
+            public boolean advance() {
+                return c.advance();
+            }
+
+            @Override
+            public boolean retreat() {
+                return c.retreat();
+            }
+
+            @Override
+            public int index() {
+                return c.index();
+            }
+
+            @Override
+            public Instant timestamp() {
+                return c.timestamp();
+            }
+
+            @Override
+            public R value() {
+                return map(c.timestamp(), c.value());
+            }
+        };
+    }
+
     @Override
     public int indexOf(Instant instant) {
         return base.indexOf(instant);
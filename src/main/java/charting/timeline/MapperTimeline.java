@@ -35,4 +35,11 @@ public final class MapperTimeline<T, R> extends MappedTimeline<T, R> {
         R newValue = newBaseValue == null ? null : map(instant, newBaseValue);
         onUpdate(instant, newValue);
     }
+
+    @Override
+    protected void onBaseRangeUpdate(int from, int to) {
+        if (hasListeners()) {
+            onRangeUpdate(from, to);
+        }
+    }
 }
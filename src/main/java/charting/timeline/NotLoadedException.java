@@ -0,0 +1,14 @@
+package charting.timeline;
+
+/**
+ * Thrown when the value of an element is accessed which is not in memory at the moment, e.g. because its segment of
+ * a {@link PagedTimeline} was evicted. The element is loaded in the background, and the listeners of the timeline
+ * are notified once it is available, so readers can give up and read again then.
+ */
+public class NotLoadedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public NotLoadedException(String message) {
+        super(message);
+    }
+}
@@ -1,9 +1,12 @@
 package charting.timeline;
 
+import charting.util.Preconditions;
+
 import java.lang.ref.WeakReference;
 import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 /**
  * An abstract {@link Timeline} base class that handles the listener notification aspect.
@@ -13,32 +16,140 @@ public abstract class NotificationBaseTimeline<T> implements Timeline<T> {
 
     private boolean isNotifying;
 
+    private int updateDepth;
+
+    private int sizeBeforeUpdate;
+
+    private Instant firstUpdated;
+
+    private Instant lastUpdated;
+
     protected void onUpdate(Instant instant, T newValue) {
+        if (updateDepth > 0) {
+            recordUpdate(instant, instant);
+            return;
+        }
+
+        notifyListeners(l -> l.onUpdate(instant, newValue));
+    }
+
+    /**
+     * Notifies the listeners that the elements in the index range [from, to) were updated.
+     * {@link TimelineRangeListener}s are notified once, all other listeners once for every element in the range.
+     */
+    protected void onRangeUpdate(int from, int to) {
+        Preconditions.checkIndex(to, size() + 1);
+        Preconditions.checkIndex(from, to + 1);
+
+        if (from == to) {
+            return;
+        }
+
+        if (updateDepth > 0) {
+            recordUpdate(get(from).timestamp(), get(to - 1).timestamp());
+            return;
+        }
+
+        notifyListeners(l -> {
+            if (l instanceof TimelineRangeListener<?> r) {
+                r.onRangeUpdate(from, to);
+            } else {
+                TimelineCursor<T> c = cursor(from - 1);
+                while (c.advance() && c.index() < to) {
+                    l.onUpdate(c.timestamp(), c.value());
+                }
+            }
+        });
+    }
+
+    private void notifyListeners(Consumer<TimelineListener<? super T>> action) {
         if (isNotifying) {
             throw new IllegalStateException();
         }
 
         isNotifying = true;
 
-        for (Object l : listeners) {
-            if (l instanceof TimelineListener<?>) {
-                @SuppressWarnings("unchecked")
-                TimelineListener<? super T> t = (TimelineListener<? super T>) l;
-                
-                t.onUpdate(instant, newValue);
-            } else {
-                @SuppressWarnings("unchecked")
-                TimelineListener<? super T> t = ((WeakReference<? extends TimelineListener<? super T>>) l).get();
+        // A listener may throw, e.g. a NotLoadedException while it reads the timeline.
+        try {
+            for (Object l : listeners) {
+                if (l instanceof TimelineListener<?>) {
+                    @SuppressWarnings("unchecked")
+                    TimelineListener<? super T> t = (TimelineListener<? super T>) l;
 
-                if (t == null) {
-                    listeners.remove(l);
+                    action.accept(t);
                 } else {
-                    t.onUpdate(instant, newValue);
+                    @SuppressWarnings("unchecked")
+                    TimelineListener<? super T> t = ((WeakReference<? extends TimelineListener<? super T>>) l).get();
+
+                    if (t == null) {
+                        listeners.remove(l);
+                    } else {
+                        action.accept(t);
+                    }
                 }
             }
+        } finally {
+            isNotifying = false;
+        }
+    }
+
+    private void recordUpdate(Instant first, Instant last) {
+        if (firstUpdated == null || first.isBefore(firstUpdated)) {
+            firstUpdated = first;
+        }
+        if (lastUpdated == null || last.isAfter(lastUpdated)) {
+            lastUpdated = last;
+        }
+    }
+
+    /**
+     * Starts deferring the notification of listeners until the matching call of {@link #endUpdate()}.
+     * Calls can be nested.
+     */
+    public void beginUpdate() {
+        if (updateDepth++ == 0) {
+            sizeBeforeUpdate = size();
+        }
+    }
+
+    /**
+     * Ends deferring the notification of listeners. When the outermost update ends, all updates since the matching
+     * call of {@link #beginUpdate()} are coalesced into a single range notification.
+     *
+     * @throws IllegalStateException If there is no matching call of {@link #beginUpdate()}.
+     */
+    public void endUpdate() {
+        if (updateDepth == 0) {
+            throw new IllegalStateException();
+        }
+
+        if (--updateDepth > 0 || firstUpdated == null) {
+            return;
         }
 
-        isNotifying = false;
+        int from = indexOf(firstUpdated);
+        int last = indexOf(lastUpdated);
+        firstUpdated = null;
+        lastUpdated = null;
+
+        from = from < 0 ? -from - 1 : from;
+        int to = size() != sizeBeforeUpdate ? size() : (last < 0 ? -last - 1 : last + 1);
+
+        onRangeUpdate(from, Math.max(from, to));
+    }
+
+    /**
+     * Runs the given action while deferring the notification of listeners.
+     *
+     * @see #beginUpdate()
+     */
+    public void batch(Runnable action) {
+        beginUpdate();
+        try {
+            action.run();
+        } finally {
+            endUpdate();
+        }
     }
 
     @Override
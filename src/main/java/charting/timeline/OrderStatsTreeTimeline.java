@@ -20,6 +20,100 @@ public final class OrderStatsTreeTimeline<T> extends NotificationBaseTimeline<T>
         onUpdate(instant, value);
     }
 
+    /**
+     * Puts all given elements in one go. If the elements make up a large part of the resulting timeline,
+     * the tree is rebuilt in O(n) time instead of inserting every element separately.
+     * Listeners are notified once after all elements were put.
+     *
+     * @param elements The elements to put in strictly ascending order of their instants.
+     * @throws IllegalArgumentException If the elements are not in strictly ascending order.
+     */
+    public void putAll(Iterable<? extends Timestamped<? extends T>> elements) {
+        List<Timestamped<? extends T>> l = new ArrayList<>();
+        for (Timestamped<? extends T> t : elements) {
+            Preconditions.checkArgument(l.isEmpty() || l.get(l.size() - 1).timestamp().isBefore(t.timestamp()),
+                    "Elements are not in strictly ascending order.");
+            l.add(t);
+        }
+
+        if (l.isEmpty()) {
+            return;
+        }
+
+        beginUpdate();
+        try {
+            int size = size();
+            if ((long) l.size() * (32 - Integer.numberOfLeadingZeros(size)) < size) {
+                for (Timestamped<? extends T> t : l) {
+                    put(t.timestamp(), t.value());
+                }
+            } else {
+                modCount++;
+                List<Entry<T>> entries = merge(root, l);
+                root = build(entries, 0, entries.size(), null);
+                onUpdate(l.get(0).timestamp(), l.get(0).value());
+                onUpdate(l.get(l.size() - 1).timestamp(), l.get(l.size() - 1).value());
+            }
+        } finally {
+            endUpdate();
+        }
+    }
+
+    /**
+     * @see #putAll(Iterable)
+     */
+    public void putAll(SortedMap<Instant, ? extends T> elements) {
+        Preconditions.checkArgument(elements.comparator() == null, "Elements must be sorted by natural order.");
+
+        List<Timestamped<T>> l = new ArrayList<>(elements.size());
+        elements.forEach((k, v) -> l.add(new Timestamped<>(k, v)));
+
+        putAll(l);
+    }
+
+    private List<Entry<T>> merge(Entry<T> root, List<Timestamped<? extends T>> elements) {
+        List<Entry<T>> merged = new ArrayList<>(getSize(root) + elements.size());
+
+        Entry<T> e = getFirst(root);
+        for (Timestamped<? extends T> t : elements) {
+            while (e != null && e.key.isBefore(t.timestamp())) {
+                merged.add(e);
+                e = getSuccessor(e);
+            }
+
+            if (e != null && e.key.equals(t.timestamp())) {
+                e.value = t.value();
+                merged.add(e);
+                e = getSuccessor(e);
+            } else {
+                merged.add(new Entry<>(t.timestamp(), t.value()));
+            }
+        }
+
+        for (; e != null; e = getSuccessor(e)) {
+            merged.add(e);
+        }
+
+        return merged;
+    }
+
+    private Entry<T> build(List<Entry<T>> entries, int from, int to, Entry<T> parent) {
+        if (from == to) {
+            return null;
+        }
+
+        int mid = (from + to) >>> 1;
+        Entry<T> e = entries.get(mid);
+
+        e.parent = parent;
+        e.left = build(entries, from, mid, e);
+        e.right = build(entries, mid + 1, to, e);
+        e.size = to - from;
+        updateHeight(e);
+
+        return e;
+    }
+
     @Override
     public Timestamped<T> first() {
         return extract(getFirst(root));
@@ -61,6 +155,12 @@ public final class OrderStatsTreeTimeline<T> extends NotificationBaseTimeline<T>
         return extract(select(root, i));
     }
 
+    @Override
+    public T getValue(int i) {
+        Preconditions.checkIndex(i, size());
+        return select(root, i).getValue();
+    }
+
     @Override
     public ListIterator<Timestamped<T>> listIterator(int i) {
         Preconditions.checkIndex(i, size() + 1);
@@ -72,6 +172,12 @@ public final class OrderStatsTreeTimeline<T> extends NotificationBaseTimeline<T>
         return listIterator(indexOf(instant));
     }
 
+    @Override
+    public TimelineCursor<T> cursor(int i) {
+        Preconditions.checkIndex(i + 1, size() + 2);
+        return new CursorImpl(i);
+    }
+
     @Override
     public int indexOf(Instant instant) {
         return rank(root, instant);
@@ -513,4 +619,72 @@ public final class OrderStatsTreeTimeline<T> extends NotificationBaseTimeline<T>
             throw new UnsupportedOperationException();
         }
     }
+
+    private class CursorImpl implements TimelineCursor<T> {
+        final int expectedModCount = modCount;
+
+        Entry<T> current;
+        int index;
+
+        CursorImpl(int index) {
+            this.index = index;
+            this.current = index >= 0 ? select(root, index) : null;
+        }
+
+        @Override
+        public boolean advance() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            int size = size();
+            if (index >= size) {
+                return false;
+            }
+
+            index++;
+            current = current != null ? getSuccessor(current) : select(root, index);
+
+            return index < size;
+        }
+
+        @Override
+        public boolean retreat() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            if (index < 0) {
+                return false;
+            }
+
+            index--;
+            current = current != null ? getPredecessor(current) : select(root, index);
+
+            return index >= 0;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public Instant timestamp() {
+            return current().key;
+        }
+
+        @Override
+        public T value() {
+            return current().value;
+        }
+
+        private Entry<T> current() {
+            if (current == null) {
+                throw new IndexOutOfBoundsException(index);
+            }
+
+            return current;
+        }
+    }
 }
@@ -0,0 +1,711 @@
+package charting.timeline;
+
+import charting.util.Preconditions;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * A read-only {@link Timeline} of historical data which is loaded in segments of a fixed duration on demand.
+ * It starts empty and grows into the past with every call of {@link #loadPrevious()}, e.g. when the user pans
+ * towards the start of a chart. The history ends with the segment of the first element, whose instant is passed
+ * by the source, so gaps in the data don't end it early. Empty segments are skipped when loading.
+ * <p>
+ * Only a bounded number of segments is kept in memory, preferably those passed to {@link #retain(int, int)}.
+ * Evicted segments keep their size and instants, so the indices of the elements stay stable and searching by instant
+ * doesn't load anything. Accessing an element of an evicted segment throws a {@link NotLoadedException} and loads
+ * the segment again on the fetch executor. Once it was put back on the update executor, the listeners are notified
+ * by a range update of its elements. Therefore, the data must not change.
+ * <p>
+ * Segments are only evicted when elements are prepended or {@link #retain(int, int)} is called, so that a reader
+ * which needs more segments than the maximum, e.g. an indicator over the whole history, makes progress with every
+ * retry. The timeline may be read from any thread. Elements are prepended and listeners are notified while holding
+ * the {@link TimelineLock}.
+ */
+public final class PagedTimeline<T> extends NotificationBaseTimeline<T> {
+    /**
+     * Loads the elements of a segment, possibly multiple times.
+     */
+    @FunctionalInterface
+    public interface SegmentLoader<T> {
+        /**
+         * @return The elements with instants in [from, to) in strictly ascending order.
+         */
+        List<? extends Timestamped<? extends T>> load(Instant from, Instant to);
+    }
+
+    private final SegmentLoader<T> loader;
+    private final Instant start;
+    private final Instant end;
+    private final Duration segmentDuration;
+    private final int maxLoadedSegments;
+    private final Executor fetchExecutor;
+    private final Executor updateExecutor;
+
+    /**
+     * The segments in chronological order.
+     */
+    private final List<Segment<T>> segments = new ArrayList<>();
+
+    /**
+     * The segments whose elements are in memory, in the order of their last access.
+     */
+    private final LinkedHashMap<Segment<T>, Boolean> loadedSegments = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The segments which are never evicted, see {@link #retain(int, int)}.
+     */
+    private final Set<Segment<T>> retainedSegments = new HashSet<>();
+
+    private int size;
+    private boolean complete;
+
+    private CompletableFuture<Integer> pendingLoad;
+
+    /**
+     * Creates a timeline which loads evicted segments again on the thread which accesses them.
+     *
+     * @param start             The instant of the first element, where the history ends.
+     * @param end               The exclusive end of the newest segment, e.g. just after the last element.
+     * @param segmentDuration   The duration of the segments.
+     * @param maxLoadedSegments The maximum number of segments kept in memory.
+     */
+    public PagedTimeline(SegmentLoader<T> loader, Instant start, Instant end, Duration segmentDuration,
+                         int maxLoadedSegments) {
+        this(loader, start, end, segmentDuration, maxLoadedSegments, Runnable::run, Runnable::run);
+    }
+
+    /**
+     * @param fetchExecutor  The executor which loads evicted segments again.
+     * @param updateExecutor The executor which puts them back and notifies the listeners, e.g.
+     *                       {@code Platform::runLater} if the timeline is displayed.
+     */
+    public PagedTimeline(SegmentLoader<T> loader, Instant start, Instant end, Duration segmentDuration,
+                         int maxLoadedSegments, Executor fetchExecutor, Executor updateExecutor) {
+        Preconditions.checkArgument(!segmentDuration.isNegative() && !segmentDuration.isZero());
+        Preconditions.checkArgument(maxLoadedSegments >= 1);
+
+        this.loader = loader;
+        this.start = start;
+        this.end = end;
+        this.segmentDuration = segmentDuration;
+        this.maxLoadedSegments = maxLoadedSegments;
+        this.fetchExecutor = fetchExecutor;
+        this.updateExecutor = updateExecutor;
+
+        complete = !start.isBefore(end);
+    }
+
+    /**
+     * Loads the segments before the oldest one on the calling thread up to the first non-empty one and prepends their
+     * elements.
+     *
+     * @return The number of prepended elements, 0 if the history is complete.
+     */
+    public int loadPrevious() {
+        int n = 0;
+
+        while (n == 0) {
+            Instant from = getPreviousSegmentStart();
+            if (from == null) {
+                return 0;
+            }
+
+            n = prepend(from, loader.load(from, from.plus(segmentDuration)));
+        }
+
+        return n;
+    }
+
+    /**
+     * Loads the segments before the oldest one on the fetch executor up to the first non-empty one and prepends
+     * their elements on the update executor, e.g. {@code Platform::runLater} if the timeline is displayed. While a
+     * segment is being loaded, further calls return the same future.
+     *
+     * @return A future of the number of prepended elements, which completes on the update executor.
+     */
+    public CompletableFuture<Integer> loadPreviousAsync(Executor fetchExecutor, Executor updateExecutor) {
+        CompletableFuture<Integer> load = new CompletableFuture<>();
+        Instant from;
+
+        // The load is registered first, since it may complete right away with direct executors.
+        // It is started without holding the monitor, since prepending takes the TimelineLock.
+        synchronized (this) {
+            if (pendingLoad != null) {
+                return pendingLoad;
+            }
+
+            from = getPreviousSegmentStart();
+            if (from == null) {
+                return CompletableFuture.completedFuture(0);
+            }
+
+            pendingLoad = load;
+        }
+
+        CompletableFuture.supplyAsync(() -> loader.load(from, from.plus(segmentDuration)), fetchExecutor)
+                .handleAsync((elements, e) -> {
+                    synchronized (this) {
+                        pendingLoad = null;
+                    }
+
+                    if (e != null) {
+                        load.completeExceptionally(e instanceof CompletionException c ? c : new CompletionException(e));
+                        return null;
+                    }
+
+                    int n;
+                    try {
+                        n = prepend(from, elements);
+                    } catch (RuntimeException | Error x) {
+                        load.completeExceptionally(x);
+                        return null;
+                    }
+
+                    if (n == 0 && !isComplete()) {
+                        // The segment was empty, so the history continues before it.
+                        loadPreviousAsync(fetchExecutor, updateExecutor).whenComplete((m, x) -> {
+                            if (x != null) {
+                                load.completeExceptionally(x);
+                            } else {
+                                load.complete(m);
+                            }
+                        });
+                    } else {
+                        load.complete(n);
+                    }
+
+                    return null;
+                }, updateExecutor);
+
+        return load;
+    }
+
+    /**
+     * Keeps the segments of the elements in the index range [from, to) in memory, e.g. of those in view and next to
+     * them, and loads them again in the background if they were evicted. Other segments are evicted if there are
+     * more than the maximum. The range is clamped to the elements.
+     */
+    public synchronized void retain(int from, int to) {
+        retainedSegments.clear();
+
+        int f = Math.max(from, 0);
+        int t = Math.min(to, size);
+
+        if (f < t) {
+            for (int s = getSegmentIndex(f); s <= getSegmentIndex(t - 1); s++) {
+                retainedSegments.add(segments.get(s));
+            }
+        }
+
+        evict();
+
+        for (Segment<T> s : retainedSegments) {
+            if (s.elements == null) {
+                reload(s);
+            }
+        }
+    }
+
+    /**
+     * @return Whether all segments up to the one of the first element were loaded.
+     */
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return The start of the segment to load next or null if the history is complete.
+     */
+    private synchronized Instant getPreviousSegmentStart() {
+        if (complete) {
+            return null;
+        }
+
+        return end.minus(segmentDuration.multipliedBy(segments.size() + 1L));
+    }
+
+    private int prepend(Instant from, List<? extends Timestamped<? extends T>> elements) {
+        TimelineLock.lock();
+        try {
+            return prependLocked(from, elements);
+        } finally {
+            TimelineLock.unlock();
+        }
+    }
+
+    private int prependLocked(Instant from, List<? extends Timestamped<? extends T>> elements) {
+        int n = elements.size();
+
+        synchronized (this) {
+            // Another load prepended this segment already.
+            if (!from.equals(getPreviousSegmentStart())) {
+                return 0;
+            }
+
+            Segment<T> segment = new Segment<>(from, from.plus(segmentDuration),
+                    checkElements(from, from.plus(segmentDuration), elements));
+
+            for (Segment<T> s : segments) {
+                s.offset += n;
+            }
+
+            // Empty segments are kept, so that the segment of an instant can be calculated.
+            segments.add(0, segment);
+            complete = !from.isAfter(start);
+
+            if (n == 0) {
+                return 0;
+            }
+
+            size += n;
+            loadedSegments.put(segment, Boolean.TRUE);
+            evict();
+        }
+
+        onRangeUpdate(0, size());
+        return n;
+    }
+
+    /**
+     * @return The elements of the segment.
+     * @throws NotLoadedException If the segment was evicted and isn't loaded again right away.
+     */
+    private List<Timestamped<T>> getElements(Segment<T> segment) {
+        if (segment.elements == null) {
+            CompletableFuture<Void> reload = reload(segment);
+
+            // Unless it was loaded by direct executors.
+            if (segment.elements == null) {
+                if (reload.isCompletedExceptionally()) {
+                    reload.join();
+                }
+
+                segment.missed = true;
+                throw new NotLoadedException("The segment starting at " + segment.from + " is being loaded.");
+            }
+        }
+
+        // Marks the segment as the most recently used one.
+        loadedSegments.get(segment);
+        return segment.elements;
+    }
+
+    /**
+     * Loads the evicted segment again on the fetch executor and puts it back on the update executor, unless this
+     * happens already.
+     */
+    private CompletableFuture<Void> reload(Segment<T> segment) {
+        if (segment.reload == null) {
+            CompletableFuture<Void> reload = CompletableFuture
+                    .supplyAsync(() -> loader.load(segment.from, segment.to), fetchExecutor)
+                    .thenAcceptAsync(elements -> onReloaded(segment, elements), updateExecutor);
+            segment.reload = reload;
+
+            // The next access tries again.
+            reload.exceptionally(e -> {
+                synchronized (this) {
+                    if (segment.reload == reload) {
+                        segment.reload = null;
+                    }
+                }
+
+                return null;
+            });
+        }
+
+        return segment.reload;
+    }
+
+    /**
+     * Puts the reloaded elements back and notifies the listeners if an access failed meanwhile, so that it can be
+     * repeated.
+     */
+    private void onReloaded(Segment<T> segment, List<? extends Timestamped<? extends T>> elements) {
+        boolean missed;
+
+        synchronized (this) {
+            List<Timestamped<T>> l = checkElements(segment.from, segment.to, elements);
+            if (!segment.hasInstants(l)) {
+                throw new IllegalStateException("The elements of the segment changed.");
+            }
+
+            segment.elements = l;
+            loadedSegments.put(segment, Boolean.TRUE);
+            missed = segment.missed;
+            segment.missed = false;
+        }
+
+        // Never the case with direct executors, which load the segment within the access.
+        if (missed) {
+            TimelineLock.run(() -> {
+                int from;
+                synchronized (this) {
+                    from = segment.offset;
+                }
+
+                onRangeUpdate(from, from + segment.size);
+            });
+        }
+    }
+
+    private List<Timestamped<T>> checkElements(Instant from, Instant to,
+                                               List<? extends Timestamped<? extends T>> elements) {
+        Instant previous = null;
+        for (Timestamped<? extends T> t : elements) {
+            Instant instant = t.timestamp();
+            Preconditions.checkArgument(!instant.isBefore(from) && instant.isBefore(to),
+                    "Element is not within the segment.");
+            Preconditions.checkArgument(previous == null || previous.isBefore(instant),
+                    "Elements are not in strictly ascending order.");
+            previous = instant;
+        }
+
+        // Timestamped is immutable, so a Timestamped<? extends T> can be used as a Timestamped<T>.
+        @SuppressWarnings("unchecked")
+        List<Timestamped<T>> l = (List<Timestamped<T>>) List.copyOf(elements);
+        return l;
+    }
+
+    /**
+     * Evicts the least recently used segments which aren't retained while there are more than the maximum.
+     */
+    private void evict() {
+        Iterator<Segment<T>> it = loadedSegments.keySet().iterator();
+        while (loadedSegments.size() > maxLoadedSegments && it.hasNext()) {
+            Segment<T> s = it.next();
+
+            if (!retainedSegments.contains(s)) {
+                s.elements = null;
+                s.reload = null;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * @return The segment containing the given index.
+     */
+    private Segment<T> getSegment(int index) {
+        return segments.get(getSegmentIndex(index));
+    }
+
+    /**
+     * @return The position of the segment containing the given index.
+     */
+    private int getSegmentIndex(int index) {
+        int low = 0;
+        int high = segments.size() - 1;
+
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segments.get(mid).offset <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+
+    @Override
+    public Timestamped<T> first() {
+        return extract(0);
+    }
+
+    @Override
+    public synchronized Timestamped<T> last() {
+        return extract(size - 1);
+    }
+
+    @Override
+    public Timestamped<T> get(Instant instant) {
+        return extract(indexOf(instant));
+    }
+
+    @Override
+    public Timestamped<T> floor(Instant instant) {
+        return extract(floorIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<T> ceiling(Instant instant) {
+        return extract(ceilingIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<T> lower(Instant instant) {
+        return extract(lowerIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<T> higher(Instant instant) {
+        return extract(higherIndexOf(instant));
+    }
+
+    @Override
+    public Timestamped<T> get(int i) {
+        Preconditions.checkArgument(i >= 0);
+        return extract(i);
+    }
+
+    private synchronized Timestamped<T> extract(int i) {
+        if (i < 0 || i >= size) {
+            return null;
+        }
+
+        Segment<T> s = getSegment(i);
+        return getElements(s).get(i - s.offset);
+    }
+
+    /**
+     * @return The instant of the element at the given index, which is always in memory.
+     */
+    private synchronized Instant getInstant(int i) {
+        Preconditions.checkIndex(i, size);
+
+        Segment<T> s = getSegment(i);
+        return s.getInstant(i - s.offset);
+    }
+
+    /**
+     * Returns a cursor whose {@link TimelineCursor#timestamp()} never loads a segment.
+     */
+    @Override
+    public TimelineCursor<T> cursor(int i) {
+        Preconditions.checkIndex(i + 1, size() + 2);
+        return new CursorImpl(i);
+    }
+
+    @Override
+    public ListIterator<Timestamped<T>> listIterator(int i) {
+        Preconditions.checkIndex(i, size() + 1);
+        return new ListIteratorImpl(i);
+    }
+
+    @Override
+    public ListIterator<Timestamped<T>> listIterator(Instant instant) {
+        return listIterator(indexOf(instant));
+    }
+
+    /**
+     * Searches the instants of the segment of the instant, so that no segment is loaded.
+     */
+    @Override
+    public synchronized int indexOf(Instant instant) {
+        if (size == 0 || instant.isBefore(segments.get(0).from)) {
+            return -1;
+        }
+
+        if (!instant.isBefore(end)) {
+            return -(size + 1);
+        }
+
+        int s = (int) Duration.between(segments.get(0).from, instant).dividedBy(segmentDuration);
+        Segment<T> segment = segments.get(s);
+
+        int low = 0;
+        int high = segment.size - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = segment.compareInstant(mid, instant);
+
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return segment.offset + mid;
+            }
+        }
+
+        return -(segment.offset + low + 1);
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    private static final class Segment<T> {
+        final Instant from;
+        final Instant to;
+        final int size;
+
+        /**
+         * The instants of the elements, which are kept when the elements are evicted.
+         */
+        final long[] seconds;
+        final int[] nanos;
+
+        /**
+         * The index of the first element, which changes when older segments are prepended.
+         */
+        int offset;
+
+        /**
+         * The elements or null if they were evicted.
+         */
+        List<Timestamped<T>> elements;
+
+        /**
+         * The loading of the evicted elements or null if they aren't being loaded.
+         */
+        CompletableFuture<Void> reload;
+
+        /**
+         * Whether an access failed since the elements were evicted.
+         */
+        boolean missed;
+
+        Segment(Instant from, Instant to, List<Timestamped<T>> elements) {
+            this.from = from;
+            this.to = to;
+            this.size = elements.size();
+            this.elements = elements;
+
+            seconds = new long[size];
+            nanos = new int[size];
+
+            for (int i = 0; i < size; i++) {
+                Instant instant = elements.get(i).timestamp();
+                seconds[i] = instant.getEpochSecond();
+                nanos[i] = instant.getNano();
+            }
+        }
+
+        Instant getInstant(int i) {
+            return Instant.ofEpochSecond(seconds[i], nanos[i]);
+        }
+
+        int compareInstant(int i, Instant instant) {
+            int c = Long.compare(seconds[i], instant.getEpochSecond());
+            return c != 0 ? c : Integer.compare(nanos[i], instant.getNano());
+        }
+
+        boolean hasInstants(List<Timestamped<T>> elements) {
+            if (elements.size() != size) {
+                return false;
+            }
+
+            for (int i = 0; i < size; i++) {
+                if (compareInstant(i, elements.get(i).timestamp()) != 0) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    private final class CursorImpl implements TimelineCursor<T> {
+        int index;
+
+        CursorImpl(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public boolean advance() {
+            int size = size();
+            index = Math.min(index + 1, size);
+            return index < size;
+        }
+
+        @Override
+        public boolean retreat() {
+            index = Math.max(index - 1, -1);
+            return index >= 0;
+        }
+
+        @Override
+        public int index() {
+            return index;
+        }
+
+        @Override
+        public Instant timestamp() {
+            return getInstant(index);
+        }
+
+        @Override
+        public T value() {
+            Preconditions.checkIndex(index, size());
+            return extract(index).value();
+        }
+    }
+
+    private final class ListIteratorImpl implements ListIterator<Timestamped<T>> {
+        int nextIndex;
+
+        ListIteratorImpl(int index) {
+            this.nextIndex = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size();
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public Timestamped<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return extract(nextIndex++);
+        }
+
+        @Override
+        public Timestamped<T> previous() {
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+
+            return extract(--nextIndex);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(Timestamped<T> t) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(Timestamped<T> t) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
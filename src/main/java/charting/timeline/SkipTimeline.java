@@ -14,7 +14,17 @@ public final class SkipTimeline<T> extends NotificationBaseTimeline<T> {
 
     private final int skips;
 
-    private final TimelineListener<T> listener = this::onBaseUpdate;
+    private final TimelineListener<T> listener = new TimelineRangeListener<>() {
+        @Override
+        public void onUpdate(Instant instant, T newValue) {
+            onBaseUpdate(instant, newValue);
+        }
+
+        @Override
+        public void onRangeUpdate(int from, int to) {
+            onBaseRangeUpdate(from, to);
+        }
+    };
 
     public SkipTimeline(Timeline<T> base, int skips) {
         Preconditions.checkArgument(skips >= 0);
@@ -36,6 +46,15 @@ public final class SkipTimeline<T> extends NotificationBaseTimeline<T> {
         }
     }
 
+    private void onBaseRangeUpdate(int from, int to) {
+        int f = Math.max(from - skips, 0);
+        int t = Math.max(to - skips, 0);
+
+        if (f < t) {
+            onRangeUpdate(f, t);
+        }
+    }
+
     public int getSkips() {
         return skips;
     }
@@ -85,6 +104,12 @@ public final class SkipTimeline<T> extends NotificationBaseTimeline<T> {
         return base.get(i + skips);
     }
 
+    @Override
+    public T getValue(int i) {
+        Preconditions.checkIndex(i, size());
+        return base.getValue(i + skips);
+    }
+
     @Override
     public ListIterator<Timestamped<T>> listIterator(int i) {
         Preconditions.checkIndex(i, size() + 1);
@@ -148,6 +173,51 @@ public final class SkipTimeline<T> extends NotificationBaseTimeline<T> {
         return listIterator(indexOf(instant));
     }
 
+    @Override
+    public TimelineCursor<T> cursor(int i) {
+        Preconditions.checkIndex(i + 1, size() + 2);
+
+        if (base.size() < skips) {
+            return new IndexCursor<>(this, i);
+        }
+
+        TimelineCursor<T> c = base.cursor(i + skips);
+
+        return new TimelineCursor<>() {
+            @Override
+            public boolean advance() {
+                return c.advance();
+            }
+
+            @Override
+            public boolean retreat() {
+                if (index() < 0) {
+                    return false;
+                }
+
+                c.retreat();
+                return index() >= 0;
+            }
+
+            @Override
+            public int index() {
+                return c.index() - skips;
+            }
+
+            @Override
+            public Instant timestamp() {
+                Preconditions.checkIndex(index(), size());
+                return c.timestamp();
+            }
+
+            @Override
+            public T value() {
+                Preconditions.checkIndex(index(), size());
+                return c.value();
+            }
+        };
+    }
+
     @Override
     public int indexOf(Instant instant) {
         int i = base.indexOf(instant);
@@ -1,5 +1,7 @@
 package charting.timeline;
 
+import charting.util.Preconditions;
+
 import java.time.Instant;
 import java.util.Iterator;
 import java.util.ListIterator;
@@ -49,6 +51,16 @@ public interface Timeline<T> extends Iterable<Timestamped<T>> {
      */
     Timestamped<T> get(int i);
 
+    /**
+     * @return The value at the given index, which implementations read without creating a {@link Timestamped} if
+     * they can.
+     * @throws IndexOutOfBoundsException If the index is out of the range (index < 0 || index >= size()).
+     */
+    default T getValue(int i) {
+        Preconditions.checkIndex(i, size());
+        return get(i).value();
+    }
+
     /**
      * @return A {@link ListIterator} starting from the given index.
      * @throws IndexOutOfBoundsException If the index is out of the range (index < 0 || index >= size()).
@@ -67,6 +79,15 @@ public interface Timeline<T> extends Iterable<Timestamped<T>> {
         return listIterator(0);
     }
 
+    /**
+     * @return A {@link TimelineCursor} positioned at the given index.
+     * Use -1 to start before the first element and size() to start after the last element.
+     * @throws IndexOutOfBoundsException If the index is out of the range (index < -1 || index > size()).
+     */
+    default TimelineCursor<T> cursor(int i) {
+        return new IndexCursor<>(this, i);
+    }
+
     @Override
     default Iterator<Timestamped<T>> iterator() {
         return listIterator();
@@ -0,0 +1,40 @@
+package charting.timeline;
+
+import java.time.Instant;
+
+/**
+ * A cursor over the elements of a {@link Timeline}. Unlike a {@link java.util.ListIterator} it gives access to the
+ * current element without wrapping it into a {@link Timestamped}.
+ * The cursor is positioned at an index in the range [-1, size] where only indices in [0, size) refer to an element.
+ */
+public interface TimelineCursor<T> {
+    /**
+     * Moves the cursor to the next index.
+     *
+     * @return True if the cursor is now positioned at an element.
+     * @throws java.util.ConcurrentModificationException If the timeline was modified after creating the cursor.
+     */
+    boolean advance();
+
+    /**
+     * Moves the cursor to the previous index.
+     *
+     * @return True if the cursor is now positioned at an element.
+     * @throws java.util.ConcurrentModificationException If the timeline was modified after creating the cursor.
+     */
+    boolean retreat();
+
+    int index();
+
+    /**
+     * @return The instant of the element the cursor is positioned at.
+     * @throws IndexOutOfBoundsException If the cursor is not positioned at an element.
+     */
+    Instant timestamp();
+
+    /**
+     * @return The value of the element the cursor is positioned at.
+     * @throws IndexOutOfBoundsException If the cursor is not positioned at an element.
+     */
+    T value();
+}
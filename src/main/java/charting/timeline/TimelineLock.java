@@ -0,0 +1,57 @@
+package charting.timeline;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The lock that guards the timelines which are displayed and the indicators derived from them. Indicators fill
+ * their caches lazily when they are read and truncate them in listener callbacks, so reading them and updating
+ * their bases must not overlap. Threads hold this lock while they read such timelines, e.g. to prepare a frame,
+ * and while they update them, which includes the notification of the listeners.
+ */
+public final class TimelineLock {
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private TimelineLock() {
+    }
+
+    public static void lock() {
+        LOCK.lock();
+    }
+
+    /**
+     * Acquires the lock only if it is free, e.g. to skip work on the FX application thread while a frame is
+     * being prepared.
+     */
+    public static boolean tryLock() {
+        return LOCK.tryLock();
+    }
+
+    public static void unlock() {
+        LOCK.unlock();
+    }
+
+    /**
+     * Runs the given action while holding the lock.
+     */
+    public static void run(Runnable action) {
+        LOCK.lock();
+        try {
+            action.run();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /**
+     * Returns the result of the given action, which runs while holding the lock.
+     */
+    public static <T> T get(Supplier<T> action) {
+        LOCK.lock();
+        try {
+            return action.get();
+        } finally {
+            LOCK.unlock();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package charting.timeline;
+
+/**
+ * A {@link TimelineListener} that can be notified about the update of many elements with a single call.
+ * Timelines notify listeners that don't implement this interface about every element in the range separately.
+ */
+public interface TimelineRangeListener<T> extends TimelineListener<T> {
+    /**
+     * Called when the elements in the index range [from, to) were updated, inserted or shifted by an insertion.
+     */
+    void onRangeUpdate(int from, int to);
+}
@@ -0,0 +1,63 @@
+package charting.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Measures the time of consecutive phases, e.g. of the startup until the first frame is shown.
+ * Phases are marked when they end and may be marked from any thread.
+ */
+public final class PhaseTimer {
+    /**
+     * @param name     The name of the phase.
+     * @param end      The nanoseconds from the start of the timer until the end of the phase.
+     * @param duration The nanoseconds since the end of the previous phase.
+     */
+    public record Phase(String name, long end, long duration) {
+        @Override
+        public String toString() {
+            return String.format("%s: %d ms (+%d ms)", name, end / 1_000_000, duration / 1_000_000);
+        }
+    }
+
+    private final LongSupplier nanoTime;
+    private final long start;
+
+    private final List<Phase> phases = new ArrayList<>();
+
+    /**
+     * Creates a timer which starts now.
+     */
+    public PhaseTimer() {
+        this(System::nanoTime);
+    }
+
+    PhaseTimer(LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.start = nanoTime.getAsLong();
+    }
+
+    /**
+     * Marks the end of the phase with the given name, which started at the end of the previous phase.
+     *
+     * @return The marked phase.
+     */
+    public synchronized Phase mark(String name) {
+        long end = nanoTime.getAsLong() - start;
+        long previousEnd = phases.isEmpty() ? 0 : phases.get(phases.size() - 1).end();
+
+        Phase phase = new Phase(name, end, end - previousEnd);
+        phases.add(phase);
+        return phase;
+    }
+
+    public synchronized List<Phase> getPhases() {
+        return List.copyOf(phases);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.join(", ", phases.stream().map(Phase::toString).toList());
+    }
+}
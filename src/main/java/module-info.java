@@ -1,7 +1,6 @@
 module charting {
     requires javafx.controls;
     requires javafx.fxml;
-    requires com.opencsv;
 
     exports charting.gui.util to javafx.graphics;
     opens charting.gui.util to javafx.fxml;
@@ -0,0 +1,148 @@
+package charting.data;
+
+import charting.timeline.ArrayTimeline;
+import charting.timeline.Timeline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockingTickerDataProviderAdapterTest {
+    private static final Ticker TICKER = new Ticker(
+            new AssetId("test", "A"), new AssetId("test", "USD"), new TickerSourceId("test", "test"));
+    private static final Ticker OTHER_TICKER = new Ticker(
+            new AssetId("test", "B"), new AssetId("test", "USD"), new TickerSourceId("test", "test"));
+
+    private List<Runnable> tasks;
+    private List<Ticker> loads;
+    private BlockingTickerDataProviderAdapter provider;
+
+    @BeforeEach
+    void beforeEach() {
+        tasks = new ArrayList<>();
+        loads = new ArrayList<>();
+
+        ArrayTimeline<DoubleCandle> candles = new ArrayTimeline<>();
+        candles.put(Instant.ofEpochSecond(0), new DoubleCandle(1, 2, 1, 2, 10,
+                Instant.ofEpochSecond(0), Instant.ofEpochSecond(10)));
+
+        provider = new BlockingTickerDataProviderAdapter(new TickerDataProvider() {
+            @Override
+            public Set<Ticker> getTickers() {
+                return Set.of(TICKER);
+            }
+
+            @Override
+            public Optional<? extends Timeline<? extends Candle>> getCandles(Ticker ticker, Interval interval) {
+                loads.add(ticker);
+                if (!ticker.equals(TICKER)) {
+                    throw new IllegalStateException("Unknown ticker");
+                }
+
+                return Optional.of(candles);
+            }
+
+            @Override
+            public Optional<String> getTickerSymbol(Ticker ticker) {
+                return Optional.of("AAPL");
+            }
+        }, tasks::add);
+    }
+
+    @Test
+    void coalescesConcurrentRequests() {
+        CompletableFuture<Optional<? extends Timeline<? extends Candle>>> a = provider.getCandles(TICKER,
+                new PeriodInterval(1));
+        CompletableFuture<Optional<? extends Timeline<? extends Candle>>> b = provider.getCandles(TICKER,
+                new PeriodInterval(1));
+        provider.getCandles(TICKER, new PeriodInterval(7));
+        assertEquals(2, tasks.size());
+        assertFalse(a.isDone());
+
+        tasks.forEach(Runnable::run);
+
+        assertEquals(List.of(TICKER, TICKER), loads);
+        assertSame(a.join().orElseThrow(), b.join().orElseThrow());
+        assertEquals(1, a.join().orElseThrow().size());
+    }
+
+    @Test
+    void loadsAgainAfterCompletion() {
+        provider.getCandles(TICKER, new PeriodInterval(1));
+        tasks.remove(0).run();
+
+        provider.getCandles(TICKER, new PeriodInterval(1));
+        assertEquals(1, tasks.size());
+        tasks.remove(0).run();
+
+        assertEquals(2, loads.size());
+    }
+
+    @Test
+    void cancellingDoesNotAffectOtherRequests() {
+        CompletableFuture<Optional<String>> a = provider.getTickerSymbol(TICKER);
+        CompletableFuture<Optional<String>> b = provider.getTickerSymbol(TICKER);
+        a.cancel(false);
+
+        tasks.forEach(Runnable::run);
+
+        assertTrue(a.isCancelled());
+        assertEquals("AAPL", b.join().orElseThrow());
+    }
+
+    @Test
+    void completesExceptionally() {
+        CompletableFuture<Optional<Instant>> f = provider.getLastCandleInstant(OTHER_TICKER, new PeriodInterval(1));
+        tasks.forEach(Runnable::run);
+
+        CompletionException e = assertThrows(CompletionException.class, f::join);
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+
+        tasks.clear();
+        provider.getLastCandleInstant(OTHER_TICKER, new PeriodInterval(1));
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    void getCandleInstants() {
+        CompletableFuture<Optional<Instant>> first = provider.getFirstCandleInstant(TICKER, new PeriodInterval(1));
+        CompletableFuture<Optional<Instant>> last = provider.getLastCandleInstant(TICKER, new PeriodInterval(1));
+        assertEquals(2, tasks.size());
+        tasks.forEach(Runnable::run);
+
+        assertEquals(Optional.of(Instant.ofEpochSecond(0)), first.join());
+        assertEquals(Optional.of(Instant.ofEpochSecond(0)), last.join());
+    }
+
+    @Test
+    void runsOnDefaultExecutor() {
+        AsyncTickerDataProvider p = AsyncTickerDataProvider.of(new TickerDataProvider() {
+            @Override
+            public Set<Ticker> getTickers() {
+                return Set.of(TICKER);
+            }
+
+            @Override
+            public Optional<? extends Timeline<? extends Candle>> getCandles(Ticker ticker, Interval interval) {
+                return Optional.empty();
+            }
+
+            @Override
+            public Optional<String> getTickerSymbol(Ticker ticker) {
+                return Optional.empty();
+            }
+        });
+
+        assertEquals(Set.of(TICKER), p.getTickers().join());
+        assertEquals(Optional.empty(), p.getFirstCandleInstant(TICKER, new PeriodInterval(1)).join());
+        assertEquals(Optional.empty(), p.getLastCandleInstant(TICKER, new PeriodInterval(1)).join());
+    }
+}
@@ -0,0 +1,96 @@
+package charting.data;
+
+import charting.timeline.OrderStatsTreeTimeline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CandlePyramidTest {
+    private OrderStatsTreeTimeline<Candle> candles;
+    private CandlePyramid pyramid;
+
+    @BeforeEach
+    void beforeEach() {
+        candles = new OrderStatsTreeTimeline<>();
+        pyramid = new CandlePyramid(candles);
+    }
+
+    private void put(int i, double open, double high, double low, double close, double volume) {
+        candles.put(Instant.ofEpochSecond(i), new DoubleCandle(open, high, low, close, volume,
+                Instant.ofEpochSecond(i), Instant.ofEpochSecond(i + 1)));
+    }
+
+    @Test
+    void getLevel() {
+        assertEquals(0, CandlePyramid.getLevel(0.5));
+        assertEquals(0, CandlePyramid.getLevel(1));
+        assertEquals(1, CandlePyramid.getLevel(1.5));
+        assertEquals(2, CandlePyramid.getLevel(3));
+        assertEquals(2, CandlePyramid.getLevel(4));
+        assertEquals(3, CandlePyramid.getLevel(5));
+    }
+
+    @Test
+    void mergesCandles() {
+        put(0, 1, 3, 1, 2, 10);
+        put(1, 2, 5, 2, 4, 20);
+        put(2, 4, 4, 0, 1, 30);
+
+        assertEquals(3, pyramid.size(0));
+        assertEquals(2, pyramid.size(1));
+        assertEquals(1, pyramid.size(2));
+
+        double[] d = new double[10];
+        pyramid.copyRange(1, 0, 2, d);
+        assertArrayEquals(new double[]{1, 5, 1, 4, 30, 4, 4, 0, 1, 30}, d);
+
+        pyramid.copyRange(2, 0, 1, d);
+        assertArrayEquals(new double[]{1, 5, 0, 1, 60}, Arrays.copyOf(d, 5));
+    }
+
+    @Test
+    void updatesWhenCandlesChange() {
+        put(0, 1, 3, 1, 2, 10);
+        put(1, 2, 5, 2, 4, 20);
+        put(2, 4, 4, 0, 1, 30);
+
+        double[] d = new double[5];
+        pyramid.copyRange(2, 0, 1, d);
+
+        put(3, 1, 9, 1, 8, 40);
+        pyramid.copyRange(2, 0, 1, d);
+        assertArrayEquals(new double[]{1, 9, 0, 8, 100}, d);
+
+        put(1, 2, 2, 2, 2, 0);
+        pyramid.copyRange(2, 0, 1, d);
+        assertArrayEquals(new double[]{1, 9, 0, 8, 80}, d);
+    }
+
+    @Test
+    void copyRangeGrowsTooSmallArray() {
+        put(0, 1, 3, 1, 2, 10);
+        put(1, 2, 5, 2, 4, 20);
+
+        double[] d = new double[5];
+        double[] result = pyramid.copyRange(0, 0, 2, d);
+
+        assertNotSame(d, result);
+        assertArrayEquals(new double[]{1, 3, 1, 2, 10, 2, 5, 2, 4, 20}, Arrays.copyOf(result, 10));
+        assertSame(result, pyramid.copyRange(0, 0, 2, result));
+    }
+
+    @Test
+    void of() {
+        CandlePyramid shared = CandlePyramid.of(candles);
+
+        assertSame(shared, CandlePyramid.of(candles));
+        assertNotSame(shared, CandlePyramid.of(new OrderStatsTreeTimeline<>()));
+    }
+}
@@ -0,0 +1,155 @@
+package charting.data;
+
+import charting.timeline.ArrayTimeline;
+import charting.timeline.DoubleTimeline;
+import charting.timeline.Timestamped;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ListIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarCandleTimelineTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeAndOpen() throws IOException {
+        ArrayTimeline<DoubleCandle> candles = createCandles(100);
+        Path path = dir.resolve("test.ccandles");
+
+        ColumnarCandleTimeline.write(path, "AAPL", new PeriodInterval(1), candles);
+        ColumnarCandleTimeline t = ColumnarCandleTimeline.open(path);
+
+        assertEquals("AAPL", t.getSymbol());
+        assertEquals("P1D", t.getInterval());
+        assertEquals(100, t.size());
+        for (int i = 0; i < 100; i++) {
+            Candle expected = candles.get(i).value();
+            Timestamped<Candle> actual = t.get(i);
+
+            assertEquals(candles.get(i).timestamp(), actual.timestamp());
+            assertEquals(expected.getOpen(), actual.value().getOpen());
+            assertEquals(expected.getHigh(), actual.value().getHigh());
+            assertEquals(expected.getLow(), actual.value().getLow());
+            assertEquals(expected.getClose(), actual.value().getClose());
+            assertEquals(expected.getVolume(), actual.value().getVolume());
+            assertEquals(expected.getStartInstant(), actual.value().getStartInstant());
+            assertEquals(expected.getEndInstant(), actual.value().getEndInstant());
+            assertEquals(expected.getCurrentInstant(), actual.value().getCurrentInstant());
+        }
+    }
+
+    @Test
+    void empty() throws IOException {
+        Path path = dir.resolve("empty.ccandles");
+
+        ColumnarCandleTimeline.write(path, "", new PeriodInterval(1), new ArrayTimeline<DoubleCandle>());
+        ColumnarCandleTimeline t = ColumnarCandleTimeline.open(path);
+
+        assertEquals(0, t.size());
+        assertNull(t.first());
+        assertNull(t.last());
+        assertEquals(-1, t.indexOf(Instant.EPOCH));
+        assertFalse(t.listIterator().hasNext());
+        assertEquals(0, t.getColumn(ColumnarCandleTimeline.Column.CLOSE).size());
+    }
+
+    @Test
+    void indexOfUsesFooterIndex() throws IOException {
+        int n = 10_000;
+        Path path = dir.resolve("test.ccandles");
+        ColumnarCandleTimeline.write(path, "AAPL", new PeriodInterval(1), createCandles(n));
+        ColumnarCandleTimeline t = ColumnarCandleTimeline.open(path);
+
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, t.indexOf(Instant.ofEpochSecond(i * 10L)));
+            assertEquals(-(i + 2), t.indexOf(Instant.ofEpochSecond(i * 10L + 5)));
+            assertEquals(-(i + 2), t.indexOf(Instant.ofEpochSecond(i * 10L, 1)));
+        }
+
+        assertEquals(-1, t.indexOf(Instant.ofEpochSecond(-1)));
+        assertEquals(-(n + 1), t.indexOf(Instant.ofEpochSecond(n * 10L)));
+
+        assertEquals(40960.0, t.floor(Instant.ofEpochSecond(40965)).value().getOpen());
+        assertEquals(40970.0, t.ceiling(Instant.ofEpochSecond(40965)).value().getOpen());
+    }
+
+    @Test
+    void getColumn() throws IOException {
+        Path path = dir.resolve("test.ccandles");
+        ColumnarCandleTimeline.write(path, "AAPL", new PeriodInterval(1), createCandles(10));
+        ColumnarCandleTimeline t = ColumnarCandleTimeline.open(path);
+
+        DoubleTimeline closes = t.getColumn(ColumnarCandleTimeline.Column.CLOSE);
+
+        assertEquals(10, closes.size());
+        assertEquals(31.0, closes.getDouble(3));
+        assertEquals(Instant.ofEpochSecond(30), closes.get(3).timestamp());
+        assertEquals(41.0, closes.get(Instant.ofEpochSecond(40)).value());
+        assertEquals(4, closes.indexOf(Instant.ofEpochSecond(40)));
+
+        double[] values = new double[3];
+        closes.copyRange(2, 5, values);
+        assertArrayEquals(new double[]{21, 31, 41}, values);
+
+        assertTrue(Double.isNaN(t.getColumn(ColumnarCandleTimeline.Column.VOLUME).getDouble(3)));
+        assertThrows(IndexOutOfBoundsException.class, () -> closes.getDouble(10));
+    }
+
+    @Test
+    void listIterator() throws IOException {
+        Path path = dir.resolve("test.ccandles");
+        ColumnarCandleTimeline.write(path, "AAPL", new PeriodInterval(1), createCandles(5));
+        ColumnarCandleTimeline t = ColumnarCandleTimeline.open(path);
+
+        ListIterator<Timestamped<Candle>> it = t.listIterator(Instant.ofEpochSecond(20));
+        assertEquals(2, it.nextIndex());
+        assertEquals(20.0, it.next().value().getOpen());
+        assertEquals(20.0, it.previous().value().getOpen());
+        assertEquals(10.0, it.previous().value().getOpen());
+    }
+
+    @Test
+    void convertCsv() throws IOException {
+        Path csv = dir.resolve("test.csv");
+        Files.writeString(csv, "start_time,end_time,open,high,low,close,volume\n"
+                + "0,10,1.5,2,1,1.75,100\n"
+                + "10,20,1.75,3,1.5,2.5,200\n");
+        Path path = dir.resolve("test.ccandles");
+
+        CsvCandleConverter.convert(csv, path, "TSLA", new PeriodInterval(1));
+        ColumnarCandleTimeline t = ColumnarCandleTimeline.open(path);
+
+        assertEquals("TSLA", t.getSymbol());
+        assertEquals(2, t.size());
+        assertEquals(2.5, t.get(1).value().getClose());
+        assertEquals(Instant.ofEpochSecond(20), t.get(1).value().getEndInstant());
+    }
+
+    @Test
+    void openThrowsForInvalidFile() throws IOException {
+        Path path = dir.resolve("invalid.ccandles");
+        Files.write(path, new byte[128]);
+
+        assertThrows(IOException.class, () -> ColumnarCandleTimeline.open(path));
+    }
+
+    private static ArrayTimeline<DoubleCandle> createCandles(int count) {
+        ArrayTimeline<DoubleCandle> candles = new ArrayTimeline<>();
+
+        for (int i = 0; i < count; i++) {
+            Instant start = Instant.ofEpochSecond(i * 10L);
+            Instant end = Instant.ofEpochSecond(i * 10L + 10);
+            double v = i * 10;
+            candles.put(start, new DoubleCandle(v, v + 2, v - 1, v + 1, i == 3 ? Double.NaN : i, start, end));
+        }
+
+        return candles;
+    }
+}
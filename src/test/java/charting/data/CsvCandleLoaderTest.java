@@ -0,0 +1,176 @@
+package charting.data;
+
+import charting.timeline.ArrayTimeline;
+import charting.timeline.Timestamped;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvCandleLoaderTest {
+    private static final String HEADER = "start_time,end_time,open,high,low,close,volume\n";
+
+    @TempDir
+    Path dir;
+
+    private static ArrayTimeline<DoubleCandle> load(String csv) throws IOException {
+        return CsvCandleLoader.load(ByteBuffer.wrap(csv.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void load() throws IOException {
+        ArrayTimeline<DoubleCandle> t = load(HEADER
+                + "345479400,345738600,0.128348,0.128348,0.128348,0.128348,469034068\n"
+                + "345738600,345825000,1.5,2.25,-1e-3,2.5E-1,0\r\n"
+                + "\n"
+                + "345825000,345911400,1,Infinity,1,1,12.5");
+
+        assertEquals(3, t.size());
+
+        DoubleCandle c = t.get(0).value();
+        assertEquals(Instant.ofEpochSecond(345479400), t.get(0).timestamp());
+        assertEquals(Instant.ofEpochSecond(345738600), c.getEndInstant());
+        assertEquals(0.128348, c.getOpen());
+        assertEquals(469034068.0, c.getVolume());
+
+        c = t.get(1).value();
+        assertEquals(1.5, c.getOpen());
+        assertEquals(2.25, c.getHigh());
+        assertEquals(-0.001, c.getLow());
+        assertEquals(0.25, c.getClose());
+        assertEquals(0.0, c.getVolume());
+
+        c = t.get(2).value();
+        assertEquals(Double.POSITIVE_INFINITY, c.getHigh());
+        assertEquals(12.5, c.getVolume());
+    }
+
+    @Test
+    void parsesNumbersExactly() throws IOException {
+        String[] numbers = {"0.1", "123.456", "9007199254740993", "1.7976931348623157e308", "4.9e-324",
+                "0.30000000000000004", "123456789.123456789", "1e22", "1e23", "+2.5"};
+
+        for (String n : numbers) {
+            ArrayTimeline<DoubleCandle> t = load(HEADER + "0,1," + n + "," + n + "," + n + "," + n + ",1\n");
+            assertEquals(Double.parseDouble(n), t.get(0).value().getOpen(), n);
+        }
+    }
+
+    @Test
+    void loadsLargeFileInChunks() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        int n = 100_000;
+        for (int i = 0; i < n; i++) {
+            csv.append(i).append(',').append(i + 1).append(',')
+                    .append(i).append(".5,").append(i + 1).append(",").append(i).append(",")
+                    .append(i).append(".25,").append(i * 10).append('\n');
+        }
+
+        Path path = dir.resolve("large.csv");
+        Files.writeString(path, csv);
+
+        ArrayTimeline<DoubleCandle> t = CsvCandleLoader.load(path);
+
+        assertEquals(n, t.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(Instant.ofEpochSecond(i), t.get(i).timestamp());
+            assertEquals(i + 0.5, t.get(i).value().getOpen());
+            assertEquals(i + 0.25, t.get(i).value().getClose());
+            assertEquals(i * 10.0, t.get(i).value().getVolume());
+        }
+    }
+
+    @Test
+    void loadsProgressivelyInOrder() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        int n = 20_000;
+        for (int i = 0; i < n; i++) {
+            csv.append(i).append(',').append(i + 1).append(",1,1,1,1,").append(i).append('\n');
+        }
+
+        List<List<Timestamped<DoubleCandle>>> chunks = new ArrayList<>();
+        CsvCandleLoader.load(ByteBuffer.wrap(csv.toString().getBytes(StandardCharsets.US_ASCII)), chunks::add);
+
+        assertTrue(chunks.size() > 1);
+
+        int i = 0;
+        for (List<Timestamped<DoubleCandle>> chunk : chunks) {
+            for (Timestamped<DoubleCandle> t : chunk) {
+                assertEquals(Instant.ofEpochSecond(i), t.timestamp());
+                assertEquals(i, t.value().getVolume());
+                i++;
+            }
+        }
+        assertEquals(n, i);
+    }
+
+    @Test
+    void loadRange() throws IOException {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 100; i++) {
+            csv.append(i * 10).append(',').append(i * 10 + 10).append(",1,1,1,1,").append(i).append('\n');
+            if (i % 7 == 0) {
+                csv.append('\n');
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(csv.toString().getBytes(StandardCharsets.US_ASCII));
+
+        ArrayTimeline<DoubleCandle> t = CsvCandleLoader.load(buffer, Instant.ofEpochSecond(205),
+                Instant.ofEpochSecond(500));
+        assertEquals(29, t.size());
+        assertEquals(Instant.ofEpochSecond(210), t.get(0).timestamp());
+        assertEquals(Instant.ofEpochSecond(490), t.last().timestamp());
+
+        assertEquals(100, CsvCandleLoader.load(buffer, Instant.ofEpochSecond(-1), Instant.ofEpochSecond(1000)).size());
+        assertEquals(1, CsvCandleLoader.load(buffer, Instant.ofEpochSecond(990), Instant.MAX).size());
+        assertEquals(0, CsvCandleLoader.load(buffer, Instant.ofEpochSecond(1000), Instant.MAX).size());
+        assertEquals(0, CsvCandleLoader.load(buffer, Instant.ofEpochSecond(0, 1), Instant.ofEpochSecond(10)).size());
+        assertEquals(0, CsvCandleLoader.load(ByteBuffer.wrap(HEADER.getBytes(StandardCharsets.US_ASCII)),
+                Instant.MIN, Instant.MAX).size());
+    }
+
+    @Test
+    void loadFirstStartInstant() throws IOException {
+        assertEquals(Optional.of(Instant.ofEpochSecond(10)), CsvCandleLoader.loadFirstStartInstant(
+                ByteBuffer.wrap((HEADER + "\r\n10,20,1,1,1,1,1\n20,30,1,1,1,1,1\n")
+                        .getBytes(StandardCharsets.US_ASCII))));
+        assertEquals(Optional.empty(), CsvCandleLoader.loadFirstStartInstant(
+                ByteBuffer.wrap((HEADER + "\n").getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    @Test
+    void loadLastStartInstant() throws IOException {
+        assertEquals(Optional.of(Instant.ofEpochSecond(10)), CsvCandleLoader.loadLastStartInstant(
+                ByteBuffer.wrap((HEADER + "0,10,1,1,1,1,1\n10,20,1,1,1,1,1\r\n\n").getBytes(StandardCharsets.US_ASCII))));
+        assertEquals(Optional.of(Instant.ofEpochSecond(0)), CsvCandleLoader.loadLastStartInstant(
+                ByteBuffer.wrap((HEADER + "0,10,1,1,1,1,1").getBytes(StandardCharsets.US_ASCII))));
+        assertEquals(Optional.empty(), CsvCandleLoader.loadLastStartInstant(
+                ByteBuffer.wrap(HEADER.getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    @Test
+    void empty() throws IOException {
+        assertEquals(0, load("").size());
+        assertEquals(0, load(HEADER).size());
+    }
+
+    @Test
+    void malformed() {
+        assertThrows(IOException.class, () -> load(HEADER + "0,1,1,1,1,1\n"));
+        assertThrows(IOException.class, () -> load(HEADER + "0,1,1,1,1,1,1,1\n"));
+        assertThrows(IOException.class, () -> load(HEADER + "0,1,1,1,1x,1,1\n"));
+        assertThrows(IOException.class, () -> load(HEADER + "0.5,1,1,1,1,1,1\n"));
+        assertThrows(IOException.class, () -> load(HEADER + "99999999999999999999,1,1,1,1,1,1\n"));
+        assertThrows(IOException.class, () -> load(HEADER + "0,1,2,1,1,1,1\n"));
+    }
+}
@@ -0,0 +1,158 @@
+package charting.data;
+
+import charting.timeline.ArrayTimeline;
+import charting.timeline.TimelineCursor;
+import charting.timeline.Timestamped;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ListIterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedCandleTimelineTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeAndOpen() throws IOException {
+        ArrayTimeline<DoubleCandle> candles = createCandles(100);
+        Path path = dir.resolve("test.candles");
+
+        MappedCandleTimeline.write(path, candles);
+        MappedCandleTimeline t = MappedCandleTimeline.open(path);
+
+        assertEquals(100, t.size());
+        for (int i = 0; i < 100; i++) {
+            Candle expected = candles.get(i).value();
+            Timestamped<Candle> actual = t.get(i);
+
+            assertEquals(candles.get(i).timestamp(), actual.timestamp());
+            assertEquals(expected.getOpen(), actual.value().getOpen());
+            assertEquals(expected.getHigh(), actual.value().getHigh());
+            assertEquals(expected.getLow(), actual.value().getLow());
+            assertEquals(expected.getClose(), actual.value().getClose());
+            assertEquals(expected.getVolume(), actual.value().getVolume());
+            assertEquals(expected.getStartInstant(), actual.value().getStartInstant());
+            assertEquals(expected.getEndInstant(), actual.value().getEndInstant());
+            assertEquals(expected.getCurrentInstant(), actual.value().getCurrentInstant());
+        }
+    }
+
+    @Test
+    void empty() throws IOException {
+        Path path = dir.resolve("empty.candles");
+
+        MappedCandleTimeline.write(path, new ArrayTimeline<DoubleCandle>());
+        MappedCandleTimeline t = MappedCandleTimeline.open(path);
+
+        assertEquals(0, t.size());
+        assertNull(t.first());
+        assertNull(t.last());
+        assertEquals(-1, t.indexOf(Instant.EPOCH));
+        assertFalse(t.listIterator().hasNext());
+    }
+
+    @Test
+    void indexOf() throws IOException {
+        Path path = dir.resolve("test.candles");
+        MappedCandleTimeline.write(path, createCandles(10));
+        MappedCandleTimeline t = MappedCandleTimeline.open(path);
+
+        assertEquals(0, t.indexOf(Instant.ofEpochSecond(0)));
+        assertEquals(9, t.indexOf(Instant.ofEpochSecond(90)));
+        assertEquals(-2, t.indexOf(Instant.ofEpochSecond(5)));
+        assertEquals(-2, t.indexOf(Instant.ofEpochSecond(0, 1)));
+        assertEquals(-11, t.indexOf(Instant.ofEpochSecond(1000)));
+        assertEquals(-1, t.indexOf(Instant.ofEpochSecond(-1)));
+
+        assertEquals(10.0, t.floor(Instant.ofEpochSecond(15)).value().getOpen());
+        assertEquals(20.0, t.ceiling(Instant.ofEpochSecond(15)).value().getOpen());
+    }
+
+    @Test
+    void listIterator() throws IOException {
+        Path path = dir.resolve("test.candles");
+        MappedCandleTimeline.write(path, createCandles(5));
+        MappedCandleTimeline t = MappedCandleTimeline.open(path);
+
+        ListIterator<Timestamped<Candle>> it = t.listIterator(Instant.ofEpochSecond(20));
+        assertEquals(2, it.nextIndex());
+        assertEquals(20.0, it.next().value().getOpen());
+        assertEquals(20.0, it.previous().value().getOpen());
+        assertEquals(10.0, it.previous().value().getOpen());
+    }
+
+    @Test
+    void cursor() throws IOException {
+        Path path = dir.resolve("test.candles");
+        MappedCandleTimeline.write(path, createCandles(5));
+        MappedCandleTimeline t = MappedCandleTimeline.open(path);
+
+        TimelineCursor<Candle> c = t.cursor(-1);
+        assertThrows(IndexOutOfBoundsException.class, c::value);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(c.advance());
+            assertEquals(i, c.index());
+            assertEquals(Instant.ofEpochSecond(i * 10L), c.timestamp());
+            assertEquals(i * 10.0, c.value().getOpenDouble());
+            assertEquals(i * 10.0 + 1, c.value().getClose());
+        }
+
+        assertFalse(c.advance());
+        assertThrows(IndexOutOfBoundsException.class, c::timestamp);
+
+        assertTrue(c.retreat());
+        Candle last = c.value();
+        assertTrue(c.retreat());
+        assertSame(last, c.value());
+        assertEquals(30.0, last.getOpenDouble());
+    }
+
+    @Test
+    void writeThrowsForUnsortedStartInstants() {
+        ArrayTimeline<Candle> candles = new ArrayTimeline<>();
+        Instant start = Instant.ofEpochSecond(20);
+        candles.put(Instant.ofEpochSecond(0), new DoubleCandle(1, 1, 1, 1, 1, start, Instant.ofEpochSecond(30)));
+        candles.put(Instant.ofEpochSecond(10), new DoubleCandle(1, 1, 1, 1, 1, Instant.ofEpochSecond(10), start));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> MappedCandleTimeline.write(dir.resolve("test.candles"), candles));
+    }
+
+    @Test
+    void writeThrowsForSubSecondInstants() {
+        ArrayTimeline<DoubleCandle> candles = new ArrayTimeline<>();
+        Instant start = Instant.ofEpochSecond(0, 1);
+        candles.put(start, new DoubleCandle(1, 1, 1, 1, 1, start, Instant.ofEpochSecond(10)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> MappedCandleTimeline.write(dir.resolve("test.candles"), candles));
+    }
+
+    @Test
+    void openThrowsForInvalidFile() throws IOException {
+        Path path = dir.resolve("invalid.candles");
+        Files.write(path, new byte[128]);
+
+        assertThrows(IOException.class, () -> MappedCandleTimeline.open(path));
+    }
+
+    private static ArrayTimeline<DoubleCandle> createCandles(int count) {
+        ArrayTimeline<DoubleCandle> candles = new ArrayTimeline<>();
+
+        for (int i = 0; i < count; i++) {
+            Instant start = Instant.ofEpochSecond(i * 10L);
+            Instant end = Instant.ofEpochSecond(i * 10L + 10);
+            double v = i * 10;
+            candles.put(start, new DoubleCandle(v, v + 2, v - 1, v + 1, i == 3 ? Double.NaN : i, start, end));
+        }
+
+        return candles;
+    }
+}
@@ -0,0 +1,84 @@
+package charting.gui.chart;
+
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawableBufferTest {
+    private DrawableBuffer buffer;
+
+    @BeforeEach
+    void beforeEach() {
+        buffer = new DrawableBuffer();
+    }
+
+    @Test
+    void storesLinesAndRectsAsPrimitives() {
+        buffer.addLine(1, 2, 3, 4, Color.RED, 2);
+        buffer.addRect(5, 6, 7, 8, Color.BLUE, true);
+
+        assertEquals(2, buffer.size());
+        assertEquals(DrawableBuffer.LINE, buffer.getType(0));
+        assertEquals(DrawableBuffer.STROKE_RECT, buffer.getType(1));
+        assertEquals(3, buffer.getCoord(0, 2));
+        assertEquals(8, buffer.getCoord(1, 3));
+        assertEquals(2, buffer.getWidth(0));
+        assertEquals(Color.BLUE, buffer.getPaint(1));
+    }
+
+    @Test
+    void sharesPaintIds() {
+        buffer.addLine(0, 0, 1, 1, Color.RED, 1);
+        buffer.addRect(0, 0, 1, 1, Color.BLUE);
+        buffer.addLine(0, 0, 1, 1, Color.RED, 1);
+
+        assertEquals(buffer.getPaintId(0), buffer.getPaintId(2));
+        assertNotEquals(buffer.getPaintId(0), buffer.getPaintId(1));
+    }
+
+    @Test
+    void keepsOtherDrawables() {
+        Line dashed = new Line(0, 0, 1, 1, Color.RED);
+        dashed.setLineDashes(new double[]{1, 2});
+        Text text = new Text("a", 0, 0, Color.RED, null);
+
+        buffer.add(new Line(0, 0, 1, 1, Color.RED));
+        buffer.add(dashed);
+        buffer.add(text);
+
+        assertEquals(DrawableBuffer.LINE, buffer.getType(0));
+        assertSame(dashed, buffer.getDrawable(1));
+        assertSame(text, buffer.getDrawable(2));
+    }
+
+    @Test
+    void toDrawables() {
+        buffer.addLine(1, 2, 3, 4, Color.RED, 2);
+        buffer.addRect(5, 6, 7, 8, Color.BLUE);
+
+        List<Drawable> drawables = buffer.toDrawables();
+
+        Line l = assertInstanceOf(Line.class, drawables.get(0));
+        Rect r = assertInstanceOf(Rect.class, drawables.get(1));
+        assertEquals(4, l.getY2());
+        assertEquals(Color.RED, l.getPaint());
+        assertEquals(5, r.getX());
+        assertFalse(r.isStroked());
+    }
+
+    @Test
+    void clear() {
+        for (int i = 0; i < 100; i++) {
+            buffer.addLine(i, i, i, i, Color.RED, 1);
+        }
+
+        buffer.clear();
+
+        assertTrue(buffer.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.getType(0));
+    }
+}
@@ -0,0 +1,174 @@
+package charting.gui.chart;
+
+import charting.timeline.NotLoadedException;
+import charting.timeline.TimelineLock;
+import javafx.application.Platform;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameSchedulerTest {
+    @BeforeAll
+    static void beforeAll() {
+        try {
+            Platform.startup(() -> {
+            });
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    @Test
+    void preparesPrioritizedTasksFirst() throws InterruptedException {
+        FrameScheduler scheduler = new FrameScheduler();
+
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+
+        scheduler.prepare(() -> {
+            try {
+                blocker.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, false);
+
+        for (int i = 1; i <= 3; i++) {
+            int n = i;
+            scheduler.prepare(() -> {
+                order.add(n);
+                done.countDown();
+            }, i == 3);
+        }
+
+        blocker.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(3, 1, 2), order);
+    }
+
+    @Test
+    void calculatesOnPrepareThreadWhileHoldingLock() throws InterruptedException {
+        FrameScheduler scheduler = new FrameScheduler();
+        CompletableFuture<String> f;
+
+        TimelineLock.lock();
+        try {
+            f = scheduler.calculate(() -> Thread.currentThread().getName());
+            Thread.sleep(50);
+            assertFalse(f.isDone());
+        } finally {
+            TimelineLock.unlock();
+        }
+
+        assertEquals("chart-prepare", f.join());
+
+        CompletableFuture<String> failed = scheduler.calculate(() -> {
+            throw new NotLoadedException("test");
+        });
+        CompletionException e = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(NotLoadedException.class, e.getCause());
+    }
+
+    @Test
+    void redrawsHoveredChartsFirst() throws InterruptedException {
+        List<String> order = new ArrayList<>();
+        runOnFxThread(() -> {
+            FrameScheduler scheduler = new FrameScheduler(() -> 0);
+            scheduler.schedule(new TestClient("a", false, 1, order, null, 0));
+            scheduler.schedule(new TestClient("b", true, 2, order, null, 0));
+            scheduler.onPulse(10);
+        });
+
+        assertEquals(List.of("b", "a"), order);
+    }
+
+    @Test
+    void redrawsLongestWaitingChartsFirst() throws InterruptedException {
+        List<String> order = new ArrayList<>();
+        runOnFxThread(() -> {
+            FrameScheduler scheduler = new FrameScheduler(() -> 0);
+            scheduler.schedule(new TestClient("a", false, 3, order, null, 0));
+            scheduler.schedule(new TestClient("b", false, 1, order, null, 0));
+            scheduler.schedule(new TestClient("c", false, 2, order, null, 0));
+            scheduler.onPulse(10);
+        });
+
+        assertEquals(List.of("b", "c", "a"), order);
+    }
+
+    @Test
+    void defersChartsBeyondBudget() throws InterruptedException {
+        List<String> order = new ArrayList<>();
+        runOnFxThread(() -> {
+            AtomicLong clock = new AtomicLong();
+            FrameScheduler scheduler = new FrameScheduler(clock::get);
+            scheduler.schedule(new TestClient("a", false, 1, order, clock, 5_000_000));
+            scheduler.schedule(new TestClient("b", false, 2, order, clock, 5_000_000));
+            scheduler.schedule(new TestClient("c", false, 3, order, clock, 5_000_000));
+
+            // a and b use up the budget of 8 ms, so c is deferred.
+            scheduler.onPulse(10);
+            assertEquals(List.of("a", "b"), order);
+
+            scheduler.onPulse(20);
+        });
+
+        assertEquals(List.of("a", "b", "c"), order);
+    }
+
+    private static void runOnFxThread(Runnable action) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Throwable[] error = new Throwable[1];
+        Platform.runLater(() -> {
+            try {
+                action.run();
+            } catch (Throwable t) {
+                error[0] = t;
+            } finally {
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        if (error[0] != null) {
+            throw new AssertionError(error[0]);
+        }
+    }
+
+    /**
+     * Records its redraws and advances the clock by the given duration, then needs no further redraws.
+     */
+    private record TestClient(String name, boolean prioritized, long lastRedraw, List<String> order,
+                              AtomicLong clock, long duration) implements FrameScheduler.Client {
+        @Override
+        public boolean isPrioritized() {
+            return prioritized;
+        }
+
+        @Override
+        public long getLastRedraw() {
+            return lastRedraw;
+        }
+
+        @Override
+        public boolean redraw(long timestamp) {
+            order.add(name);
+            if (clock != null) {
+                clock.addAndGet(duration);
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package charting.gui.chart;
+
+import charting.timeline.OrderStatsTreeTimeline;
+import charting.timeline.Timeline;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import javafx.util.Subscription;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InvalidationTest {
+    @Test
+    void ofValues() {
+        AtomicInteger count = new AtomicInteger();
+        StringProperty p = new SimpleStringProperty("a");
+
+        Subscription s = Invalidation.of(count::incrementAndGet, p);
+        p.set("b");
+
+        assertEquals(1, count.get());
+
+        s.unsubscribe();
+        p.set("c");
+
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    void ofTimeline() {
+        AtomicInteger count = new AtomicInteger();
+        OrderStatsTreeTimeline<Integer> t1 = new OrderStatsTreeTimeline<>();
+        OrderStatsTreeTimeline<Integer> t2 = new OrderStatsTreeTimeline<>();
+        ObjectProperty<Timeline<Integer>> p = new SimpleObjectProperty<>(t1);
+
+        Subscription s = Invalidation.ofTimeline(count::incrementAndGet, p);
+        t1.put(Instant.EPOCH, 1);
+
+        assertEquals(1, count.get());
+
+        p.set(t2);
+        t1.put(Instant.EPOCH, 2);
+
+        assertEquals(2, count.get());
+
+        t2.put(Instant.EPOCH, 1);
+
+        assertEquals(3, count.get());
+
+        s.unsubscribe();
+        t2.put(Instant.EPOCH, 2);
+
+        assertEquals(3, count.get());
+    }
+}
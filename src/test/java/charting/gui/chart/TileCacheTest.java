@@ -0,0 +1,61 @@
+package charting.gui.chart;
+
+import javafx.application.Platform;
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TileCacheTest {
+    @BeforeAll
+    static void beforeAll() {
+        try {
+            Platform.startup(() -> {
+            });
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedTiles() {
+        TileCache cache = new TileCache(3 * 10 * 10 * 4);
+        cache.validate("key");
+
+        cache.put("key", 0, new WritableImage(10, 10));
+        cache.put("key", 1, new WritableImage(10, 10));
+        cache.put("key", 2, new WritableImage(10, 10));
+        assertNotNull(cache.get(0));
+
+        cache.put("key", 3, new WritableImage(10, 10));
+
+        assertEquals(3, cache.size());
+        assertEquals(3 * 10 * 10 * 4, cache.getBytes());
+        assertTrue(cache.contains(0));
+        assertFalse(cache.contains(1));
+        assertTrue(cache.contains(2));
+        assertTrue(cache.contains(3));
+
+        cache.setMaxBytes(10 * 10 * 4);
+
+        assertEquals(1, cache.size());
+        assertTrue(cache.contains(3));
+    }
+
+    @Test
+    void discardsTilesWhenKeyChanges() {
+        TileCache cache = new TileCache(1 << 20);
+        cache.validate("key");
+        cache.put("key", 0, new WritableImage(10, 10));
+
+        cache.validate("key");
+        assertTrue(cache.contains(0));
+
+        cache.validate("other key");
+        assertFalse(cache.contains(0));
+        assertEquals(0, cache.getBytes());
+
+        cache.put("key", 0, new WritableImage(10, 10));
+        assertFalse(cache.contains(0));
+    }
+}
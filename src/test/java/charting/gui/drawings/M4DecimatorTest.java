@@ -0,0 +1,70 @@
+package charting.gui.drawings;
+
+import charting.gui.chart.DrawingContext;
+import charting.util.Range2D;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class M4DecimatorTest {
+    @Test
+    void keepsValuesWhenNotZoomedOut() {
+        M4Decimator d = new M4Decimator();
+        double[] values = {1, 2, Double.NaN, 4};
+
+        assertEquals(4, d.decimate(values, 10, 14, 0.5));
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(10 + i, d.getX(i));
+            assertEquals(values[i], d.getY(i));
+        }
+    }
+
+    @Test
+    void keepsFirstMinMaxAndLastPerPixel() {
+        M4Decimator d = new M4Decimator();
+        double[] values = {5, 9, 1, 4, 3, 3, 3, 3};
+
+        assertEquals(6, d.decimate(values, 0, 8, 4));
+
+        double[] xs = {0, 1, 2, 3, 4, 7};
+        double[] ys = {5, 9, 1, 4, 3, 3};
+        for (int i = 0; i < xs.length; i++) {
+            assertEquals(xs[i], d.getX(i));
+            assertEquals(ys[i], d.getY(i));
+        }
+    }
+
+    @Test
+    void boundsPointsByPixels() {
+        M4Decimator d = new M4Decimator();
+        double[] values = new double[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.sin(i);
+        }
+
+        assertTrue(d.decimate(values, 0, values.length, values.length / 100.0) <= 400);
+    }
+
+    @Test
+    void breaksAtNan() {
+        M4Decimator d = new M4Decimator();
+        double[] values = {1, 2, Double.NaN, Double.NaN, Double.NaN, 3, 4, 5};
+
+        assertEquals(5, d.decimate(values, 0, 8, 8));
+
+        assertEquals(1, d.getY(0));
+        assertEquals(2, d.getY(1));
+        assertTrue(Double.isNaN(d.getY(2)));
+        assertEquals(3, d.getY(3));
+        assertEquals(5, d.getY(4));
+    }
+
+    @Test
+    void usesWiderColumnsInReducedQuality() {
+        Range2D viewport = new Range2D(0, 0, 1000, 100);
+
+        assertEquals(2, M4Decimator.getIndicesPerColumn(new DrawingContext(viewport, 500, 100)));
+        assertEquals(6, M4Decimator.getIndicesPerColumn(new DrawingContext(viewport, 500, 100, true)));
+    }
+}
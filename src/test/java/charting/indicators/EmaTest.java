@@ -1,17 +1,22 @@
 package charting.indicators;
 
 import charting.timeline.OrderStatsTreeTimeline;
+import charting.timeline.TimelineRangeListener;
+import charting.timeline.Timestamped;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
 
 class EmaTest {
     private OrderStatsTreeTimeline<Number> base;
@@ -57,4 +62,88 @@ class EmaTest {
 
         assertEquals(1, values.get(Instant.ofEpochSecond(2)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void copyRangeMatchesValues() {
+        for (int i = 0; i < 10; i++) {
+            base.put(Instant.ofEpochSecond(i), i * i);
+        }
+
+        double[] values = new double[10];
+        ema.copyRange(0, 10, values);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(ema.get(i).value(), values[i], 1e-9);
+        }
+    }
+
+    @Test
+    void batchUpdateInvalidatesLaterValues() {
+        for (int i = 0; i < 5; i++) {
+            base.put(Instant.ofEpochSecond(i), i);
+        }
+
+        assertEquals(3, ema.getDouble(4), 1e-9);
+
+        Map<Instant, Double> values = new HashMap<>();
+        ema.addListener(values::put);
+
+        base.putAll(List.of(new Timestamped<>(Instant.ofEpochSecond(0), 3), new Timestamped<>(Instant.ofEpochSecond(1), 3)));
+
+        assertEquals(5, values.size());
+        assertEquals(17 / 6.0, ema.getDouble(3), 1e-9);
+        assertEquals(values.get(Instant.ofEpochSecond(4)), ema.getDouble(4), 1e-9);
+    }
+
+    @Test
+    void backFilledValueNotifiesRangeOnce() {
+        for (int i = 1; i < 10; i++) {
+            base.put(Instant.ofEpochSecond(i), i);
+        }
+
+        List<Integer> ranges = new ArrayList<>();
+        ema.addListener(new TimelineRangeListener<>() {
+            @Override
+            public void onUpdate(Instant instant, Double newValue) {
+                fail();
+            }
+
+            @Override
+            public void onRangeUpdate(int from, int to) {
+                ranges.add(from);
+                ranges.add(to);
+            }
+        });
+
+        base.put(Instant.EPOCH, 0);
+
+        assertEquals(List.of(0, 10), ranges);
+        assertEquals(1, ema.getDouble(2), 1e-9);
+    }
+
+    @Test
+    void boundedLookbackApproximatesFullCalculation() {
+        Ema bounded = new Ema(base, 3, 40);
+
+        for (int i = 0; i < 300; i++) {
+            base.put(Instant.ofEpochSecond(i), Math.sin(i / 10.0) * 100);
+        }
+
+        for (int i : new int[]{250, 120, 121, 2, 0, 299, 45, 44, 200}) {
+            assertEquals(ema.getDouble(i), bounded.getDouble(i), 1e-9);
+        }
+
+        double[] expected = new double[100];
+        double[] actual = new double[100];
+        ema.copyRange(100, 200, expected);
+        bounded.copyRange(100, 200, actual);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected[i], actual[i], 1e-9);
+        }
+
+        base.put(Instant.ofEpochSecond(150), 1000);
+
+        assertEquals(ema.getDouble(160), bounded.getDouble(160), 1e-9);
+    }
+}
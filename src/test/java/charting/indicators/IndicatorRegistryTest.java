@@ -0,0 +1,51 @@
+package charting.indicators;
+
+import charting.timeline.OrderStatsTreeTimeline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class IndicatorRegistryTest {
+    private IndicatorRegistry registry;
+    private OrderStatsTreeTimeline<Number> base;
+
+    @BeforeEach
+    void beforeEach() {
+        registry = new IndicatorRegistry();
+        base = new OrderStatsTreeTimeline<>();
+    }
+
+    @Test
+    void sharesIndicatorsWithSameParameters() {
+        assertSame(registry.sma(base, 3), registry.sma(base, 3));
+        assertSame(registry.ema(base, 3), registry.ema(base, 3));
+        assertSame(registry.macd(base), registry.macd(base, 12, 26, 9));
+    }
+
+    @Test
+    void doesNotShareIndicatorsWithDifferentParameters() {
+        assertNotSame(registry.sma(base, 3), registry.sma(base, 4));
+        assertNotSame(registry.sma(base, 3), registry.sma(base, 3, true, false));
+        assertNotSame(registry.sma(base, 3), registry.sma(new OrderStatsTreeTimeline<>(), 3));
+    }
+
+    @Test
+    void compositeIndicatorsUseSharedComponents() {
+        Sma sma = registry.sma(base, 3);
+        BollingerBands bollingerBands = registry.bollingerBands(base, 3, 2);
+
+        for (int i = 0; i < 5; i++) {
+            base.put(Instant.ofEpochSecond(i), i);
+        }
+
+        assertSame(sma, registry.sma(base, 3));
+        assertSame(sma, bollingerBands.getSma());
+        assertSame(sma, registry.standardDeviation(base, 3, false).getSma());
+        assertEquals(sma.getDouble(4), bollingerBands.get(4).value().ma(), 0);
+    }
+}
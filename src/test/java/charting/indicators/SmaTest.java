@@ -69,4 +69,20 @@ class SmaTest {
 
         assertEquals(1, values.get(Instant.ofEpochSecond(2)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void copyRangeMatchesValues() {
+        Sma sma = new Sma(base, 3, true);
+
+        for (int i = 0; i < 10; i++) {
+            base.put(Instant.ofEpochSecond(i), i);
+        }
+
+        double[] values = new double[10];
+        sma.copyRange(0, 10, values);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(sma.get(i).value(), values[i], 1e-9);
+        }
+    }
+}
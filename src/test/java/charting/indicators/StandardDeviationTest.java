@@ -1,11 +1,14 @@
 package charting.indicators;
 
 import charting.timeline.OrderStatsTreeTimeline;
+import charting.timeline.TimelineRangeListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -52,4 +55,62 @@ class StandardDeviationTest {
 
         assertTrue(Math.abs(0.816 - values.get(Instant.ofEpochSecond(2))) < 0.01);
     }
+
+    @Test
+    void notifiesDeviationsShiftedByInsertion() {
+        for (int i = 0; i < 10; i++) {
+            base.put(Instant.ofEpochSecond(i), i);
+        }
+
+        List<List<Integer>> ranges = new ArrayList<>();
+        standardDeviation.addListener(new TimelineRangeListener<>() {
+            @Override
+            public void onUpdate(Instant instant, Double newValue) {
+            }
+
+            @Override
+            public void onRangeUpdate(int from, int to) {
+                ranges.add(List.of(from, to));
+            }
+        });
+
+        base.put(Instant.ofEpochSecond(4, 500_000_000), 0);
+
+        assertTrue(ranges.contains(List.of(5, 11)), ranges.toString());
+    }
+
+    @Test
+    void copyRangeMatchesValues() {
+        for (int i = 0; i < 10; i++) {
+            base.put(Instant.ofEpochSecond(i), i * i);
+        }
+
+        double[] values = new double[9];
+        standardDeviation.copyRange(1, 10, values);
+
+        for (int i = 1; i < 10; i++) {
+            assertEquals(standardDeviation.get(i).value(), values[i - 1], 1e-9);
+        }
+    }
+
+    @Test
+    void streamingMatchesLazy() {
+        StandardDeviation streaming = new StandardDeviation(base, 3, true);
+
+        for (int i = 0; i < 50; i++) {
+            base.put(Instant.ofEpochSecond(i), i == 20 ? Double.NaN : 1000 + (i % 7) * 0.5);
+
+            assertEquals(standardDeviation.getDouble(i), streaming.getDouble(i), 1e-9);
+        }
+
+        base.put(Instant.ofEpochSecond(10), -3);
+        base.put(Instant.ofEpochSecond(-1), 7);
+
+        double[] values = new double[51];
+        streaming.copyRange(0, 51, values);
+
+        for (int i = 0; i < 51; i++) {
+            assertEquals(standardDeviation.getDouble(i), values[i], 1e-9);
+        }
+    }
 }
@@ -0,0 +1,48 @@
+package charting.indicators;
+
+import charting.timeline.ArrayTimeline;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SubtractionTest {
+    @Test
+    void subtractsByIndexIfAligned() {
+        ArrayTimeline<Number> base = new ArrayTimeline<>();
+        for (int i = 0; i < 20; i++) {
+            base.put(Instant.ofEpochSecond(i), i * i % 7);
+        }
+
+        Ema fast = new Ema(base, 3);
+        Ema slow = new Ema(base, 5);
+        Subtraction byInstant = new Subtraction(fast, slow);
+        Subtraction byIndex = new Subtraction(fast, slow, true);
+
+        double[] expected = new double[20];
+        double[] actual = new double[20];
+        byInstant.copyRange(0, 20, expected);
+        byIndex.copyRange(0, 20, actual);
+
+        assertArrayEquals(expected, actual);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(expected[i], byIndex.getDouble(i));
+        }
+    }
+
+    @Test
+    void keepsValuesWithoutSubtrahend() {
+        ArrayTimeline<Number> base = new ArrayTimeline<>();
+        base.put(Instant.ofEpochSecond(0), 5);
+        base.put(Instant.ofEpochSecond(1), 6);
+
+        ArrayTimeline<Number> subtrahend = new ArrayTimeline<>();
+        subtrahend.put(Instant.ofEpochSecond(1), 2);
+
+        Subtraction s = new Subtraction(base, subtrahend);
+        assertEquals(5, s.getDouble(0));
+        assertEquals(4, s.getDouble(1));
+    }
+}
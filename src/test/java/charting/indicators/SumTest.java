@@ -1,14 +1,19 @@
 package charting.indicators;
 
 import charting.timeline.OrderStatsTreeTimeline;
+import charting.timeline.TimelineRangeListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
 
 class SumTest {
     private OrderStatsTreeTimeline<Number> base;
@@ -64,4 +69,117 @@ class SumTest {
 
         assertEquals(3, values.get(Instant.ofEpochSecond(2)));
     }
+
+    @Test
+    void copyRangeMatchesValues() {
+        Sum sum = new Sum(base, 3, false);
+
+        for (int i = 0; i < 10; i++) {
+            base.put(Instant.ofEpochSecond(i), i == 4 ? Double.NaN : i);
+        }
+
+        double[] values = new double[8];
+        sum.copyRange(1, 9, values);
+
+        for (int i = 1; i < 9; i++) {
+            assertEquals(sum.get(i).value(), values[i - 1], 1e-9);
+            assertEquals(sum.get(i).value(), sum.getDouble(i), 1e-9);
+        }
+    }
+
+    @Test
+    void notifiesRangeOfAffectedSums() {
+        Sum sum = new Sum(base, 3, false);
+
+        for (int i = 0; i < 10; i++) {
+            base.put(Instant.ofEpochSecond(i), i);
+        }
+
+        List<Integer> ranges = new ArrayList<>();
+        sum.addListener(new TimelineRangeListener<>() {
+            @Override
+            public void onUpdate(Instant instant, Double newValue) {
+                fail();
+            }
+
+            @Override
+            public void onRangeUpdate(int from, int to) {
+                ranges.add(from);
+                ranges.add(to);
+            }
+        });
+
+        base.put(Instant.ofEpochSecond(4), 0);
+        base.put(Instant.ofEpochSecond(9), 0);
+
+        assertEquals(List.of(4, 7, 9, 10), ranges);
+        assertEquals(8, sum.getDouble(5), 1e-9);
+    }
+
+    @Test
+    void notifiesSumsShiftedByInsertion() {
+        Sum sum = new Sum(base, 3, false);
+
+        for (int i = 0; i < 10; i++) {
+            base.put(Instant.ofEpochSecond(i), i);
+        }
+
+        List<String> updates = new ArrayList<>();
+        sum.addListener(new TimelineRangeListener<>() {
+            @Override
+            public void onUpdate(Instant instant, Double newValue) {
+                updates.add(instant + "=" + newValue);
+            }
+
+            @Override
+            public void onRangeUpdate(int from, int to) {
+                updates.add(from + "-" + to);
+            }
+        });
+
+        base.put(Instant.ofEpochSecond(4, 500_000_000), 0);
+
+        assertEquals(List.of("5-11"), updates);
+        assertEquals(9, sum.getDouble(6), 1e-9);
+    }
+
+    @Test
+    void streamingMatchesLazy() {
+        Sum lazy = new Sum(base, 4, false);
+        Sum streaming = new Sum(base, 4, false, true);
+
+        for (int i = 0; i < 50; i++) {
+            base.put(Instant.ofEpochSecond(i), i == 20 ? Double.NaN : i * 1.5);
+
+            assertEquals(lazy.getDouble(i), streaming.getDouble(i), 1e-9);
+        }
+
+        base.put(Instant.ofEpochSecond(10), -3);
+        base.put(Instant.ofEpochSecond(-1), 7);
+
+        double[] values = new double[51];
+        streaming.copyRange(0, 51, values);
+
+        for (int i = 0; i < 51; i++) {
+            assertEquals(lazy.getDouble(i), values[i], 1e-9);
+        }
+    }
+
+    @Test
+    void matchesIterationAfterUpdates() {
+        Sum sum = new Sum(base, 5, true);
+        Random random = new Random(42);
+
+        for (int n = 0; n < 200; n++) {
+            base.put(Instant.ofEpochSecond(random.nextInt(100)), random.nextInt(1000) / 10.0);
+
+            int i = random.nextInt(base.size());
+            double expected = 0;
+            for (int j = Math.max(i - 4, 0); j <= i; j++) {
+                expected += base.get(j).value().doubleValue();
+            }
+
+            assertEquals(expected, sum.getDouble(i), 1e-6);
+        }
+    }
 }
@@ -0,0 +1,428 @@
+package charting.timeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayTimelineTest {
+    @Test
+    void getValue() {
+        ArrayTimeline<Integer> t = new ArrayTimeline<>();
+        t.put(Instant.ofEpochSecond(1), 10);
+        t.put(Instant.ofEpochSecond(0), 5);
+
+        assertEquals(5, t.getValue(0));
+        assertEquals(10, t.getValue(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> t.getValue(2));
+        assertEquals(10, new SkipTimeline<>(t, 1).getValue(0));
+    }
+
+    @Test
+    void put() {
+        List<Integer> l = new ArrayList<>(IntStream.range(0, 100).boxed().toList());
+        Collections.shuffle(l);
+
+        ArrayTimeline<Integer> t = new ArrayTimeline<>();
+        for (int i : l) {
+            t.put(Instant.ofEpochSecond(i), i);
+        }
+
+        l.sort(Comparator.naturalOrder());
+
+        assertEquals(l, StreamSupport.stream(t.spliterator(), false)
+                .map(Timestamped::value)
+                .toList());
+    }
+
+    @Test
+    void putInChronologicalOrder() {
+        ArrayTimeline<Integer> t = new ArrayTimeline<>(0);
+        for (int i = 0; i < 1000; i++) {
+            t.put(Instant.ofEpochSecond(i), i);
+        }
+
+        assertEquals(1000, t.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, t.get(i).value());
+            assertEquals(i, t.indexOf(Instant.ofEpochSecond(i)));
+        }
+    }
+
+    @Test
+    void distinguishesNanos() {
+        ArrayTimeline<Integer> t = new ArrayTimeline<>();
+        t.put(Instant.ofEpochSecond(1, 1), 2);
+        t.put(Instant.ofEpochSecond(1), 1);
+        t.put(Instant.ofEpochSecond(1, 2), 3);
+
+        assertEquals(3, t.size());
+        assertEquals(1, t.get(0).value());
+        assertEquals(Instant.ofEpochSecond(1, 1), t.get(1).timestamp());
+        assertEquals(-4, t.indexOf(Instant.ofEpochSecond(1, 3)));
+    }
+
+    @Test
+    void replacingWithPut() {
+        ArrayTimeline<Integer> t = createTimeline(2, 2, 3);
+        t.put(Instant.EPOCH, 1);
+        assertEquals(1, t.get(Instant.EPOCH).value());
+    }
+
+    @Test
+    void first() {
+        assertNull(createTimeline().first());
+
+        Timestamped<Integer> t = createTimeline(1, 1, 1).first();
+        assertNotNull(t);
+        assertEquals(0, t.timestamp().getEpochSecond());
+    }
+
+    @Test
+    void last() {
+        assertNull(createTimeline().last());
+
+        Timestamped<Integer> t = createTimeline(1, 1, 1).last();
+        assertNotNull(t);
+        assertEquals(2, t.timestamp().getEpochSecond());
+    }
+
+    @Test
+    void get() {
+        assertNull(createTimeline().get(Instant.EPOCH));
+
+        Timestamped<Integer> t = createTimeline(1, 2, 3).get(Instant.EPOCH);
+        assertNotNull(t);
+        assertEquals(1, t.value());
+    }
+
+    @Test
+    void floor() {
+        assertNull(createTimeline().floor(Instant.EPOCH));
+
+        Timestamped<Integer> t = createTimeline(1, 2, 3).floor(Instant.EPOCH);
+        assertNotNull(t);
+        assertEquals(1, t.value());
+
+        t = createTimeline(1, 2, 3).floor(Instant.MAX);
+        assertNotNull(t);
+        assertEquals(3, t.value());
+
+        assertNull(createTimeline(1, 2, 3).floor(Instant.MIN));
+    }
+
+    @Test
+    void ceiling() {
+        assertNull(createTimeline().ceiling(Instant.EPOCH));
+
+        Timestamped<Integer> t = createTimeline(1, 2, 3).ceiling(Instant.EPOCH);
+        assertNotNull(t);
+        assertEquals(1, t.value());
+
+        t = createTimeline(1, 2, 3).ceiling(Instant.MIN);
+        assertNotNull(t);
+        assertEquals(1, t.value());
+
+        assertNull(createTimeline(1, 2, 3).ceiling(Instant.MAX));
+    }
+
+    @Test
+    void lower() {
+        assertNull(createTimeline().lower(Instant.EPOCH));
+
+        Timestamped<Integer> t = createTimeline(1, 2, 3).lower(Instant.ofEpochSecond(1));
+        assertNotNull(t);
+        assertEquals(1, t.value());
+
+        t = createTimeline(1, 2, 3).lower(Instant.MAX);
+        assertNotNull(t);
+        assertEquals(3, t.value());
+
+        assertNull(createTimeline(1, 2, 3).lower(Instant.EPOCH));
+    }
+
+    @Test
+    void higher() {
+        assertNull(createTimeline().higher(Instant.EPOCH));
+
+        Timestamped<Integer> t = createTimeline(1, 2, 3).higher(Instant.ofEpochSecond(1));
+        assertNotNull(t);
+        assertEquals(3, t.value());
+
+        t = createTimeline(1, 2, 3).higher(Instant.MIN);
+        assertNotNull(t);
+        assertEquals(1, t.value());
+
+        assertNull(createTimeline(1, 2, 3).higher(Instant.ofEpochSecond(2)));
+    }
+
+    @Test
+    void getWithIndex() {
+        assertNull(createTimeline().get(0));
+        assertThrows(IllegalArgumentException.class, () -> createTimeline().get(-1));
+
+        Timestamped<Integer> t = createTimeline(1, 2, 3).get(0);
+        assertNotNull(t);
+        assertEquals(1, t.value());
+    }
+
+    @Test
+    void indexOf() {
+        assertEquals(-1, createTimeline().indexOf(Instant.EPOCH));
+
+        List<Integer> l = new ArrayList<>(IntStream.range(0, 100).boxed().toList());
+        Collections.shuffle(l);
+        int[] a = l.stream().limit(50).mapToInt(i -> i).sorted().toArray();
+
+        ArrayTimeline<Integer> t = new ArrayTimeline<>();
+        for (int i : a) {
+            t.put(Instant.ofEpochSecond(i), i);
+        }
+
+        for (int i = -1; i < 101; i++) {
+            assertEquals(Arrays.binarySearch(a, i), t.indexOf(Instant.ofEpochSecond(i)));
+        }
+    }
+
+    @Test
+    void listIteratorWithIndex() {
+        ArrayTimeline<Integer> t = createTimeline(1, 2, 3, 4, 5);
+        List<Integer> l = List.of(1, 2, 3, 4, 5);
+
+        ListIterator<Timestamped<Integer>> tIt = t.listIterator(2);
+        ListIterator<Integer> lIt = l.listIterator(2);
+
+        Random r = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            boolean b = r.nextBoolean();
+
+            if (b) {
+                assertEquals(lIt.hasNext(), tIt.hasNext());
+                assertEquals(lIt.nextIndex(), tIt.nextIndex());
+
+                if (lIt.hasNext()) {
+                    assertEquals(lIt.next(), tIt.next().value());
+                } else {
+                    assertThrows(NoSuchElementException.class, tIt::next);
+                }
+            } else {
+                assertEquals(lIt.hasPrevious(), tIt.hasPrevious());
+                assertEquals(lIt.previousIndex(), tIt.previousIndex());
+
+                if (lIt.hasPrevious()) {
+                    assertEquals(lIt.previous(), tIt.previous().value());
+                } else {
+                    assertThrows(NoSuchElementException.class, tIt::previous);
+                }
+            }
+        }
+
+        tIt = t.listIterator(0);
+        lIt = l.listIterator(0);
+        assertEquals(lIt.hasPrevious(), tIt.hasPrevious());
+        assertEquals(lIt.previousIndex(), tIt.previousIndex());
+        assertThrows(NoSuchElementException.class, tIt::previous);
+
+        tIt = t.listIterator(5);
+        lIt = l.listIterator(5);
+        assertEquals(lIt.hasNext(), tIt.hasNext());
+        assertEquals(lIt.nextIndex(), tIt.nextIndex());
+        assertThrows(NoSuchElementException.class, tIt::next);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> t.listIterator(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> t.listIterator(6));
+    }
+
+    @Test
+    void listIteratorWithInstant() {
+        ArrayTimeline<Integer> t = createTimeline(1, 2, 3, 4, 5);
+
+        ListIterator<Timestamped<Integer>> it = t.listIterator(Instant.ofEpochSecond(2));
+        assertEquals(2, it.nextIndex());
+        assertEquals(1, it.previousIndex());
+    }
+
+    @Test
+    void modifyingWhileIteratingThrowsConcurrentModificationException() {
+        ArrayTimeline<Integer> t = createTimeline(1, 2, 3, 4, 5);
+
+        ListIterator<Timestamped<Integer>> it = t.listIterator(Instant.ofEpochSecond(2));
+        t.put(Instant.EPOCH, 0);
+        assertThrows(ConcurrentModificationException.class, it::next);
+        assertThrows(ConcurrentModificationException.class, it::previous);
+    }
+
+    @Test
+    void cursor() {
+        ArrayTimeline<Integer> t = createTimeline(1, 2, 3, 4, 5);
+
+        TimelineCursor<Integer> c = t.cursor(-1);
+        assertEquals(-1, c.index());
+        assertThrows(IndexOutOfBoundsException.class, c::value);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(c.advance());
+            assertEquals(i, c.index());
+            assertEquals(Instant.ofEpochSecond(i), c.timestamp());
+            assertEquals(i + 1, c.value());
+        }
+
+        assertFalse(c.advance());
+        assertEquals(5, c.index());
+        assertThrows(IndexOutOfBoundsException.class, c::timestamp);
+
+        assertTrue(c.retreat());
+        assertEquals(5, c.value());
+        assertTrue(c.retreat());
+        assertEquals(4, c.value());
+
+        c = t.cursor(2);
+        assertEquals(3, c.value());
+        assertTrue(c.retreat());
+        assertTrue(c.retreat());
+        assertFalse(c.retreat());
+        assertEquals(-1, c.index());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> t.cursor(-2));
+        assertThrows(IndexOutOfBoundsException.class, () -> t.cursor(6));
+        assertFalse(createTimeline().cursor(-1).advance());
+    }
+
+    @Test
+    void modifyingWhileMovingCursorThrowsConcurrentModificationException() {
+        ArrayTimeline<Integer> t = createTimeline(1, 2, 3, 4, 5);
+
+        TimelineCursor<Integer> c = t.cursor(2);
+        t.put(Instant.EPOCH, 0);
+        assertThrows(ConcurrentModificationException.class, c::advance);
+        assertThrows(ConcurrentModificationException.class, c::retreat);
+    }
+
+    @Test
+    void putAll() {
+        ArrayTimeline<Integer> t = new ArrayTimeline<>();
+        t.putAll(IntStream.range(0, 100)
+                .mapToObj(i -> new Timestamped<>(Instant.ofEpochSecond(i * 2L), i * 2))
+                .toList());
+
+        TreeMap<Instant, Integer> m = new TreeMap<>();
+        for (int i = 0; i < 50; i++) {
+            m.put(Instant.ofEpochSecond(i * 3L), -i * 3);
+        }
+        t.putAll(m);
+
+        t.putAll(List.of(new Timestamped<>(Instant.ofEpochSecond(7), 7)));
+
+        List<Integer> expected = IntStream.range(0, 200)
+                .filter(i -> i == 7 || i % 2 == 0 && i < 200 || i % 3 == 0 && i < 150)
+                .map(i -> i == 7 ? 7 : i % 3 == 0 && i < 150 ? -i : i)
+                .boxed()
+                .toList();
+
+        assertEquals(expected, StreamSupport.stream(t.spliterator(), false)
+                .map(Timestamped::value)
+                .toList());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), t.get(i).value());
+            assertEquals(i, t.indexOf(t.get(i).timestamp()));
+        }
+    }
+
+    @Test
+    void putAllThrowsForUnsortedElements() {
+        ArrayTimeline<Integer> t = createTimeline(1, 2, 3);
+
+        assertThrows(IllegalArgumentException.class, () -> t.putAll(List.of(
+                new Timestamped<>(Instant.ofEpochSecond(5), 5),
+                new Timestamped<>(Instant.ofEpochSecond(4), 4))));
+        assertEquals(3, t.size());
+    }
+
+    @Test
+    void putAllNotifiesOnce() {
+        ArrayTimeline<Integer> t = createTimeline(1, 2, 3);
+
+        List<String> updates = new ArrayList<>();
+        t.addListener(new TimelineRangeListener<>() {
+            @Override
+            public void onUpdate(Instant instant, Integer newValue) {
+                updates.add(instant.getEpochSecond() + "=" + newValue);
+            }
+
+            @Override
+            public void onRangeUpdate(int from, int to) {
+                updates.add(from + "-" + to);
+            }
+        });
+
+        t.putAll(List.of(new Timestamped<>(Instant.ofEpochSecond(1), 4), new Timestamped<>(Instant.ofEpochSecond(2), 5)));
+        t.putAll(List.of(new Timestamped<>(Instant.ofEpochSecond(3), 6), new Timestamped<>(Instant.ofEpochSecond(4), 7)));
+
+        assertEquals(List.of("1-3", "3-5"), updates);
+    }
+
+    @Test
+    void putAllReportsElementsShiftedByInsertion() {
+        ArrayTimeline<Integer> t = new ArrayTimeline<>();
+        for (int i = 0; i < 4; i++) {
+            t.put(Instant.ofEpochSecond(i * 10L), i);
+        }
+
+        List<String> updates = new ArrayList<>();
+        t.addListener(new TimelineRangeListener<>() {
+            @Override
+            public void onUpdate(Instant instant, Integer newValue) {
+                updates.add(instant.getEpochSecond() + "=" + newValue);
+            }
+
+            @Override
+            public void onRangeUpdate(int from, int to) {
+                updates.add(from + "-" + to);
+            }
+        });
+
+        t.putAll(List.of(new Timestamped<>(Instant.ofEpochSecond(5), 5), new Timestamped<>(Instant.ofEpochSecond(15), 15)));
+
+        assertEquals(List.of("1-6"), updates);
+        assertEquals(6, t.size());
+    }
+
+    @Test
+    void copyOf() {
+        ArrayTimeline<Integer> t = new ArrayTimeline<>();
+        for (int i = 0; i < 10; i++) {
+            t.put(Instant.ofEpochSecond(i * 10L), i);
+        }
+
+        ArrayTimeline<Integer> copy = ArrayTimeline.copyOf(t, Instant.ofEpochSecond(15), Instant.ofEpochSecond(50));
+        assertEquals(List.of(2, 3, 4), StreamSupport.stream(copy.spliterator(), false)
+                .map(Timestamped::value)
+                .toList());
+
+        assertEquals(10, ArrayTimeline.copyOf(t, Instant.MIN, Instant.MAX).size());
+        assertEquals(0, ArrayTimeline.copyOf(t, Instant.ofEpochSecond(91), Instant.MAX).size());
+        assertEquals(0, ArrayTimeline.copyOf(t, Instant.ofEpochSecond(11), Instant.ofEpochSecond(20)).size());
+    }
+
+    @Test
+    void size() {
+        assertEquals(0, createTimeline().size());
+        assertEquals(3, createTimeline(1, 2, 3).size());
+    }
+
+    private ArrayTimeline<Integer> createTimeline(int... ints) {
+        ArrayTimeline<Integer> t = new ArrayTimeline<>();
+
+        int s = 0;
+        for (int i : ints) {
+            t.put(Instant.ofEpochSecond(s++), i);
+        }
+
+        return t;
+    }
+}
\ No newline at end of file
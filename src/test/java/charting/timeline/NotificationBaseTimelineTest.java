@@ -62,6 +62,25 @@ class NotificationBaseTimelineTest {
         assertTrue(threw.get());
     }
 
+    @Test
+    void notifiesAfterListenerThrew() {
+        OrderStatsTreeTimeline<Integer> t = new OrderStatsTreeTimeline<>();
+
+        List<Integer> values = new ArrayList<>();
+        t.addListener((i, v) -> {
+            if (v == 1) {
+                throw new NotLoadedException("test");
+            }
+
+            values.add(v);
+        });
+
+        assertThrows(NotLoadedException.class, () -> t.put(Instant.EPOCH, 1));
+        t.put(Instant.EPOCH, 2);
+
+        assertEquals(List.of(2), values);
+    }
+
     @Test
     void doesNotNotifyRemovedListeners() {
         OrderStatsTreeTimeline<Integer> t = new OrderStatsTreeTimeline<>();
@@ -80,4 +99,62 @@ class NotificationBaseTimelineTest {
 
         assertFalse(notified.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    void batchCoalescesUpdates() {
+        OrderStatsTreeTimeline<Integer> t = new OrderStatsTreeTimeline<>();
+        t.put(Instant.ofEpochSecond(0), 0);
+        t.put(Instant.ofEpochSecond(2), 2);
+        t.put(Instant.ofEpochSecond(4), 4);
+
+        List<Integer> ranges = new ArrayList<>();
+        t.addListener(new TimelineRangeListener<>() {
+            @Override
+            public void onUpdate(Instant instant, Integer newValue) {
+                fail();
+            }
+
+            @Override
+            public void onRangeUpdate(int from, int to) {
+                ranges.add(from);
+                ranges.add(to);
+            }
+        });
+
+        List<Integer> values = new ArrayList<>();
+        t.addListener((i, v) -> values.add(v));
+
+        t.batch(() -> {
+            t.put(Instant.ofEpochSecond(2), 3);
+            t.batch(() -> t.put(Instant.ofEpochSecond(4), 5));
+            assertTrue(ranges.isEmpty());
+        });
+
+        assertEquals(List.of(1, 3), ranges);
+        assertEquals(List.of(3, 5), values);
+
+        ranges.clear();
+        values.clear();
+
+        t.batch(() -> t.put(Instant.ofEpochSecond(1), 1));
+
+        assertEquals(List.of(1, 4), ranges);
+        assertEquals(List.of(1, 3, 5), values);
+    }
+
+    @Test
+    void emptyBatchDoesNotNotify() {
+        OrderStatsTreeTimeline<Integer> t = new OrderStatsTreeTimeline<>();
+        t.addListener((i, v) -> fail());
+
+        t.batch(() -> {
+        });
+    }
+
+    @Test
+    void endUpdateWithoutBeginUpdateThrows() {
+        OrderStatsTreeTimeline<Integer> t = new OrderStatsTreeTimeline<>();
+
+        assertThrows(IllegalStateException.class, t::endUpdate);
+    }
+}
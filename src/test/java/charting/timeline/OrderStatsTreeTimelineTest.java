@@ -217,6 +217,116 @@ class OrderStatsTreeTimelineTest {
         assertThrows(ConcurrentModificationException.class, it::previous);
     }
 
+    @Test
+    void cursor() {
+        OrderStatsTreeTimeline<Integer> t = createTimeline(1, 2, 3, 4, 5);
+
+        TimelineCursor<Integer> c = t.cursor(-1);
+        assertEquals(-1, c.index());
+        assertThrows(IndexOutOfBoundsException.class, c::value);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(c.advance());
+            assertEquals(i, c.index());
+            assertEquals(Instant.ofEpochSecond(i), c.timestamp());
+            assertEquals(i + 1, c.value());
+        }
+
+        assertFalse(c.advance());
+        assertEquals(5, c.index());
+        assertThrows(IndexOutOfBoundsException.class, c::timestamp);
+
+        assertTrue(c.retreat());
+        assertEquals(5, c.value());
+        assertTrue(c.retreat());
+        assertEquals(4, c.value());
+
+        c = t.cursor(2);
+        assertEquals(3, c.value());
+        assertTrue(c.retreat());
+        assertTrue(c.retreat());
+        assertFalse(c.retreat());
+        assertEquals(-1, c.index());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> t.cursor(-2));
+        assertThrows(IndexOutOfBoundsException.class, () -> t.cursor(6));
+        assertFalse(createTimeline().cursor(-1).advance());
+    }
+
+    @Test
+    void modifyingWhileMovingCursorThrowsConcurrentModificationException() {
+        OrderStatsTreeTimeline<Integer> t = createTimeline(1, 2, 3, 4, 5);
+
+        TimelineCursor<Integer> c = t.cursor(2);
+        t.put(Instant.EPOCH, 0);
+        assertThrows(ConcurrentModificationException.class, c::advance);
+        assertThrows(ConcurrentModificationException.class, c::retreat);
+    }
+
+    @Test
+    void putAll() {
+        OrderStatsTreeTimeline<Integer> t = new OrderStatsTreeTimeline<>();
+        t.putAll(IntStream.range(0, 100)
+                .mapToObj(i -> new Timestamped<>(Instant.ofEpochSecond(i * 2L), i * 2))
+                .toList());
+
+        TreeMap<Instant, Integer> m = new TreeMap<>();
+        for (int i = 0; i < 50; i++) {
+            m.put(Instant.ofEpochSecond(i * 3L), -i * 3);
+        }
+        t.putAll(m);
+
+        t.putAll(List.of(new Timestamped<>(Instant.ofEpochSecond(7), 7)));
+
+        List<Integer> expected = IntStream.range(0, 200)
+                .filter(i -> i == 7 || i % 2 == 0 && i < 200 || i % 3 == 0 && i < 150)
+                .map(i -> i == 7 ? 7 : i % 3 == 0 && i < 150 ? -i : i)
+                .boxed()
+                .toList();
+
+        assertEquals(expected, StreamSupport.stream(t.spliterator(), false)
+                .map(Timestamped::value)
+                .toList());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), t.get(i).value());
+            assertEquals(i, t.indexOf(t.get(i).timestamp()));
+        }
+    }
+
+    @Test
+    void putAllThrowsForUnsortedElements() {
+        OrderStatsTreeTimeline<Integer> t = createTimeline(1, 2, 3);
+
+        assertThrows(IllegalArgumentException.class, () -> t.putAll(List.of(
+                new Timestamped<>(Instant.ofEpochSecond(5), 5),
+                new Timestamped<>(Instant.ofEpochSecond(4), 4))));
+        assertEquals(3, t.size());
+    }
+
+    @Test
+    void putAllNotifiesOnce() {
+        OrderStatsTreeTimeline<Integer> t = createTimeline(1, 2, 3);
+
+        List<String> updates = new ArrayList<>();
+        t.addListener(new TimelineRangeListener<>() {
+            @Override
+            public void onUpdate(Instant instant, Integer newValue) {
+                updates.add(instant.getEpochSecond() + "=" + newValue);
+            }
+
+            @Override
+            public void onRangeUpdate(int from, int to) {
+                updates.add(from + "-" + to);
+            }
+        });
+
+        t.putAll(List.of(new Timestamped<>(Instant.ofEpochSecond(1), 4), new Timestamped<>(Instant.ofEpochSecond(2), 5)));
+        t.putAll(List.of(new Timestamped<>(Instant.ofEpochSecond(3), 6), new Timestamped<>(Instant.ofEpochSecond(4), 7)));
+
+        assertEquals(List.of("1-3", "3-5"), updates);
+    }
+
     @Test
     void size() {
         assertEquals(0, createTimeline().size());
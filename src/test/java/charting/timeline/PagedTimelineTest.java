@@ -0,0 +1,325 @@
+package charting.timeline;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedTimelineTest {
+    private static final Duration SEGMENT = Duration.ofSeconds(100);
+
+    /**
+     * The history with an element every 10 seconds in [0, 500).
+     */
+    private ArrayTimeline<Integer> history;
+    private List<Instant> loads;
+
+    @BeforeEach
+    void beforeEach() {
+        history = new ArrayTimeline<>();
+        for (int i = 0; i < 50; i++) {
+            history.put(Instant.ofEpochSecond(i * 10L), i);
+        }
+
+        loads = new ArrayList<>();
+    }
+
+    private PagedTimeline<Integer> createTimeline(int maxLoadedSegments) {
+        return createTimeline(maxLoadedSegments, Runnable::run, Runnable::run);
+    }
+
+    private PagedTimeline<Integer> createTimeline(int maxLoadedSegments, Executor fetchExecutor,
+                                                  Executor updateExecutor) {
+        return new PagedTimeline<>((from, to) -> {
+            loads.add(from);
+            List<Timestamped<Integer>> l = new ArrayList<>();
+            ArrayTimeline.copyOf(history, from, to).forEach(l::add);
+            return l;
+        }, history.first().timestamp(), Instant.ofEpochSecond(500), SEGMENT, maxLoadedSegments, fetchExecutor,
+                updateExecutor);
+    }
+
+    private static List<String> recordUpdates(Timeline<Integer> t) {
+        List<String> updates = new ArrayList<>();
+        t.addListener(new TimelineRangeListener<>() {
+            @Override
+            public void onUpdate(Instant instant, Integer newValue) {
+                updates.add(instant.getEpochSecond() + "");
+            }
+
+            @Override
+            public void onRangeUpdate(int from, int to) {
+                updates.add(from + "-" + to);
+            }
+        });
+
+        return updates;
+    }
+
+    @Test
+    void loadPrevious() {
+        PagedTimeline<Integer> t = createTimeline(16);
+        assertEquals(0, t.size());
+        assertNull(t.first());
+        assertNull(t.last());
+
+        assertEquals(10, t.loadPrevious());
+        assertEquals(10, t.size());
+        assertEquals(40, t.first().value());
+        assertEquals(49, t.last().value());
+
+        assertEquals(10, t.loadPrevious());
+        assertEquals(20, t.size());
+        assertEquals(30, t.get(0).value());
+        assertEquals(49, t.get(19).value());
+
+        while (!t.isComplete()) {
+            assertEquals(10, t.loadPrevious());
+        }
+
+        assertEquals(50, t.size());
+        assertEquals(0, t.loadPrevious());
+        assertEquals(5, loads.size());
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, t.get(i).value());
+        }
+    }
+
+    @Test
+    void skipsGaps() {
+        // Removes the elements in [100, 350), which spans more than two segments.
+        ArrayTimeline<Integer> h = new ArrayTimeline<>();
+        history.forEach(e -> {
+            if (e.value() < 10 || e.value() >= 35) {
+                h.put(e.timestamp(), e.value());
+            }
+        });
+        history = h;
+
+        PagedTimeline<Integer> t = createTimeline(16);
+        assertEquals(10, t.loadPrevious());
+        assertEquals(5, t.loadPrevious());
+        assertFalse(t.isComplete());
+
+        assertEquals(10, t.loadPrevious());
+        assertTrue(t.isComplete());
+        assertEquals(25, t.size());
+        assertEquals(List.of(400L, 300L, 200L, 100L, 0L), loads.stream().map(Instant::getEpochSecond).toList());
+
+        assertEquals(9, t.get(9).value());
+        assertEquals(35, t.get(10).value());
+        assertEquals(10, t.indexOf(Instant.ofEpochSecond(350)));
+        assertEquals(-11, t.indexOf(Instant.ofEpochSecond(250)));
+        assertEquals(-11, t.indexOf(Instant.ofEpochSecond(100)));
+    }
+
+    @Test
+    void skipsGapsAsync() {
+        ArrayTimeline<Integer> h = new ArrayTimeline<>();
+        history.forEach(e -> {
+            if (e.value() < 10 || e.value() >= 40) {
+                h.put(e.timestamp(), e.value());
+            }
+        });
+        history = h;
+
+        PagedTimeline<Integer> t = createTimeline(16);
+        t.loadPrevious();
+
+        List<Runnable> fetches = new ArrayList<>();
+        CompletableFuture<Integer> f = t.loadPreviousAsync(fetches::add, Runnable::run);
+
+        for (int i = 0; i < fetches.size(); i++) {
+            fetches.get(i).run();
+        }
+
+        assertEquals(10, f.join());
+        assertEquals(4, fetches.size());
+        assertTrue(t.isComplete());
+        assertEquals(20, t.size());
+    }
+
+    @Test
+    void isCompleteWithoutElements() {
+        PagedTimeline<Integer> t = new PagedTimeline<>((from, to) -> List.of(), Instant.ofEpochSecond(500),
+                Instant.ofEpochSecond(500), SEGMENT, 16);
+
+        assertTrue(t.isComplete());
+        assertEquals(0, t.loadPrevious());
+        assertEquals(0, t.loadPreviousAsync(Runnable::run, Runnable::run).join());
+    }
+
+    @Test
+    void indexOf() {
+        PagedTimeline<Integer> t = createTimeline(16);
+        assertEquals(-1, t.indexOf(Instant.ofEpochSecond(0)));
+
+        t.loadPrevious();
+        t.loadPrevious();
+
+        assertEquals(0, t.indexOf(Instant.ofEpochSecond(300)));
+        assertEquals(19, t.indexOf(Instant.ofEpochSecond(490)));
+        assertEquals(-2, t.indexOf(Instant.ofEpochSecond(305)));
+        assertEquals(-11, t.indexOf(Instant.ofEpochSecond(399)));
+        assertEquals(-1, t.indexOf(Instant.ofEpochSecond(299)));
+        assertEquals(-21, t.indexOf(Instant.ofEpochSecond(495)));
+        assertEquals(-21, t.indexOf(Instant.ofEpochSecond(1000)));
+
+        assertEquals(35, t.floor(Instant.ofEpochSecond(355)).value());
+        assertEquals(36, t.ceiling(Instant.ofEpochSecond(355)).value());
+    }
+
+    @Test
+    void evictsAndReloadsSegments() {
+        PagedTimeline<Integer> t = createTimeline(2);
+        t.loadPrevious();
+        t.loadPrevious();
+        t.loadPrevious();
+        assertEquals(3, loads.size());
+
+        assertEquals(25, t.get(5).value());
+        assertEquals(3, loads.size());
+
+        // The newest segment was evicted and keeps its indices.
+        assertEquals(49, t.get(29).value());
+        assertEquals(4, loads.size());
+        assertEquals(Instant.ofEpochSecond(400), loads.get(3));
+
+        assertEquals(45, t.get(25).value());
+        assertEquals(4, loads.size());
+    }
+
+    @Test
+    void doesNotEvictSegmentsWhileReading() {
+        PagedTimeline<Integer> t = createTimeline(1);
+        t.loadPrevious();
+        t.loadPrevious();
+        t.loadPrevious();
+
+        assertEquals(49, t.get(29).value());
+        assertEquals(35, t.get(15).value());
+        assertEquals(49, t.get(29).value());
+        assertEquals(5, loads.size());
+
+        // Until the next elements are prepended.
+        t.loadPrevious();
+        assertEquals(49, t.get(39).value());
+        assertEquals(7, loads.size());
+    }
+
+    @Test
+    void reloadsEvictedSegmentsInBackground() {
+        List<Runnable> fetches = new ArrayList<>();
+        List<Runnable> updates = new ArrayList<>();
+        PagedTimeline<Integer> t = createTimeline(2, fetches::add, updates::add);
+        t.loadPrevious();
+        t.loadPrevious();
+        t.loadPrevious();
+        List<String> notifications = recordUpdates(t);
+
+        // The instants of the evicted newest segment stay in memory.
+        assertEquals(29, t.indexOf(Instant.ofEpochSecond(490)));
+        TimelineCursor<Integer> c = t.cursor(28);
+        assertTrue(c.advance());
+        assertEquals(Instant.ofEpochSecond(490), c.timestamp());
+        assertTrue(fetches.isEmpty());
+
+        assertThrows(NotLoadedException.class, c::value);
+        assertThrows(NotLoadedException.class, () -> t.get(25));
+        assertEquals(1, fetches.size());
+
+        fetches.remove(0).run();
+        assertEquals(4, loads.size());
+        assertThrows(NotLoadedException.class, () -> t.get(25));
+
+        updates.remove(0).run();
+        assertEquals(List.of("20-30"), notifications);
+        assertEquals(45, t.get(25).value());
+        assertEquals(49, c.value());
+        assertTrue(fetches.isEmpty());
+    }
+
+    @Test
+    void retainsSegments() {
+        List<Runnable> fetches = new ArrayList<>();
+        List<Runnable> updates = new ArrayList<>();
+        PagedTimeline<Integer> t = createTimeline(2, fetches::add, updates::add);
+        t.loadPrevious();
+        t.loadPrevious();
+        t.loadPrevious();
+        List<String> notifications = recordUpdates(t);
+
+        // The newest segment was evicted and is loaded again in the background.
+        t.retain(20, 40);
+        assertEquals(1, fetches.size());
+        fetches.remove(0).run();
+        updates.remove(0).run();
+        assertEquals(List.of(), notifications);
+        assertEquals(49, t.get(29).value());
+
+        // The least recently used segment which isn't retained is evicted.
+        t.get(5);
+        t.retain(20, 40);
+        assertThrows(NotLoadedException.class, () -> t.get(15));
+        assertEquals(25, t.get(5).value());
+        assertEquals(40, t.get(20).value());
+
+        // Even beyond the maximum.
+        t.retain(-10, 40);
+        assertEquals(1, fetches.size());
+        fetches.remove(0).run();
+        updates.remove(0).run();
+        assertEquals(List.of("10-20"), notifications);
+        assertEquals(35, t.get(15).value());
+    }
+
+    @Test
+    void notifiesAboutPrependedElements() {
+        PagedTimeline<Integer> t = createTimeline(16);
+        List<String> updates = recordUpdates(t);
+
+        t.loadPrevious();
+        t.loadPrevious();
+
+        assertEquals(List.of("0-10", "0-20"), updates);
+    }
+
+    @Test
+    void loadPreviousAsync() {
+        PagedTimeline<Integer> t = createTimeline(16);
+        List<Runnable> fetches = new ArrayList<>();
+
+        CompletableFuture<Integer> f = t.loadPreviousAsync(fetches::add, Runnable::run);
+        assertSame(f, t.loadPreviousAsync(fetches::add, Runnable::run));
+        assertEquals(1, fetches.size());
+        assertEquals(0, t.size());
+
+        fetches.get(0).run();
+
+        assertEquals(10, f.join());
+        assertEquals(10, t.size());
+        assertNotSame(f, t.loadPreviousAsync(Runnable::run, Runnable::run));
+        assertEquals(20, t.size());
+
+        // A load which completed right away isn't returned again.
+        assertEquals(10, t.loadPreviousAsync(Runnable::run, Runnable::run).join());
+        assertEquals(30, t.size());
+    }
+
+    @Test
+    void throwsForElementsOutsideOfSegment() {
+        PagedTimeline<Integer> t = new PagedTimeline<>(
+                (from, to) -> List.of(new Timestamped<>(to, 0)), Instant.ofEpochSecond(0), Instant.ofEpochSecond(500),
+                SEGMENT, 16);
+
+        assertThrows(IllegalArgumentException.class, t::loadPrevious);
+    }
+}
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -125,6 +127,51 @@ class SkipTimelineTest {
         assertEquals(-3, new SkipTimeline<>(base, 3).higherIndexOf(Instant.ofEpochMilli(9)));
     }
 
+    @Test
+    void cursor() {
+        TimelineCursor<Integer> c = new SkipTimeline<>(base, 3).cursor(-1);
+
+        assertTrue(c.advance());
+        assertEquals(0, c.index());
+        assertEquals(6, c.value());
+        assertTrue(c.advance());
+        assertEquals(Instant.ofEpochMilli(8), c.timestamp());
+        assertFalse(c.advance());
+        assertEquals(2, c.index());
+
+        assertTrue(c.retreat());
+        assertTrue(c.retreat());
+        assertFalse(c.retreat());
+        assertEquals(-1, c.index());
+        assertThrows(IndexOutOfBoundsException.class, c::value);
+
+        assertFalse(new SkipTimeline<>(base, 6).cursor(-1).advance());
+        assertThrows(IndexOutOfBoundsException.class, () -> new SkipTimeline<>(base, 3).cursor(3));
+    }
+
+    @Test
+    void shiftsRangeUpdates() {
+        SkipTimeline<Integer> t = new SkipTimeline<>(base, 3);
+
+        List<Integer> ranges = new ArrayList<>();
+        t.addListener(new TimelineRangeListener<>() {
+            @Override
+            public void onUpdate(Instant instant, Integer newValue) {
+            }
+
+            @Override
+            public void onRangeUpdate(int from, int to) {
+                ranges.add(from);
+                ranges.add(to);
+            }
+        });
+
+        base.batch(() -> base.put(Instant.ofEpochMilli(1), 1));
+        base.batch(() -> base.put(Instant.ofEpochMilli(2), 3));
+
+        assertEquals(List.of(0, 3), ranges);
+    }
+
     @Test
     void size() {
         assertEquals(5, new SkipTimeline<>(base, 0).size());
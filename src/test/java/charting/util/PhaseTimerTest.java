@@ -0,0 +1,25 @@
+package charting.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PhaseTimerTest {
+    @Test
+    void mark() {
+        long[] time = {1_000_000};
+        PhaseTimer timer = new PhaseTimer(() -> time[0]);
+
+        time[0] += 5_000_000;
+        assertEquals(new PhaseTimer.Phase("init", 5_000_000, 5_000_000), timer.mark("init"));
+
+        time[0] += 20_000_000;
+        timer.mark("load");
+
+        assertEquals(List.of(new PhaseTimer.Phase("init", 5_000_000, 5_000_000),
+                new PhaseTimer.Phase("load", 25_000_000, 20_000_000)), timer.getPhases());
+        assertEquals("init: 5 ms (+5 ms), load: 25 ms (+20 ms)", timer.toString());
+    }
+}